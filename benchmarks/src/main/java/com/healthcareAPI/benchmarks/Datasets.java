@@ -0,0 +1,120 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.benchmarks;
+
+import com.healthcareAPI.model.Appointment;
+import com.healthcareAPI.model.Billing;
+import com.healthcareAPI.model.Doctor;
+import com.healthcareAPI.model.Patient;
+import com.healthcareAPI.model.Person;
+import com.healthcareAPI.storage.Dictionaries;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Fills the DAO tables with generated records for the benchmarks. The records
+ * are built from small pools of names, dates and people with a fixed seed, so
+ * every run searches the same data and even the largest datasets fit in a few
+ * gigabytes of heap.
+ *
+ * @author Amandha
+ */
+final class Datasets {
+
+    static final String[] FIRST_NAMES = {"Eric", "Abigail", "Jeromy", "Alice", "Bob", "Charlie", "Eva", "Grace", "Henry", "Ivy",
+        "Liam", "Olivia", "Noah", "Emma", "Oliver", "Ava", "Elijah", "Sophia", "Lucas", "Mia"};
+    static final String[] LAST_NAMES = {"Anderson", "Henderson", "Osinski", "Smith", "Johnson", "Brown", "Martinez", "Lee", "Garcia", "Chen",
+        "Miller", "Davis", "Wilson", "Moore", "Taylor", "Thomas", "Jackson", "White", "Harris", "Clark"};
+    static final String[] GENDERS = {"M", "F"};
+    static final String[] SPECIALIZATIONS = {"Anesthesiologist", "Cardiologist", "Neurologist", "Dermatologist", "Pediatrician"};
+    static final String[] TIMES = {"09:00:00", "10:30:00", "12:00:00", "14:30:00", "16:00:00"};
+    static final List<List<String>> SERVICES = Arrays.asList(
+            Arrays.asList("Consultation", "MRI", "Physiotherapy"),
+            Arrays.asList("X-ray", "Ultrasound", "Blood Test"),
+            Arrays.asList("Dental Checkup", "Cleaning", "X-ray"));
+
+    private static final int POOL_SIZE = 1000;
+    private static final int DAYS = 365;
+
+    private Datasets() {
+    }
+
+    static void fillPeople(Map<Integer, Person> people, int size) {
+        people.clear();
+        Random random = new Random(42);
+        for (int id = 1; id <= size; id++) {
+            Person person = new Person(id, pick(random, FIRST_NAMES), pick(random, LAST_NAMES), 1000000000L + random.nextInt(900000000),
+                    "Street " + (id % POOL_SIZE), pick(random, GENDERS), 1 + random.nextInt(99));
+            Dictionaries.canonicalize(person);
+            people.put(id, person);
+        }
+    }
+
+    static void fillAppointments(Map<Integer, Appointment> appointments, int size) {
+        appointments.clear();
+        Random random = new Random(42);
+        Patient[] patients = patients(random);
+        Doctor[] doctors = doctors(random);
+        String[] dates = dates();
+        for (int id = 1; id <= size; id++) {
+            appointments.put(id, new Appointment(id, pick(random, dates), pick(random, TIMES), pick(random, patients), pick(random, doctors)));
+        }
+    }
+
+    static void fillBills(Map<Integer, Billing> bills, int size) {
+        bills.clear();
+        Random random = new Random(42);
+        Patient[] patients = patients(random);
+        String[] dates = dates();
+        for (int id = 1; id <= size; id++) {
+            double invoiced = 100 + random.nextInt(400);
+            double payment = invoiced - random.nextInt(100);
+            bills.put(id, new Billing(id, pick(random, dates), pick(random, TIMES), pick(random, patients),
+                    SERVICES.get(random.nextInt(SERVICES.size())), invoiced, payment, invoiced - payment));
+        }
+    }
+
+    private static Patient[] patients(Random random) {
+        Patient[] patients = new Patient[POOL_SIZE];
+        for (int i = 0; i < patients.length; i++) {
+            patients[i] = new Patient(i + 1, pick(random, FIRST_NAMES), pick(random, LAST_NAMES), 1234567890, "Street " + i,
+                    pick(random, GENDERS), 1 + random.nextInt(99), "Healthy", "No significant medical history");
+            Dictionaries.canonicalize(patients[i]);
+        }
+        return patients;
+    }
+
+    private static Doctor[] doctors(Random random) {
+        Doctor[] doctors = new Doctor[POOL_SIZE / 10];
+        for (int i = 0; i < doctors.length; i++) {
+            doctors[i] = new Doctor(pick(random, SPECIALIZATIONS), POOL_SIZE + i + 1, pick(random, FIRST_NAMES), pick(random, LAST_NAMES),
+                    1124579548, "Avenue " + i, pick(random, GENDERS), 30 + random.nextInt(35));
+            Dictionaries.canonicalize(doctors[i]);
+        }
+        return doctors;
+    }
+
+    // the days of 2024 in the dd-MM-yyyy format of the models
+    private static String[] dates() {
+        int[] monthLengths = {31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+        String[] dates = new String[DAYS];
+        int month = 0;
+        int day = 1;
+        for (int i = 0; i < DAYS; i++) {
+            dates[i] = String.format("%02d-%02d-2024", day, month + 1);
+            if (++day > monthLengths[month]) {
+                day = 1;
+                month++;
+            }
+        }
+        return dates;
+    }
+
+    private static <T> T pick(Random random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.benchmarks;
+
+import com.healthcareAPI.model.Person;
+import com.healthcareAPI.storage.ConcurrentIntObjectMap;
+import com.healthcareAPI.storage.Tables;
+import com.healthcareAPI.storage.VersionedIntMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Measures the memory footprint of the tables with JOL: the retained size of
+ * a table of 1 million records, per entry, for a boxed HashMap and both
+ * storage modes. Every entry holds the same record, so only the structure of
+ * the table is counted. The sizes are reported as the bytes and bytesPerEntry
+ * secondary results, the time is the time JOL takes to walk the table.
+ *
+ * @author Amandha
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Dlogback.configurationFile=logback-benchmarks.xml"})
+public class FootprintBenchmark {
+
+    private static final String HASH_MAP = "hashMap";
+
+    @State(Scope.Benchmark)
+    public static class Table {
+
+        @Param({"1000000"})
+        public int size;
+
+        @Param({HASH_MAP, Tables.MODE_STRIPED, Tables.MODE_MVCC})
+        public String map;
+
+        Map<Integer, Person> people;
+
+        @Setup(Level.Trial)
+        public void fill() {
+            if (HASH_MAP.equals(map)) {
+                people = new HashMap<>();
+            } else {
+                people = Tables.MODE_MVCC.equals(map) ? new VersionedIntMap<>() : new ConcurrentIntObjectMap<>();
+            }
+            Person person = new Person(1, "Eric", "Anderson", 1124579548, "684 Delaware Avenue, SF", "M", 45);
+            for (int id = 1; id <= size; id++) {
+                people.put(id, person);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        public long bytes;
+        public long bytesPerEntry;
+    }
+
+    @Benchmark
+    public void measure(Table table, Footprint footprint) {
+        footprint.bytes = GraphLayout.parseInstance(table.people).totalSize();
+        footprint.bytesPerEntry = footprint.bytes / table.size;
+    }
+}
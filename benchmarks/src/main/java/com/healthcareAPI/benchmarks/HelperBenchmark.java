@@ -0,0 +1,117 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.benchmarks;
+
+import com.healthcareAPI.helper.Helper;
+import com.healthcareAPI.helper.SimpleDateFormatHelper;
+import com.healthcareAPI.helper.ValidationHelper;
+import com.healthcareAPI.model.Patient;
+import com.healthcareAPI.model.Person;
+import com.healthcareAPI.storage.ConcurrentIntObjectMap;
+import com.healthcareAPI.storage.IntMap;
+import com.healthcareAPI.storage.Tables;
+import com.healthcareAPI.storage.VersionedIntMap;
+import java.text.ParseException;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the helpers on the write paths: the ID generation on tables of 10
+ * thousand up to 10 million records in both storage modes, alone and right
+ * after a write as on the add paths, the validation of the models and the date
+ * parsing used by the searches.
+ *
+ * @author Amandha
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Dlogback.configurationFile=logback-benchmarks.xml"})
+public class HelperBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Table {
+
+        @Param({"10000", "100000", "1000000", "10000000"})
+        public int size;
+
+        @Param({Tables.MODE_STRIPED, Tables.MODE_MVCC})
+        public String mode;
+
+        final Helper<Person> helper = new Helper<>();
+        IntMap<Person> people;
+        Person first;
+
+        @Setup(Level.Trial)
+        public void fill() {
+            people = Tables.MODE_MVCC.equals(mode) ? new VersionedIntMap<>() : new ConcurrentIntObjectMap<>();
+            Datasets.fillPeople(people, size);
+            first = people.get(1);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Models {
+
+        Patient validPatient;
+        Patient invalidPatient;
+
+        @Setup(Level.Trial)
+        public void create() {
+            validPatient = new Patient(3, "Jeromy", "Osinski", 1234548548, "86869 Weissnat Light Suite 560, SF", "M", 60, "Diagnosed with ADHD", "Parkinsons patient");
+            invalidPatient = new Patient(4, "Al1ce", "", 12345678901L, null, "F", 25, null, "No significant medical history");
+        }
+    }
+
+    @Benchmark
+    public int getNextId(Table table) {
+        return table.helper.getNextId(table.people);
+    }
+
+    @Benchmark
+    public int getNextIdAfterWrite(Table table) {
+        table.people.put(1, table.first); // every add follows a write, which installs a new version in the mvcc mode
+        return table.helper.getNextId(table.people);
+    }
+
+    @Benchmark
+    public int getNextIdOfBoxedMap(Table table) {
+        return table.helper.getNextId((Map<Integer, Person>) table.people); // the generic overload streams the boxed keys
+    }
+
+    @Benchmark
+    public String validateValidPatient(Models models) {
+        return ValidationHelper.validate(models.validPatient);
+    }
+
+    @Benchmark
+    public String validateInvalidPatient(Models models) {
+        return ValidationHelper.validate(models.invalidPatient);
+    }
+
+    @Benchmark
+    public String validateWithBeanValidation(Models models) {
+        return ValidationHelper.validateWithBeanValidation(models.invalidPatient);
+    }
+
+    @Benchmark
+    public Date parseSimpleDate() throws ParseException {
+        return SimpleDateFormatHelper.parseSimpleDate("25-05-2024");
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.benchmarks;
+
+import com.healthcareAPI.helper.ObjectPatcherHelper;
+import com.healthcareAPI.model.Patient;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the cached patch plans of {@link ObjectPatcherHelper} with the
+ * original reflective patcher, on the patient model used by the PATCH
+ * endpoints.
+ *
+ * @author Amandha
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Dlogback.configurationFile=logback-benchmarks.xml"})
+public class PatchBenchmark {
+
+    private Patient existingPatient;
+    private Patient partialUpdatedPatient;
+
+    @Setup
+    public void setUp() {
+        existingPatient = new Patient(3, "Jeromy", "Osinski", 1234548548, "86869 Weissnat Light Suite 560, SF", "M", 60, "Diagnosed with ADHD", "Parkinsons patient");
+        partialUpdatedPatient = new Patient();
+        partialUpdatedPatient.setPersonId(3);
+        partialUpdatedPatient.setAddress("123 Main St, Anytown, USA");
+        partialUpdatedPatient.setHealthStatus("Recovering");
+    }
+
+    @Benchmark
+    public Patient reflectivePatch() throws IllegalAccessException {
+        ObjectPatcherHelper.reflectiveObjectPatcher(existingPatient, partialUpdatedPatient);
+        return existingPatient;
+    }
+
+    @Benchmark
+    public Patient plannedPatch() throws IllegalAccessException {
+        ObjectPatcherHelper.objectPatcher(existingPatient, partialUpdatedPatient);
+        return existingPatient;
+    }
+
+    @Benchmark
+    public Patient patchedCopy() throws ReflectiveOperationException {
+        return ObjectPatcherHelper.patchedCopy(existingPatient, partialUpdatedPatient);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.benchmarks;
+
+import com.healthcareAPI.dao.AppointmentDAO;
+import com.healthcareAPI.dao.BillingDAO;
+import com.healthcareAPI.dao.PersonDAO;
+import com.healthcareAPI.model.Appointment;
+import com.healthcareAPI.model.Billing;
+import com.healthcareAPI.model.Person;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the DAO searches on tables of 10 thousand up to 10 million
+ * records. Every benchmark only fills the table it searches. The largest
+ * datasets need a big heap, which the fork is given; pick sizes with
+ * <code>-p size=10000,100000</code> on smaller machines.
+ * <p>
+ * The fork runs with the search cache turned off, so the searches measure the
+ * scans. The cached variant repeats a search with the cache on, where every
+ * call after the first is a hit.
+ *
+ * @author Amandha
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Dlogback.configurationFile=logback-benchmarks.xml", "-Dhealthcare.searchCache=false"})
+public class SearchBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class People {
+
+        @Param({"10000", "100000", "1000000", "10000000"})
+        public int size;
+
+        final PersonDAO personDAO = new PersonDAO();
+
+        @Setup(Level.Trial)
+        public void fill() {
+            Datasets.fillPeople(personDAO.getAllPeople(), size);
+        }
+
+        @TearDown(Level.Trial)
+        public void clear() {
+            personDAO.getAllPeople().clear();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Appointments {
+
+        @Param({"10000", "100000", "1000000", "10000000"})
+        public int size;
+
+        final AppointmentDAO appointmentDAO = new AppointmentDAO();
+
+        @Setup(Level.Trial)
+        public void fill() {
+            Datasets.fillAppointments(appointmentDAO.getAllAppointments(), size);
+        }
+
+        @TearDown(Level.Trial)
+        public void clear() {
+            appointmentDAO.getAllAppointments().clear();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Bills {
+
+        @Param({"10000", "100000", "1000000", "10000000"})
+        public int size;
+
+        final BillingDAO billingDAO = new BillingDAO();
+
+        @Setup(Level.Trial)
+        public void fill() {
+            Datasets.fillBills(billingDAO.getAllBills(), size);
+        }
+
+        @TearDown(Level.Trial)
+        public void clear() {
+            billingDAO.getAllBills().clear();
+        }
+    }
+
+    @Benchmark
+    public List<Person> searchPeopleByName(People people) {
+        return people.personDAO.searchPeople("Alice", "Smith", null, null, null);
+    }
+
+    @Benchmark
+    public List<Person> searchPeopleByAgeAndGender(People people) {
+        return people.personDAO.searchPeople(null, null, 30, 40, "F");
+    }
+
+    @Benchmark
+    public List<Appointment> searchAppointmentsByDoctorAndDates(Appointments appointments) {
+        return appointments.appointmentDAO.searchAppointments(null, null, null, "Garcia", "01-03-2024", "31-03-2024", null);
+    }
+
+    @Benchmark
+    public List<Appointment> searchAppointmentsBySpecialization(Appointments appointments) {
+        return appointments.appointmentDAO.searchAppointments(null, null, null, null, null, null, "Cardiologist");
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Dlogback.configurationFile=logback-benchmarks.xml", "-Dhealthcare.searchCache=true"})
+    public List<Appointment> searchAppointmentsBySpecializationCached(Appointments appointments) {
+        return appointments.appointmentDAO.searchAppointments(null, null, null, null, null, null, "Cardiologist");
+    }
+
+    @Benchmark
+    public List<Billing> searchBillsByPatientAndDates(Bills bills) {
+        return bills.billingDAO.searchBills(null, "Smith", "01-06-2024", "30-06-2024");
+    }
+}
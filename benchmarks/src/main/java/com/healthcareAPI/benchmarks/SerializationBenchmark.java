@@ -0,0 +1,106 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.healthcareAPI.model.Appointment;
+import com.healthcareAPI.model.Billing;
+import com.healthcareAPI.serialization.JsonFragments;
+import com.healthcareAPI.serialization.ObjectMappers;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the JSON serialization of the listings and the parsing of a
+ * request body, with the mapper Jersey's Jackson provider creates by default
+ * with the shared mapper of {@link ObjectMappers}, and with that mapper once
+ * the embedded patients and doctors have their {@link JsonFragments}. Pick one
+ * with <code>-p mapper=default</code>, <code>tuned</code> or
+ * <code>fragments</code>.
+ *
+ * @author Amandha
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Dlogback.configurationFile=logback-benchmarks.xml"})
+public class SerializationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Payloads {
+
+        @Param({"default", "tuned", "fragments"})
+        public String mapper;
+
+        @Param({"100"})
+        public int size;
+
+        Collection<Appointment> appointments;
+        Collection<Billing> bills;
+        byte[] appointmentJson;
+        ObjectWriter appointmentsWriter;
+        ObjectWriter billsWriter;
+        ObjectReader appointmentReader;
+
+        @Setup(Level.Trial)
+        public void create() throws IOException {
+            ObjectMapper objectMapper = mapper.equals("default") ? new ObjectMapper() : ObjectMappers.newJsonMapper();
+            Map<Integer, Appointment> appointmentTable = new HashMap<>();
+            Datasets.fillAppointments(appointmentTable, size);
+            appointments = new ArrayList<>(appointmentTable.values());
+            Map<Integer, Billing> billTable = new HashMap<>();
+            Datasets.fillBills(billTable, size);
+            bills = new ArrayList<>(billTable.values());
+            if (mapper.equals("fragments")) {
+                // as the DAOs do when they store a doctor or patient
+                for (Appointment appointment : appointments) {
+                    JsonFragments.storePatient(appointment.getPatient());
+                    JsonFragments.storeDoctor(appointment.getDoctor());
+                }
+                bills.forEach(bill -> JsonFragments.storePatient(bill.getPatient()));
+            }
+
+            // the listings are written as the Collection the resources return
+            appointmentsWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(Collection.class, Appointment.class));
+            billsWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(Collection.class, Billing.class));
+            appointmentReader = objectMapper.readerFor(Appointment.class);
+            appointmentJson = objectMapper.writeValueAsBytes(appointments.iterator().next());
+        }
+    }
+
+    @Benchmark
+    public byte[] writeAppointments(Payloads payloads) throws IOException {
+        return payloads.appointmentsWriter.writeValueAsBytes(payloads.appointments);
+    }
+
+    @Benchmark
+    public byte[] writeBills(Payloads payloads) throws IOException {
+        return payloads.billsWriter.writeValueAsBytes(payloads.bills);
+    }
+
+    @Benchmark
+    public Appointment readAppointment(Payloads payloads) throws IOException {
+        return payloads.appointmentReader.readValue(payloads.appointmentJson);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.loadtest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A minimal persistent HTTP/1.1 client connection, used by one load test
+ * worker at a time. HttpURLConnection cannot send PATCH requests, and a bare
+ * socket keeps the client side of the measurement small: the request is
+ * written in one go and the response body is read and discarded, with support
+ * for both Content-Length and chunked responses. The connection is reopened
+ * after an error or when the server asks to close it.
+ *
+ * @author Amandha
+ */
+final class HttpConnection implements Closeable {
+
+    private static final int TIMEOUT_MILLIS = 30000;
+
+    private final String host;
+    private final int port;
+    private final byte[] skipBuffer = new byte[8192];
+    private Socket socket;
+    private InputStream in;
+    private OutputStream out;
+
+    HttpConnection(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Sends a request and reads the whole response.
+     *
+     * @param method The HTTP method.
+     * @param path The path and query of the request.
+     * @param authorization The value of the Authorization header, or null.
+     * @param body The JSON body of the request, or null.
+     * @return The status code of the response.
+     * @throws IOException if the request could not be sent or the response
+     * could not be read. The connection is closed.
+     */
+    int execute(String method, String path, String authorization, String body) throws IOException {
+        try {
+            if (socket == null) {
+                open();
+            }
+            byte[] content = body == null ? null : body.getBytes(StandardCharsets.UTF_8);
+            StringBuilder request = new StringBuilder(256)
+                    .append(method).append(' ').append(path).append(" HTTP/1.1\r\n")
+                    .append("Host: ").append(host).append(':').append(port).append("\r\n")
+                    .append("Accept: application/json\r\n");
+            if (authorization != null) {
+                request.append("Authorization: ").append(authorization).append("\r\n");
+            }
+            if (content != null) {
+                request.append("Content-Type: application/json\r\n")
+                        .append("Content-Length: ").append(content.length).append("\r\n");
+            }
+            out.write(request.append("\r\n").toString().getBytes(StandardCharsets.ISO_8859_1));
+            if (content != null) {
+                out.write(content);
+            }
+            out.flush();
+            return readResponse();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // nothing left to release
+            }
+            socket = null;
+        }
+    }
+
+    private void open() throws IOException {
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(TIMEOUT_MILLIS);
+        socket.connect(new InetSocketAddress(host, port), TIMEOUT_MILLIS);
+        in = new BufferedInputStream(socket.getInputStream(), 16384);
+        out = new BufferedOutputStream(socket.getOutputStream(), 4096);
+    }
+
+    private int readResponse() throws IOException {
+        String statusLine = readLine();
+        int status = Integer.parseInt(statusLine.substring(9, 12));
+        long contentLength = -1;
+        boolean chunked = false;
+        boolean closeAfter = false;
+        for (String header = readLine(); !header.isEmpty(); header = readLine()) {
+            int colon = header.indexOf(':');
+            String name = header.substring(0, colon).trim();
+            String value = header.substring(colon + 1).trim();
+            if (name.equalsIgnoreCase("Content-Length")) {
+                contentLength = Long.parseLong(value);
+            } else if (name.equalsIgnoreCase("Transfer-Encoding")) {
+                chunked = value.equalsIgnoreCase("chunked");
+            } else if (name.equalsIgnoreCase("Connection")) {
+                closeAfter = value.equalsIgnoreCase("close");
+            }
+        }
+
+        if (chunked) {
+            for (long size = Long.parseLong(chunkSize(readLine()), 16); size > 0; size = Long.parseLong(chunkSize(readLine()), 16)) {
+                skip(size);
+                readLine(); // the line break after the chunk
+            }
+            while (!readLine().isEmpty()) {
+                // trailers are not used
+            }
+        } else if (contentLength > 0) {
+            skip(contentLength);
+        } else if (contentLength < 0 && status != 204 && status != 304) {
+            closeAfter = true; // the body ends when the server closes the connection
+            while (in.read(skipBuffer) >= 0) {
+                // discard the body
+            }
+        }
+
+        if (closeAfter) {
+            close();
+        }
+        return status;
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder(64);
+        for (int c = in.read(); c != '\n'; c = in.read()) {
+            if (c < 0) {
+                throw new EOFException("Connection closed by the server");
+            }
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.toString();
+    }
+
+    private void skip(long length) throws IOException {
+        while (length > 0) {
+            int read = in.read(skipBuffer, 0, (int) Math.min(skipBuffer.length, length));
+            if (read < 0) {
+                throw new EOFException("Connection closed by the server");
+            }
+            length -= read;
+        }
+    }
+
+    private static String chunkSize(String line) {
+        int extension = line.indexOf(';');
+        return (extension < 0 ? line : line.substring(0, extension)).trim();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.loadtest;
+
+import com.healthcareAPI.metrics.LatencyHistogram;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the outcome of the requests of one load test phase, per operation
+ * of the request mix, and prints the throughput and latency percentiles.
+ * <p>
+ * The response time of a request is measured from the moment the schedule
+ * intended to send it, not from the moment a worker got to it, so a server
+ * that falls behind the target rate shows up in the percentiles instead of
+ * silently lowering the offered load. The service time, measured from the
+ * actual send, is reported next to it.
+ *
+ * @author Amandha
+ */
+final class LoadReport {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    /**
+     * The outcome of the requests of one operation.
+     */
+    static final class Stats {
+
+        final LatencyHistogram responseTime = new LatencyHistogram();
+        final LatencyHistogram serviceTime = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder[] statuses = {new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder()};
+
+        void record(long intended, long sent, long completed, int status) {
+            responseTime.record(completed - intended);
+            serviceTime.record(completed - sent);
+            if (status >= 100 && status < 600) {
+                statuses[status / 100 - 1].increment();
+            }
+            if (status < 200 || status >= 300) {
+                errors.increment();
+            }
+        }
+
+        void failed(long intended, long sent, long completed) {
+            responseTime.record(completed - intended);
+            serviceTime.record(completed - sent);
+            errors.increment();
+        }
+    }
+
+    private final Map<String, Stats> operations = new LinkedHashMap<>();
+    private final Stats total = new Stats();
+    private final LongAdder unsent = new LongAdder();
+    private long startNanos;
+    private long endNanos;
+
+    LoadReport(RequestMix mix) {
+        for (RequestMix.Operation operation : mix.getOperations()) {
+            operations.put(operation.name, new Stats());
+        }
+    }
+
+    Stats stats(RequestMix.Operation operation) {
+        return operations.get(operation.name);
+    }
+
+    Stats total() {
+        return total;
+    }
+
+    void unsent() {
+        unsent.increment();
+    }
+
+    void started(long nanos) {
+        startNanos = nanos;
+    }
+
+    void ended(long nanos) {
+        endNanos = nanos;
+    }
+
+    /**
+     * Prints the report.
+     *
+     * @param out The stream to print to.
+     * @param targetRate The target rate of the phase in requests per second,
+     * or 0 when the workers sent requests as fast as they could.
+     */
+    void print(PrintStream out, int targetRate) {
+        double seconds = Math.max(endNanos - startNanos, 1) / 1e9;
+        long requests = total.responseTime.getCount();
+        out.printf("%nRequests: %d in %.1f s, %.1f req/s (target %s), %d errors, %d not sent%n",
+                requests, seconds, requests / seconds, targetRate > 0 ? targetRate + " req/s" : "unlimited",
+                total.errors.sum(), unsent.sum());
+        out.printf("Responses: 2xx %d, 3xx %d, 4xx %d, 5xx %d%n",
+                total.statuses[1].sum(), total.statuses[2].sum(), total.statuses[3].sum(), total.statuses[4].sum());
+        out.printf("%nResponse time in ms, from the scheduled send%n");
+        out.printf("%-24s %9s %7s %9s %9s %9s %9s %9s %9s%n", "operation", "count", "errors", "req/s", "p50", "p90", "p99", "p99.9", "max");
+        for (Map.Entry<String, Stats> entry : operations.entrySet()) {
+            if (entry.getValue().responseTime.getCount() > 0) {
+                printRow(out, entry.getKey(), entry.getValue(), entry.getValue().responseTime, seconds);
+            }
+        }
+        printRow(out, "total", total, total.responseTime, seconds);
+        printRow(out, "total (service time)", total, total.serviceTime, seconds);
+    }
+
+    private static void printRow(PrintStream out, String name, Stats stats, LatencyHistogram latency, double seconds) {
+        out.printf("%-24s %9d %7d %9.1f", name, latency.getCount(), stats.errors.sum(), latency.getCount() / seconds);
+        for (double quantile : QUANTILES) {
+            out.printf(" %9.2f", latency.getValueAtQuantile(quantile) / 1e6);
+        }
+        out.printf(" %9.2f%n", latency.getMax() / 1e6);
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.loadtest;
+
+import com.healthcareAPI.helper.ValidationHelper;
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+import org.glassfish.jersey.server.ResourceConfig;
+
+/**
+ * End to end HTTP load test of the Healthcare API. Starts the JAX-RS
+ * application in-process on an embedded Grizzly server with the same provider
+ * packages as web.xml, seeds it with synthetic records, and replays the
+ * weighted request mix against it over real HTTP connections at a target rate.
+ * Every run first warms the server up with the same mix, then measures for the
+ * configured duration and prints the throughput and the latency percentiles.
+ * <p>
+ * The load is open-loop: a scheduler releases the requests at the target rate
+ * whether or not earlier ones have completed, and a pool of workers, each with
+ * its own keep-alive connection, sends them. With a rate of 0 the workers send
+ * back to back instead, which measures the maximum throughput.
+ *
+ * @author Amandha
+ */
+public final class LoadTest {
+
+    private static final String PACKAGES = "com.healthcareAPI.security, com.healthcareAPI.resource, com.healthcareAPI.exception, "
+            + "com.healthcareAPI.logging, com.healthcareAPI.metrics, com.healthcareAPI.profiling, com.healthcareAPI.cache, "
+            + "com.healthcareAPI.compression, com.healthcareAPI.serialization";
+    private static final long DRAIN_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private static final Map<String, String> OPTIONS = new LinkedHashMap<>();
+
+    static {
+        OPTIONS.put("patients", "number of patients, each with a medical record (default 10000)");
+        OPTIONS.put("people", "number of people that are neither patients nor doctors (default patients / 10)");
+        OPTIONS.put("doctors", "number of doctors (default patients / 50, at least 10)");
+        OPTIONS.put("appointments", "number of appointments (default 3 x patients)");
+        OPTIONS.put("prescriptions", "number of prescriptions (default 2 x patients)");
+        OPTIONS.put("bills", "number of bills (default 2 x patients)");
+        OPTIONS.put("seed", "seed of the synthetic data and the request mix (default 42)");
+        OPTIONS.put("rate", "target rate in requests per second, 0 to send as fast as possible (default 500)");
+        OPTIONS.put("duration", "measured seconds (default 30)");
+        OPTIONS.put("warmup", "warm up seconds before the measurement (default 10)");
+        OPTIONS.put("connections", "number of concurrent connections (default 32)");
+        OPTIONS.put("port", "port of the embedded server (default 9998)");
+        OPTIONS.put("mix", "weights replacing the defaults, for example mix=getPatient=20,postBill=0");
+    }
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options;
+        SyntheticData data;
+        RequestMix mix;
+        try {
+            options = parse(args);
+            int patients = intOption(options, "patients", 10000);
+            data = new SyntheticData(
+                    intOption(options, "people", patients / 10),
+                    patients,
+                    intOption(options, "doctors", Math.max(10, patients / 50)),
+                    intOption(options, "appointments", 3 * patients),
+                    intOption(options, "prescriptions", 2 * patients),
+                    intOption(options, "bills", 2 * patients),
+                    intOption(options, "seed", 42));
+            mix = RequestMix.withWeights(weights(options.getOrDefault("mix", "")));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            usage();
+            System.exit(1);
+            return;
+        }
+        if (options.containsKey("help")) {
+            usage();
+            return;
+        }
+        if (System.getProperty("logback.configurationFile") == null) {
+            System.setProperty("logback.configurationFile", "logback-loadtest.xml"); // before anything creates a logger
+        }
+        int rate = intOption(options, "rate", 500);
+        int connections = intOption(options, "connections", 32);
+        int port = intOption(options, "port", 9998);
+
+        long seeding = System.nanoTime();
+        data.seed();
+        System.out.printf("Seeded %d records in %.1f s%n", data.size(), (System.nanoTime() - seeding) / 1e9);
+
+        ValidationHelper.warmUp();
+        HttpServer server = GrizzlyHttpServerFactory.createHttpServer(URI.create("http://localhost:" + port + "/rest/"),
+                new ResourceConfig().packages(PACKAGES.split(",\\s*")));
+        try {
+            long seed = intOption(options, "seed", 42);
+            int warmup = intOption(options, "warmup", 10);
+            if (warmup > 0) {
+                System.out.printf("Warming up for %d s%n", warmup);
+                run(data, mix, port, rate, connections, warmup, seed);
+            }
+            int duration = intOption(options, "duration", 30);
+            System.out.printf("Measuring for %d s at %s with %d connections%n", duration,
+                    rate > 0 ? rate + " req/s" : "the maximum rate", connections);
+            run(data, mix, port, rate, connections, duration, seed + 1).print(System.out, rate);
+        } finally {
+            server.shutdownNow();
+        }
+    }
+
+    private static LoadReport run(SyntheticData data, RequestMix mix, int port, int rate, int connections, int seconds, long seed)
+            throws InterruptedException {
+        LoadReport report = new LoadReport(mix);
+        BlockingQueue<Long> schedule = rate > 0 ? new LinkedBlockingQueue<>() : null;
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        report.started(start);
+
+        Worker[] workers = new Worker[connections];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(data, mix, report, new Random(seed * 31 + i), port, schedule, end);
+            workers[i].start();
+        }
+
+        if (schedule != null) {
+            double interval = 1e9 / rate;
+            for (long i = 0;; i++) {
+                long intended = start + (long) (i * interval);
+                if (intended >= end) {
+                    break;
+                }
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                schedule.add(intended);
+            }
+        }
+        for (Worker worker : workers) {
+            worker.finish();
+        }
+        for (Worker worker : workers) {
+            worker.join();
+        }
+        report.ended(System.nanoTime());
+        return report;
+    }
+
+    /**
+     * Sends requests over its own connection, either the ones released by the
+     * schedule or back to back until the end of the phase.
+     */
+    private static final class Worker extends Thread {
+
+        private final SyntheticData data;
+        private final RequestMix mix;
+        private final LoadReport report;
+        private final Random random;
+        private final HttpConnection connection;
+        private final BlockingQueue<Long> schedule;
+        private final long end;
+        private volatile boolean finished;
+
+        Worker(SyntheticData data, RequestMix mix, LoadReport report, Random random, int port, BlockingQueue<Long> schedule, long end) {
+            super("load-test-worker");
+            setDaemon(true);
+            this.data = data;
+            this.mix = mix;
+            this.report = report;
+            this.random = random;
+            this.connection = new HttpConnection("localhost", port);
+            this.schedule = schedule;
+            this.end = end;
+        }
+
+        void finish() {
+            finished = true;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (schedule == null) {
+                    for (long now = System.nanoTime(); now < end; now = System.nanoTime()) {
+                        send(now);
+                    }
+                    return;
+                }
+                while (true) {
+                    Long intended = schedule.poll(10, TimeUnit.MILLISECONDS);
+                    if (intended == null) {
+                        if (finished) {
+                            return;
+                        }
+                    } else if (System.nanoTime() - end > DRAIN_NANOS) {
+                        report.unsent(); // the server fell too far behind to wait for the backlog
+                    } else {
+                        send(intended);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                connection.close();
+            }
+        }
+
+        private void send(long intended) {
+            RequestMix.Operation operation = mix.next(random);
+            RequestMix.Request request = operation.request(data, random);
+            LoadReport.Stats stats = report.stats(operation);
+            long sent = System.nanoTime();
+            try {
+                int status = connection.execute(operation.method, "/rest" + request.path, operation.authorization, request.body);
+                long completed = System.nanoTime();
+                stats.record(intended, sent, completed, status);
+                report.total().record(intended, sent, completed, status);
+            } catch (IOException | RuntimeException e) {
+                long completed = System.nanoTime();
+                stats.failed(intended, sent, completed);
+                report.total().failed(intended, sent, completed);
+            }
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int equals = option.indexOf('=');
+            String name = equals < 0 ? option : option.substring(0, equals);
+            if (!OPTIONS.containsKey(name) && !name.equals("help")) {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+            options.put(name, equals < 0 ? "" : option.substring(equals + 1));
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The " + name + " option must be a number: " + value, e);
+        }
+    }
+
+    private static Map<String, Integer> weights(String mix) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String weight : mix.split(",")) {
+            if (!weight.trim().isEmpty()) {
+                String[] parts = weight.split("=");
+                if (parts.length != 2 || !parts[1].trim().matches("\\d+")) {
+                    throw new IllegalArgumentException("The mix option takes name=weight pairs: " + weight);
+                }
+                weights.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+            }
+        }
+        return weights;
+    }
+
+    private static void usage() {
+        System.out.println("Usage: java -jar loadtest.jar [option=value ...]");
+        OPTIONS.forEach((name, description) -> System.out.printf("  %-15s %s%n", name, description));
+        System.out.println("\nOperations of the request mix and their default weights:");
+        RequestMix.defaults().forEach(operation -> System.out.printf("  %-24s %-6s %3d%s%n", operation.name, operation.method,
+                operation.weight, operation.authorization != null ? "  (Basic auth)" : ""));
+    }
+}
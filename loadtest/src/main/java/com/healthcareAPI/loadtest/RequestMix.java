@@ -0,0 +1,223 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.loadtest;
+
+import static com.healthcareAPI.loadtest.SyntheticData.pick;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * The weighted mix of requests replayed by the load test. The default weights
+ * roughly follow the traffic of a clinic front desk: mostly reads by ID and
+ * the patient and doctor listings, then searches, and a smaller share of
+ * PATCHes and POSTs. The bills, prescriptions and medical records endpoints
+ * are sent with the Basic credentials the SecurityFilter expects.
+ *
+ * @author Amandha
+ */
+final class RequestMix {
+
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder().encodeToString("admin:csarulz".getBytes(StandardCharsets.UTF_8));
+
+    /**
+     * A request to send: the path with its query, and the JSON body or null.
+     */
+    static final class Request {
+
+        final String path;
+        final String body;
+
+        Request(String path, String body) {
+            this.path = path;
+            this.body = body;
+        }
+    }
+
+    /**
+     * One kind of request in the mix, built from the synthetic data.
+     */
+    static final class Operation {
+
+        final String name;
+        final String method;
+        final String authorization;
+        final int weight;
+        private final BiFunction<SyntheticData, Random, Request> requests;
+
+        Operation(String name, String method, String authorization, int weight, BiFunction<SyntheticData, Random, Request> requests) {
+            this.name = name;
+            this.method = method;
+            this.authorization = authorization;
+            this.weight = weight;
+            this.requests = requests;
+        }
+
+        Operation withWeight(int weight) {
+            return new Operation(name, method, authorization, weight, requests);
+        }
+
+        Request request(SyntheticData data, Random random) {
+            return requests.apply(data, random);
+        }
+    }
+
+    private final List<Operation> operations;
+    private final Operation[] slots;
+
+    private RequestMix(List<Operation> operations) {
+        this.operations = operations;
+        List<Operation> weighted = new ArrayList<>();
+        for (Operation operation : operations) {
+            for (int i = 0; i < operation.weight; i++) {
+                weighted.add(operation);
+            }
+        }
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("The request mix has no operation with a positive weight");
+        }
+        this.slots = weighted.toArray(new Operation[0]);
+    }
+
+    /**
+     * Creates the default mix with some of the weights replaced.
+     *
+     * @param weights The weights to change, by operation name.
+     * @return The request mix.
+     * @throws IllegalArgumentException if a weight names an unknown operation.
+     */
+    static RequestMix withWeights(Map<String, Integer> weights) {
+        List<Operation> operations = new ArrayList<>();
+        for (Operation operation : defaults()) {
+            Integer weight = weights.remove(operation.name);
+            operations.add(weight == null ? operation : operation.withWeight(weight));
+        }
+        if (!weights.isEmpty()) {
+            throw new IllegalArgumentException("Unknown operations in the request mix: " + weights.keySet());
+        }
+        return new RequestMix(operations);
+    }
+
+    /**
+     * @return The operations of the mix, including the ones with no weight.
+     */
+    List<Operation> getOperations() {
+        return operations;
+    }
+
+    /**
+     * Picks the next operation, in proportion to the weights.
+     *
+     * @param random The random source of the calling worker.
+     * @return The operation.
+     */
+    Operation next(Random random) {
+        return slots[random.nextInt(slots.length)];
+    }
+
+    static List<Operation> defaults() {
+        List<Operation> operations = new ArrayList<>();
+
+        // reads by ID and the listings of a patient or doctor
+        operations.add(get("getPerson", false, 8, (data, random) -> "/people/" + data.randomPersonId(random)));
+        operations.add(get("getPatient", false, 10, (data, random) -> "/patients/" + data.randomPatientId(random)));
+        operations.add(get("getDoctor", false, 6, (data, random) -> "/doctors/" + data.randomDoctorId(random)));
+        operations.add(get("getAppointment", false, 6, (data, random) -> "/appointments/" + data.randomAppointmentId(random)));
+        operations.add(get("getPrescription", true, 5, (data, random) -> "/prescriptions/" + data.randomPrescriptionId(random)));
+        operations.add(get("getBill", true, 5, (data, random) -> "/bills/" + data.randomBillId(random)));
+        operations.add(get("getMedicalRecord", true, 5, (data, random) -> "/medical-records/" + data.randomMedicalRecordId(random)));
+        operations.add(get("getPatientAppointments", false, 4, (data, random) -> "/patients/" + data.randomPatientId(random) + "/appointments"));
+        operations.add(get("getDoctorAppointments", false, 3, (data, random) -> "/doctors/" + data.randomDoctorId(random) + "/appointments"));
+        operations.add(get("getPatientBills", true, 3, (data, random) -> "/patients/" + data.randomPatientId(random) + "/bills"));
+
+        // searches
+        operations.add(get("searchPeople", false, 4, (data, random) -> {
+            int minAge = random.nextInt(80);
+            return "/people/search?lastName=" + pick(random, SyntheticData.LAST_NAMES) + "&minAge=" + minAge + "&maxAge=" + (minAge + 10);
+        }));
+        operations.add(get("searchPatients", false, 4, (data, random)
+                -> "/patients/search?firstName=" + pick(random, SyntheticData.FIRST_NAMES) + "&gender=" + pick(random, SyntheticData.GENDERS)));
+        operations.add(get("searchDoctors", false, 3, (data, random)
+                -> "/doctors/search?specialization=" + pick(random, SyntheticData.SPECIALIZATIONS)));
+        operations.add(get("searchAppointments", false, 4, (data, random)
+                -> "/appointments/search?doctorLastName=" + pick(random, SyntheticData.LAST_NAMES) + "&fromDate=01-03-2024&toDate=31-05-2024"));
+        operations.add(get("searchBills", true, 2, (data, random)
+                -> "/bills/search?patientLastName=" + pick(random, SyntheticData.LAST_NAMES)));
+        operations.add(get("searchMedicalRecords", true, 2, (data, random)
+                -> "/medical-records/search?bloodGroup=" + encode(pick(random, SyntheticData.BLOOD_GROUPS))));
+        operations.add(get("searchPrescriptions", true, 1, (data, random)
+                -> "/prescriptions/search?patientFirstName=" + pick(random, SyntheticData.FIRST_NAMES) + "&fromDate=01-06-2024"));
+
+        // partial updates, with the ID of the path repeated in the body
+        operations.add(patch("patchPerson", 4, "/people/", SyntheticData::randomPersonId, random
+                -> ",\"address\":\"" + SyntheticData.address(random) + "\"}"));
+        operations.add(patch("patchPatient", 5, "/patients/", SyntheticData::randomPatientId, random
+                -> ",\"healthStatus\":\"" + pick(random, SyntheticData.HEALTH_STATUSES) + "\"}"));
+        operations.add(patch("patchDoctor", 3, "/doctors/", SyntheticData::randomDoctorId, random
+                -> ",\"specialization\":\"" + pick(random, SyntheticData.SPECIALIZATIONS) + "\"}"));
+
+        // new records
+        operations.add(post("postPatient", false, 4, "/patients", (data, random) -> {
+            String person = personJson(random);
+            return person.substring(0, person.length() - 1) + ",\"healthStatus\":\"" + pick(random, SyntheticData.HEALTH_STATUSES)
+                    + "\",\"medicalHistory\":\"" + pick(random, SyntheticData.MEDICAL_HISTORIES) + "\"}";
+        }));
+        operations.add(post("postAppointment", false, 5, "/appointments", (data, random)
+                -> "{\"date\":\"" + pick(random, SyntheticData.DATES) + "\",\"time\":\"" + pick(random, SyntheticData.TIMES)
+                + "\",\"patient\":{\"personId\":" + data.randomPatientId(random) + "},\"doctor\":{\"personId\":" + data.randomDoctorId(random) + "}}"));
+        operations.add(post("postBill", true, 2, "/bills", (data, random) -> {
+            int invoiced = 50 + random.nextInt(950);
+            int payment = random.nextInt(invoiced + 1);
+            return "{\"billDate\":\"" + pick(random, SyntheticData.DATES) + "\",\"billTime\":\"" + pick(random, SyntheticData.TIMES)
+                    + "\",\"patient\":{\"personId\":" + data.randomPatientId(random) + "},\"services\":[\"Consultation\",\"Blood Test\"]"
+                    + ",\"invoicedAmount\":" + invoiced + ",\"payment\":" + payment + ",\"outstandingBalance\":" + (invoiced - payment) + "}";
+        }));
+        operations.add(post("postPrescription", true, 2, "/prescriptions", (data, random)
+                -> "{\"prescribedFor\":{\"personId\":" + data.randomPatientId(random) + "},\"prescribedBy\":{\"personId\":" + data.randomDoctorId(random)
+                + "},\"prescribedDate\":\"" + pick(random, SyntheticData.DATES) + "\",\"medication\":\"" + pick(random, SyntheticData.MEDICATIONS)
+                + "\",\"instruction\":\"" + pick(random, SyntheticData.INSTRUCTIONS) + "\",\"dosage\":\"" + pick(random, SyntheticData.DOSAGES)
+                + "\",\"duration\":\"" + pick(random, SyntheticData.DURATIONS) + "\"}"));
+        return operations;
+    }
+
+    private static Operation get(String name, boolean authenticated, int weight, BiFunction<SyntheticData, Random, String> path) {
+        return new Operation(name, "GET", authenticated ? AUTHORIZATION : null, weight,
+                (data, random) -> new Request(path.apply(data, random), null));
+    }
+
+    private static Operation patch(String name, int weight, String path, ToIntBiFunction<SyntheticData, Random> ids, Function<Random, String> fields) {
+        return new Operation(name, "PATCH", null, weight, (data, random) -> {
+            int id = ids.applyAsInt(data, random);
+            return new Request(path + id, "{\"personId\":" + id + fields.apply(random));
+        });
+    }
+
+    private static Operation post(String name, boolean authenticated, int weight, String path, BiFunction<SyntheticData, Random, String> body) {
+        return new Operation(name, "POST", authenticated ? AUTHORIZATION : null, weight,
+                (data, random) -> new Request(path, body.apply(data, random)));
+    }
+
+    private static String personJson(Random random) {
+        return "{\"firstName\":\"" + pick(random, SyntheticData.FIRST_NAMES) + "\",\"lastName\":\"" + pick(random, SyntheticData.LAST_NAMES)
+                + "\",\"age\":" + (1 + random.nextInt(95)) + ",\"gender\":\"" + pick(random, SyntheticData.GENDERS)
+                + "\",\"contactNo\":" + (1000000000L + random.nextInt(900000000)) + ",\"address\":\"" + SyntheticData.address(random) + "\"}";
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
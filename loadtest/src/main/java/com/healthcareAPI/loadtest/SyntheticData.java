@@ -0,0 +1,244 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.loadtest;
+
+import com.healthcareAPI.dao.AppointmentDAO;
+import com.healthcareAPI.dao.BillingDAO;
+import com.healthcareAPI.dao.DoctorDAO;
+import com.healthcareAPI.dao.MedicalRecordDAO;
+import com.healthcareAPI.dao.PatientDAO;
+import com.healthcareAPI.dao.PersonDAO;
+import com.healthcareAPI.dao.PrescriptionDAO;
+import com.healthcareAPI.model.Appointment;
+import com.healthcareAPI.model.Billing;
+import com.healthcareAPI.model.Doctor;
+import com.healthcareAPI.model.MedicalRecord;
+import com.healthcareAPI.model.Patient;
+import com.healthcareAPI.model.Person;
+import com.healthcareAPI.model.Prescription;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates realistic records for the load test and seeds them through the
+ * DAOs, so the data goes through the same canonicalization and ID assignment
+ * as records created over HTTP. The same pools are used to build the request
+ * bodies and search parameters, which keeps the searches of the request mix
+ * hitting real records.
+ *
+ * @author Amandha
+ */
+final class SyntheticData {
+
+    static final String[] FIRST_NAMES = {"Eric", "Abigail", "Jeromy", "Alice", "Bob", "Charlie", "Eva", "Grace", "Henry", "Ivy",
+        "Liam", "Olivia", "Noah", "Emma", "Oliver", "Ava", "Elijah", "Sophia", "Lucas", "Mia",
+        "James", "Amelia", "Benjamin", "Harper", "Mason", "Evelyn", "Ethan", "Abby", "Daniel", "Ella"};
+    static final String[] LAST_NAMES = {"Anderson", "Henderson", "Osinski", "Smith", "Johnson", "Brown", "Martinez", "Lee", "Garcia", "Chen",
+        "Miller", "Davis", "Wilson", "Moore", "Taylor", "Thomas", "Jackson", "White", "Harris", "Clark",
+        "Lewis", "Robinson", "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen"};
+    static final String[] GENDERS = {"M", "F"};
+    static final String[] STREETS = {"Main St", "Elm St", "Oak St", "Maple Ave", "Delaware Avenue", "Elliott Street", "Park Road", "Cedar Lane"};
+    static final String[] TOWNS = {"SF", "NH", "Anytown, USA", "Othertown, USA", "Springfield", "Riverside"};
+    static final String[] SPECIALIZATIONS = {"Anesthesiologist", "Cardiologist", "Neurologist", "Dermatologist", "Pediatrician",
+        "Oncologist", "Radiologist", "Psychiatrist"};
+    static final String[] HEALTH_STATUSES = {"Healthy", "Mild allergies", "High blood pressure", "Type 2 diabetes", "Asthma", "Recovering from surgery"};
+    static final String[] MEDICAL_HISTORIES = {"No significant medical history", "No major illnesses", "Previous surgery for appendicitis",
+        "Family history of heart disease", "Previously admitted due to loss of memory"};
+    static final String[] ALLERGIES = {"None", "Penicillin", "Ibuprofen", "Peanuts", "Pollen", "Latex"};
+    static final String[] DIAGNOSES = {"None", "ADHD", "Diabetes", "Hypertension", "Asthma", "Appendectomy", "Migraine"};
+    static final String[] TREATMENTS = {"Annual checkup", "Monthly checkups", "Follow-up appointment", "Physiotherapy", "Every two week checkup"};
+    static final String[] MEDICATIONS = {"Amoxicillin", "Metformin", "Lisinopril", "Salbutamol", "Atorvastatin", "Paracetamol"};
+    static final String[] INSTRUCTIONS = {"Take with food", "Take before bedtime", "Take with plenty of water", "Take after meals", "Take on an empty stomach"};
+    static final String[] DOSAGES = {"1 pill", "2 pills", "5 ml", "10 ml"};
+    static final String[] DURATIONS = {"1 week", "2 weeks", "3 weeks", "1 month"};
+    static final String[] TIMES = {"09:00:00", "09:30:00", "10:00:00", "10:30:00", "11:00:00", "14:00:00", "14:30:00", "16:00:00"};
+    static final List<List<String>> SERVICES = Arrays.asList(
+            Arrays.asList("Consultation", "MRI", "Physiotherapy"),
+            Arrays.asList("X-ray", "Ultrasound", "Blood Test"),
+            Arrays.asList("Dental Checkup", "Cleaning", "X-ray"),
+            Arrays.asList("Consultation"));
+    // blood groups in the proportions of the general population
+    static final String[] BLOOD_GROUPS = weighted(new String[]{"O+", "A+", "B+", "O-", "A-", "AB+", "B-", "AB-"}, new int[]{38, 34, 9, 7, 6, 3, 2, 1});
+    // the days of 2024 in the dd-MM-yyyy format of the models
+    static final String[] DATES = dates();
+
+    private final int people;
+    private final int patients;
+    private final int doctors;
+    private final int appointments;
+    private final int prescriptions;
+    private final int bills;
+    private final long seed;
+
+    private int[] patientIds;
+    private int[] doctorIds;
+    private int maxPersonId;
+    private int maxAppointmentId;
+    private int maxPrescriptionId;
+    private int maxBillId;
+    private int maxMedicalRecordId;
+
+    /**
+     * Creates a generator. Every patient gets one medical record.
+     *
+     * @param people The number of people that are neither patients nor
+     * doctors.
+     * @param patients The number of patients.
+     * @param doctors The number of doctors.
+     * @param appointments The number of appointments.
+     * @param prescriptions The number of prescriptions.
+     * @param bills The number of bills.
+     * @param seed The seed of the random values.
+     */
+    SyntheticData(int people, int patients, int doctors, int appointments, int prescriptions, int bills, long seed) {
+        this.people = people;
+        this.patients = patients;
+        this.doctors = doctors;
+        this.appointments = appointments;
+        this.prescriptions = prescriptions;
+        this.bills = bills;
+        this.seed = seed;
+    }
+
+    /**
+     * Adds the generated records to the DAOs, next to the sample records they
+     * start with.
+     */
+    void seed() {
+        Random random = new Random(seed);
+        PersonDAO personDAO = new PersonDAO();
+        PatientDAO patientDAO = new PatientDAO();
+        DoctorDAO doctorDAO = new DoctorDAO();
+
+        for (int i = 0; i < people; i++) {
+            personDAO.addPerson(person(random));
+        }
+
+        Patient[] seededPatients = new Patient[patients];
+        patientIds = new int[patients];
+        for (int i = 0; i < patients; i++) {
+            Person person = person(random);
+            int personId = personDAO.addPerson(person);
+            seededPatients[i] = new Patient(personId, person.getFirstName(), person.getLastName(), person.getContactNo(), person.getAddress(),
+                    person.getGender(), person.getAge(), pick(random, HEALTH_STATUSES), pick(random, MEDICAL_HISTORIES));
+            patientDAO.addPatient(seededPatients[i]);
+            patientIds[i] = personId;
+        }
+
+        Doctor[] seededDoctors = new Doctor[doctors];
+        doctorIds = new int[doctors];
+        for (int i = 0; i < doctors; i++) {
+            Person person = person(random);
+            person.setAge(28 + random.nextInt(40));
+            int personId = personDAO.addPerson(person);
+            seededDoctors[i] = new Doctor(pick(random, SPECIALIZATIONS), personId, person.getFirstName(), person.getLastName(),
+                    person.getContactNo(), person.getAddress(), person.getGender(), person.getAge());
+            doctorDAO.addDoctor(seededDoctors[i]);
+            doctorIds[i] = personId;
+        }
+        maxPersonId = personDAO.getAllPeople().keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+
+        AppointmentDAO appointmentDAO = new AppointmentDAO();
+        for (int i = 0; i < appointments; i++) {
+            maxAppointmentId = appointmentDAO.addAppointment(new Appointment(0, pick(random, DATES), pick(random, TIMES),
+                    pick(random, seededPatients), pick(random, seededDoctors)));
+        }
+
+        PrescriptionDAO prescriptionDAO = new PrescriptionDAO();
+        for (int i = 0; i < prescriptions; i++) {
+            maxPrescriptionId = prescriptionDAO.addPrescription(new Prescription(0, pick(random, seededPatients), pick(random, seededDoctors),
+                    pick(random, DATES), pick(random, MEDICATIONS), pick(random, INSTRUCTIONS), pick(random, DOSAGES), pick(random, DURATIONS)));
+        }
+
+        BillingDAO billingDAO = new BillingDAO();
+        for (int i = 0; i < bills; i++) {
+            double invoiced = 50 + random.nextInt(950);
+            double payment = random.nextBoolean() ? invoiced : invoiced - random.nextInt((int) invoiced);
+            maxBillId = billingDAO.addBill(new Billing(0, pick(random, DATES), pick(random, TIMES), pick(random, seededPatients),
+                    SERVICES.get(random.nextInt(SERVICES.size())), invoiced, payment, invoiced - payment));
+        }
+
+        MedicalRecordDAO medicalRecordDAO = new MedicalRecordDAO();
+        for (Patient patient : seededPatients) {
+            maxMedicalRecordId = medicalRecordDAO.addMedicalRecord(new MedicalRecord(0, patient, pick(random, ALLERGIES),
+                    pick(random, DIAGNOSES), pick(random, TREATMENTS), pick(random, BLOOD_GROUPS)));
+        }
+    }
+
+    /**
+     * @return The number of seeded records, counting the person record of
+     * every patient and doctor and the medical record of every patient.
+     */
+    long size() {
+        return (long) people + 3L * patients + 2L * doctors + appointments + prescriptions + bills;
+    }
+
+    int randomPatientId(Random random) {
+        return patientIds[random.nextInt(patientIds.length)];
+    }
+
+    int randomDoctorId(Random random) {
+        return doctorIds[random.nextInt(doctorIds.length)];
+    }
+
+    int randomPersonId(Random random) {
+        return 1 + random.nextInt(maxPersonId);
+    }
+
+    int randomAppointmentId(Random random) {
+        return 1 + random.nextInt(Math.max(maxAppointmentId, 1));
+    }
+
+    int randomPrescriptionId(Random random) {
+        return 1 + random.nextInt(Math.max(maxPrescriptionId, 1));
+    }
+
+    int randomBillId(Random random) {
+        return 1 + random.nextInt(Math.max(maxBillId, 1));
+    }
+
+    int randomMedicalRecordId(Random random) {
+        return 1 + random.nextInt(Math.max(maxMedicalRecordId, 1));
+    }
+
+    static Person person(Random random) {
+        return new Person(0, pick(random, FIRST_NAMES), pick(random, LAST_NAMES), 1000000000L + random.nextInt(900000000),
+                address(random), pick(random, GENDERS), 1 + random.nextInt(95));
+    }
+
+    static String address(Random random) {
+        return (1 + random.nextInt(9999)) + " " + pick(random, STREETS) + ", " + pick(random, TOWNS);
+    }
+
+    static <T> T pick(Random random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String[] weighted(String[] values, int[] weights) {
+        String[] table = new String[Arrays.stream(weights).sum()];
+        int index = 0;
+        for (int i = 0; i < values.length; i++) {
+            Arrays.fill(table, index, index + weights[i], values[i]);
+            index += weights[i];
+        }
+        return table;
+    }
+
+    private static String[] dates() {
+        int[] monthLengths = {31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+        String[] dates = new String[366];
+        int month = 0;
+        int day = 1;
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = String.format("%02d-%02d-2024", day, month + 1);
+            if (++day > monthLengths[month]) {
+                day = 1;
+                month++;
+            }
+        }
+        return dates;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.cache;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import javax.ws.rs.NameBinding;
+
+/**
+ * Marks a GET resource method whose serialized responses are kept in the
+ * {@link ResponseCache}. The cached bytes are dropped when the DAO writes the
+ * table they were read from.
+ *
+ * @author Amandha
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface CachedResponse {
+
+    /**
+     * @return The table the response is read from, one of the table names of
+     * {@link ResponseCache}.
+     */
+    String table() default "";
+
+    /**
+     * @return The path parameter holding the ID of the record the response
+     * shows, or empty if the response shows the whole table.
+     */
+    String idParam() default "";
+}
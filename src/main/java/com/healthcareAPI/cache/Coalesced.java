@@ -0,0 +1,31 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.cache;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import javax.ws.rs.NameBinding;
+
+/**
+ * Marks a GET resource method whose concurrent identical requests share one
+ * execution, see {@link RequestCoalescingFilter}.
+ *
+ * @author Amandha
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Coalesced {
+
+    /**
+     * @return The names of the tables the method reads, see
+     * {@link com.healthcareAPI.storage.Tables}. A request only shares an
+     * execution that started after the last write to them. The requests of a
+     * method without tables are not coalesced.
+     */
+    String[] tables() default {};
+}
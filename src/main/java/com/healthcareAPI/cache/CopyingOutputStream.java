@@ -0,0 +1,68 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Passes a response body through and keeps a copy of it, up to a maximum
+ * size.
+ *
+ * @author Amandha
+ */
+final class CopyingOutputStream extends OutputStream {
+
+    private final OutputStream out;
+    private final int maxBytes;
+    private ByteArrayOutputStream copy = new ByteArrayOutputStream(1024);
+
+    CopyingOutputStream(OutputStream out, int maxBytes) {
+        this.out = out;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return The copied body, or null if it was larger than the maximum.
+     */
+    byte[] toByteArray() {
+        return copy == null ? null : copy.toByteArray();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        if (copy != null) {
+            copy.write(b);
+            limit();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        if (copy != null) {
+            copy.write(b, off, len);
+            limit();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void limit() {
+        if (copy.size() > maxBytes) {
+            copy = null; // too large to keep, stop copying
+        }
+    }
+}
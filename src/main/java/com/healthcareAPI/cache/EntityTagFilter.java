@@ -0,0 +1,102 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.cache;
+
+import com.healthcareAPI.helper.EntityTagHelper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Priority;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Gives every representation of a record its own strong entity tag. The
+ * resource methods and the {@link ResponseCache} tag a response with the
+ * record version only, and this filter appends the media type and the content
+ * coding of the response, see {@link EntityTagHelper#representationTag}.
+ * <p>
+ * The If-None-Match and If-Match headers of a read are evaluated here, against
+ * the tag of the representation the client would receive, so a 304 (Not
+ * Modified) always confirms the variant the client asked for, whether the body
+ * came from the resource method or from the response cache. The tags of the
+ * If-Match and If-None-Match headers of a write are reduced to their record
+ * version before the resource method compares them, as a write does not depend
+ * on the representation the client read.
+ *
+ * @author Amandha
+ */
+@Provider
+@Priority(Priorities.USER)
+public class EntityTagFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        if (isRead(requestContext)) {
+            return;
+        }
+        versionTags(requestContext, HttpHeaders.IF_MATCH);
+        versionTags(requestContext, HttpHeaders.IF_NONE_MATCH);
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) throws IOException {
+        EntityTag tag = responseContext.getEntityTag();
+        if (tag == null || responseContext.getStatus() != Response.Status.OK.getStatusCode() || !isRead(requestContext)) {
+            return;
+        }
+        EntityTag representationTag = EntityTagHelper.representationTag(tag, responseContext.getMediaType(),
+                requestContext.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+        responseContext.getHeaders().putSingle(HttpHeaders.ETAG, representationTag);
+        ResponseBuilder precondition = requestContext.getRequest().evaluatePreconditions(representationTag);
+        if (precondition != null) {
+            // 304 when the client has this representation, 412 for a failed If-Match, without a body either way
+            responseContext.setStatus(precondition.build().getStatus());
+            responseContext.setEntity(null);
+        }
+    }
+
+    private static boolean isRead(ContainerRequestContext requestContext) {
+        return HttpMethod.GET.equals(requestContext.getMethod()) || HttpMethod.HEAD.equals(requestContext.getMethod());
+    }
+
+    private static void versionTags(ContainerRequestContext requestContext, String header) {
+        List<String> values = requestContext.getHeaders().get(header);
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        List<String> reduced = new ArrayList<>(values.size());
+        for (String value : values) {
+            StringBuilder tags = new StringBuilder(value.length());
+            for (String element : value.split(",")) {
+                String trimmed = element.trim();
+                if (tags.length() > 0) {
+                    tags.append(", ");
+                }
+                // "*" and tags that can not be parsed are left for the resource to reject
+                tags.append(trimmed.equals("*") || trimmed.isEmpty() ? trimmed : reduce(trimmed));
+            }
+            reduced.add(tags.toString());
+        }
+        requestContext.getHeaders().put(header, reduced);
+    }
+
+    private static String reduce(String tag) {
+        try {
+            return EntityTagHelper.versionTag(EntityTag.valueOf(tag)).toString();
+        } catch (IllegalArgumentException e) {
+            return tag;
+        }
+    }
+}
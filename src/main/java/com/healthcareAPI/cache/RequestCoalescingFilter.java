@@ -0,0 +1,185 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.cache;
+
+import com.healthcareAPI.metrics.MetricsRegistry;
+import com.healthcareAPI.metrics.OperationMetrics;
+import com.healthcareAPI.storage.Tables;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.Priority;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Lets concurrent identical reads of the {@link Coalesced} methods share one
+ * execution. The first request for a path, query and Accept header runs the
+ * resource method and the message body writer as usual, and the requests that
+ * arrive while it is in flight wait for it and are answered with a copy of the
+ * bytes it wrote. A burst of identical reads, such as every terminal opening
+ * the same doctor's appointments at shift change, then costs one DAO scan and
+ * one serialization.
+ * <p>
+ * A request only joins a read that started after the last write to the tables
+ * the method reads, so a client always sees its own completed writes. A
+ * request that finds an older read in flight runs itself, and the identical
+ * requests after it join it instead.
+ * <p>
+ * Only complete 200 responses are shared. If the first request fails, or
+ * takes longer than the wait limit, the waiting requests run on their own.
+ *
+ * @author Amandha
+ */
+@Provider
+@Coalesced
+@Priority(Priorities.USER + 100)
+public class RequestCoalescingFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+    private static final long WAIT_MILLIS = Long.getLong("healthcare.coalescing.waitMillis", 5000);
+    private static final int MAX_BYTES = 4 * 1024 * 1024;
+    private static final String FLIGHT = "com.healthcareAPI.cache.flight";
+
+    private static final ConcurrentMap<String, Flight> IN_FLIGHT = new ConcurrentHashMap<>();
+    private static final OperationMetrics JOIN = MetricsRegistry.operation("RequestCoalescing", "join");
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        Coalesced coalesced = resourceInfo.getResourceMethod().getAnnotation(Coalesced.class);
+        if (coalesced == null || coalesced.tables().length == 0 || !HttpMethod.GET.equals(requestContext.getMethod())) {
+            return;
+        }
+        String key = ResponseCacheFilter.key(requestContext);
+        // taken before the read, so a write that completed before this request makes older flights stale
+        Flight flight = new Flight(key, Tables.mutationVersion(coalesced.tables()));
+        Flight leader = IN_FLIGHT.putIfAbsent(key, flight);
+        while (leader != null && leader.version < flight.version) {
+            // the read in flight may miss writes this request must see, replace it for the later requests
+            leader = IN_FLIGHT.replace(key, leader, flight) ? null : IN_FLIGHT.putIfAbsent(key, flight);
+        }
+        if (leader == null) {
+            requestContext.setProperty(FLIGHT, flight); // this request runs, the identical ones wait for it
+            return;
+        }
+
+        long start = System.nanoTime();
+        Shared shared = leader.await();
+        JOIN.lookup(start, shared != null);
+        if (shared != null) {
+            requestContext.abortWith(Response.ok(shared.body, shared.mediaType).header("X-Coalesced", "true").build());
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) throws IOException {
+        Flight flight = (Flight) requestContext.getProperty(FLIGHT);
+        if (flight == null) {
+            return;
+        }
+        if (responseContext.getStatus() != Response.Status.OK.getStatusCode() || !responseContext.hasEntity()) {
+            requestContext.removeProperty(FLIGHT);
+            flight.complete(null); // the waiting requests run on their own
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+        Flight flight = (Flight) context.getProperty(FLIGHT);
+        if (flight == null) {
+            context.proceed();
+            return;
+        }
+        OutputStream original = context.getOutputStream();
+        CopyingOutputStream copying = new CopyingOutputStream(original, MAX_BYTES);
+        context.setOutputStream(copying);
+        Shared shared = null;
+        try {
+            context.proceed();
+            byte[] body = copying.toByteArray();
+            if (body != null) {
+                shared = new Shared(body, context.getMediaType());
+            }
+        } finally {
+            context.setOutputStream(original);
+            flight.complete(shared);
+        }
+    }
+
+    /**
+     * @return The number of reads currently in flight.
+     */
+    public static int inFlight() {
+        return IN_FLIGHT.size();
+    }
+
+    /**
+     * A response body written by the first of a group of identical requests.
+     */
+    private static final class Shared {
+
+        final byte[] body;
+        final MediaType mediaType;
+
+        Shared(byte[] body, MediaType mediaType) {
+            this.body = body;
+            this.mediaType = mediaType;
+        }
+    }
+
+    /**
+     * A read in flight, completed with its body or with null if it can not be
+     * shared. The version is the one of the read tables when it started.
+     */
+    private static final class Flight {
+
+        final String key;
+        final long version;
+        final CompletableFuture<Shared> result = new CompletableFuture<>();
+
+        Flight(String key, long version) {
+            this.key = key;
+            this.version = version;
+        }
+
+        void complete(Shared shared) {
+            IN_FLIGHT.remove(key, this); // later requests start a new flight
+            result.complete(shared);
+        }
+
+        Shared await() {
+            try {
+                return result.get(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                IN_FLIGHT.remove(key, this); // let the next request lead instead of waiting on this one
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.cache;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * Keeps the serialized bodies of hot GET responses, so a repeated read is
+ * answered with a single write of the cached bytes instead of running the
+ * resource method and the JSON writer again.
+ * <p>
+ * The cache is bounded by the total size of the bodies and evicts the least
+ * recently used entry first. Every entry depends either on one record of a
+ * table or on the whole table, and the DAOs invalidate exactly the entries a
+ * write affects: the entry of the written record and the entries of the whole
+ * table, such as the listing. A response that was being rendered while its
+ * table was written is not stored, so a stale body never gets in.
+ *
+ * @author Amandha
+ */
+public final class ResponseCache {
+
+    public static final String DOCTORS = "doctors";
+    public static final String PATIENTS = "patients";
+
+    /**
+     * Marks an entry that shows the whole table rather than one record.
+     */
+    public static final int WHOLE_TABLE = -1;
+
+    private static final long MAX_BYTES = Long.getLong("healthcare.responseCache.maxBytes", 16L * 1024 * 1024);
+    static final int MAX_ENTRY_BYTES = (int) Math.min(MAX_BYTES / 16, Integer.MAX_VALUE);
+    public static final boolean ENABLED = MAX_BYTES > 0;
+
+    private static final Object LOCK = new Object();
+    private static final LinkedHashMap<String, Entry> ENTRIES = new LinkedHashMap<>(256, 0.75f, true); // access order
+    private static final Map<String, Set<String>> DEPENDENTS = new HashMap<>();
+    private static final Map<String, Long> GENERATIONS = new HashMap<>();
+    private static long bytes;
+
+    /**
+     * A cached response body.
+     */
+    static final class Entry {
+
+        final String key;
+        final String dependency;
+        final byte[] body;
+        final MediaType mediaType;
+        final EntityTag tag;
+
+        Entry(String key, String dependency, byte[] body, MediaType mediaType, EntityTag tag) {
+            this.key = key;
+            this.dependency = dependency;
+            this.body = body;
+            this.mediaType = mediaType;
+            this.tag = tag;
+        }
+    }
+
+    private ResponseCache() {
+    }
+
+    static Entry get(String key) {
+        synchronized (LOCK) {
+            return ENTRIES.get(key);
+        }
+    }
+
+    /**
+     * Returns the write generation of a table. A response rendered from the
+     * table is only stored if the generation is still the same afterwards.
+     */
+    static long generation(String table) {
+        synchronized (LOCK) {
+            return GENERATIONS.getOrDefault(table, 0L);
+        }
+    }
+
+    static void put(String key, String table, int id, long generation, byte[] body, MediaType mediaType, EntityTag tag) {
+        if (body.length > MAX_ENTRY_BYTES) {
+            return;
+        }
+        synchronized (LOCK) {
+            if (GENERATIONS.getOrDefault(table, 0L) != generation) {
+                return; // the table was written while the response was rendered
+            }
+            Entry entry = new Entry(key, dependency(table, id), body, mediaType, tag);
+            remove(ENTRIES.put(key, entry), false);
+            DEPENDENTS.computeIfAbsent(entry.dependency, dependency -> new HashSet<>()).add(key);
+            bytes += body.length;
+
+            Iterator<Entry> eldest = ENTRIES.values().iterator();
+            while (bytes > MAX_BYTES && eldest.hasNext()) {
+                Entry evicted = eldest.next();
+                eldest.remove();
+                remove(evicted, false);
+            }
+        }
+    }
+
+    /**
+     * Drops the cached responses affected by a write of a record: the ones of
+     * the record itself and the ones showing the whole table. Called by the
+     * DAOs once the write is visible to readers.
+     *
+     * @param table The table that was written.
+     * @param id The ID of the written record.
+     */
+    public static void invalidate(String table, int id) {
+        if (!ENABLED) {
+            return;
+        }
+        synchronized (LOCK) {
+            GENERATIONS.merge(table, 1L, Long::sum);
+            removeDependents(dependency(table, id));
+            removeDependents(dependency(table, WHOLE_TABLE));
+        }
+    }
+
+    /**
+     * @return The number of cached responses.
+     */
+    public static int size() {
+        synchronized (LOCK) {
+            return ENTRIES.size();
+        }
+    }
+
+    /**
+     * @return The total size of the cached bodies in bytes.
+     */
+    public static long bytes() {
+        synchronized (LOCK) {
+            return bytes;
+        }
+    }
+
+    private static void removeDependents(String dependency) {
+        Set<String> keys = DEPENDENTS.remove(dependency);
+        if (keys != null) {
+            for (String key : keys) {
+                remove(ENTRIES.remove(key), true);
+            }
+        }
+    }
+
+    private static void remove(Entry entry, boolean indexed) {
+        if (entry == null) {
+            return;
+        }
+        bytes -= entry.body.length;
+        if (!indexed) {
+            Set<String> keys = DEPENDENTS.get(entry.dependency);
+            if (keys != null && keys.remove(entry.key) && keys.isEmpty()) {
+                DEPENDENTS.remove(entry.dependency);
+            }
+        }
+    }
+
+    private static String dependency(String table, int id) {
+        return id == WHOLE_TABLE ? table : table + "/" + id;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.cache;
+
+import com.healthcareAPI.metrics.MetricsRegistry;
+import com.healthcareAPI.metrics.OperationMetrics;
+import java.io.IOException;
+import java.io.OutputStream;
+import javax.annotation.Priority;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Serves the {@link CachedResponse} methods from the {@link ResponseCache}.
+ * A hit aborts the request with the cached bytes, which the
+ * {@link EntityTagFilter} turns into 304 (Not Modified) when the If-None-Match
+ * header names the tag of the representation, as for a miss. A miss runs the
+ * resource method as usual and copies the body into the cache while the
+ * message body writer writes it.
+ * <p>
+ * The filter runs after the authentication, and its interceptor sits inside
+ * the content coding interceptors, so the cache holds the plain bodies.
+ *
+ * @author Amandha
+ */
+@Provider
+@CachedResponse
+@Priority(Priorities.USER + 100)
+public class ResponseCacheFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+    private static final String PENDING = "com.healthcareAPI.cache.pending";
+    private static final String CACHE_HEADER = "X-Cache";
+
+    private static final OperationMetrics GET = MetricsRegistry.operation("ResponseCache", "get");
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        CachedResponse cached = resourceInfo.getResourceMethod().getAnnotation(CachedResponse.class);
+        if (!ResponseCache.ENABLED || cached == null || cached.table().isEmpty()
+                || !HttpMethod.GET.equals(requestContext.getMethod())) {
+            return;
+        }
+        long start = System.nanoTime();
+        String key = key(requestContext);
+        ResponseCache.Entry entry = ResponseCache.get(key);
+        GET.lookup(start, entry != null);
+        if (entry != null) {
+            // the EntityTagFilter tags the representation and answers the conditional requests, as for a miss
+            requestContext.abortWith(Response.ok(entry.body, entry.mediaType).tag(entry.tag).header(CACHE_HEADER, "HIT").build());
+            return;
+        }
+
+        int id = ResponseCache.WHOLE_TABLE;
+        if (!cached.idParam().isEmpty()) {
+            try {
+                id = Integer.parseInt(requestContext.getUriInfo().getPathParameters().getFirst(cached.idParam()));
+            } catch (NumberFormatException e) {
+                return; // not a valid ID, the resource method rejects it
+            }
+        }
+        requestContext.setProperty(PENDING, new Pending(key, cached.table(), id, ResponseCache.generation(cached.table())));
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) throws IOException {
+        if (requestContext.getProperty(PENDING) == null) {
+            return;
+        }
+        responseContext.getHeaders().putSingle(CACHE_HEADER, "MISS");
+        if (responseContext.getStatus() != Response.Status.OK.getStatusCode() || !responseContext.hasEntity()) {
+            requestContext.removeProperty(PENDING); // only complete responses are cached
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+        Pending pending = (Pending) context.getProperty(PENDING);
+        if (pending == null) {
+            context.proceed();
+            return;
+        }
+        OutputStream original = context.getOutputStream();
+        CopyingOutputStream copying = new CopyingOutputStream(original, ResponseCache.MAX_ENTRY_BYTES);
+        context.setOutputStream(copying);
+        try {
+            context.proceed();
+        } finally {
+            context.setOutputStream(original);
+        }
+        byte[] body = copying.toByteArray();
+        if (body != null) {
+            Object tag = context.getHeaders().getFirst(HttpHeaders.ETAG);
+            ResponseCache.put(pending.key, pending.table, pending.id, pending.generation, body, context.getMediaType(),
+                    tag instanceof EntityTag ? (EntityTag) tag : tag == null ? null : EntityTag.valueOf(tag.toString()));
+        }
+    }
+
+    static String key(ContainerRequestContext requestContext) {
+        // the Accept header picks the representation
+        String query = requestContext.getUriInfo().getRequestUri().getRawQuery();
+        String accept = requestContext.getHeaderString(HttpHeaders.ACCEPT);
+        return requestContext.getUriInfo().getPath() + (query == null ? "" : "?" + query) + " " + (accept == null ? "*/*" : accept);
+    }
+
+    /**
+     * A response that is stored once its body has been written.
+     */
+    private static final class Pending {
+
+        final String key;
+        final String table;
+        final int id;
+        final long generation;
+
+        Pending(String key, String table, int id, long generation) {
+            this.key = key;
+            this.table = table;
+            this.id = id;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.compression;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.ZipException;
+import javax.annotation.Priority;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.NotSupportedException;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Compresses the response bodies with gzip or deflate, as negotiated from the
+ * Accept-Encoding header, and decompresses request bodies sent with a
+ * Content-Encoding, such as bulk uploads from remote clinics.
+ * <p>
+ * A body is only compressed once it grows past a minimum size, as small
+ * bodies gain little and the coding overhead can even make them larger. Up to
+ * that size the body is buffered, so a small response goes out as it is, with
+ * its Content-Length. The deflaters come from a pool.
+ * <p>
+ * The interceptor runs outside the response cache and the request coalescing
+ * interceptors, so those keep the plain bodies and the cached bytes are
+ * compressed per client.
+ *
+ * @author Amandha
+ */
+@Provider
+@PreMatching
+@Priority(Priorities.ENTITY_CODER)
+public class CompressionInterceptor implements ContainerRequestFilter, WriterInterceptor, ReaderInterceptor {
+
+    public static final boolean ENABLED = !"false".equals(System.getProperty("healthcare.compression"));
+    private static final int MIN_BYTES = Integer.getInteger("healthcare.compression.minBytes", 1024);
+    private static final long MAX_INFLATED_BYTES = Long.getLong("healthcare.compression.maxInflatedBytes", 64L * 1024 * 1024);
+
+    private static final String CODING = "com.healthcareAPI.compression.coding";
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        if (ENABLED) {
+            ContentCoding coding = ContentCoding.negotiate(requestContext.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+            if (coding != null) {
+                requestContext.setProperty(CODING, coding);
+            }
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+        MultivaluedMap<String, Object> headers = context.getHeaders();
+        if (!ENABLED || headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            context.proceed();
+            return;
+        }
+        addVary(headers);
+        ContentCoding coding = (ContentCoding) context.getProperty(CODING);
+        if (coding == null) {
+            context.proceed();
+            return;
+        }
+
+        OutputStream original = context.getOutputStream();
+        ThresholdOutputStream threshold = new ThresholdOutputStream(original, headers, coding);
+        context.setOutputStream(threshold);
+        boolean written = false;
+        try {
+            context.proceed();
+            threshold.finish();
+            written = true;
+        } finally {
+            context.setOutputStream(original);
+            if (!written) {
+                threshold.abandon();
+            }
+        }
+    }
+
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException, WebApplicationException {
+        String encoding = context.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (encoding == null || encoding.trim().equalsIgnoreCase("identity")) {
+            return context.proceed();
+        }
+        ContentCoding coding = ContentCoding.forName(encoding);
+        if (coding == null) {
+            throw new NotSupportedException("Unsupported Content-Encoding: " + encoding);
+        }
+        try {
+            context.setInputStream(new LimitedInputStream(coding.decode(context.getInputStream())));
+        } catch (IOException e) {
+            throw new BadRequestException("The request body is not valid " + coding.getToken() + " data", e);
+        }
+        context.getHeaders().remove(HttpHeaders.CONTENT_ENCODING);
+        return context.proceed();
+    }
+
+    private static void addVary(MultivaluedMap<String, Object> headers) {
+        // the body depends on Accept-Encoding, whether or not this one is compressed
+        List<Object> vary = headers.get(HttpHeaders.VARY);
+        if (vary == null || vary.isEmpty()) {
+            headers.putSingle(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        } else if (!vary.toString().toLowerCase().contains("accept-encoding")) {
+            headers.putSingle(HttpHeaders.VARY, vary.get(0) + ", " + HttpHeaders.ACCEPT_ENCODING);
+        }
+    }
+
+    /**
+     * Buffers the start of a body and switches to the coding once it grows
+     * past the minimum size.
+     */
+    private static final class ThresholdOutputStream extends OutputStream {
+
+        private final OutputStream out;
+        private final MultivaluedMap<String, Object> headers;
+        private final ContentCoding coding;
+        private final byte[] buffer = new byte[Math.max(MIN_BYTES, 0)];
+        private int count;
+        private PooledDeflaterOutputStream encoder;
+        private boolean finished;
+
+        ThresholdOutputStream(OutputStream out, MultivaluedMap<String, Object> headers, ContentCoding coding) {
+            this.out = out;
+            this.headers = headers;
+            this.coding = coding;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (encoder != null) {
+                encoder.write(b, off, len);
+            } else if (count + len <= buffer.length) {
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+            } else {
+                // large enough to compress, the headers are still uncommitted as nothing was written yet
+                headers.putSingle(HttpHeaders.CONTENT_ENCODING, coding.getToken());
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                encoder = coding.encode(out);
+                encoder.write(buffer, 0, count);
+                encoder.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (encoder != null) {
+                encoder.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish(); // the container closes the underlying stream
+        }
+
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (encoder != null) {
+                encoder.finish();
+            } else {
+                out.write(buffer, 0, count); // too small to be worth compressing
+            }
+        }
+
+        void abandon() {
+            finished = true;
+            if (encoder != null) {
+                encoder.abandon();
+            }
+        }
+    }
+
+    /**
+     * Stops a decompressed request body at the maximum size, so a small
+     * compressed upload can not expand without bounds.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private long remaining = MAX_INFLATED_BYTES;
+
+        LimitedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read;
+            try {
+                read = super.read(b, off, len);
+            } catch (ZipException e) {
+                throw new BadRequestException("The compressed request body is corrupt", e);
+            }
+            if (read > 0) {
+                remaining -= read;
+                if (remaining < 0) {
+                    throw new WebApplicationException("The decompressed request body is larger than " + MAX_INFLATED_BYTES + " bytes",
+                            Response.Status.REQUEST_ENTITY_TOO_LARGE);
+                }
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.compression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The HTTP content codings the API can produce and read.
+ * <p>
+ * Brotli is not among them: the JDK has no Brotli encoder, and clients that
+ * accept br also accept gzip, so they are still served compressed.
+ *
+ * @author Amandha
+ */
+public enum ContentCoding {
+
+    GZIP("gzip", true),
+    DEFLATE("deflate", false);
+
+    private final String token;
+    private final boolean gzip;
+
+    ContentCoding(String token, boolean gzip) {
+        this.token = token;
+        this.gzip = gzip;
+    }
+
+    /**
+     * @return The name of the coding in the Content-Encoding header.
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Wraps a stream in an encoder using a deflater from the pool. The
+     * deflater goes back to the pool when the stream is finished or closed.
+     *
+     * @param out The stream to write the encoded bytes to.
+     * @return The encoding stream.
+     * @throws IOException if the header of the coding could not be written.
+     */
+    PooledDeflaterOutputStream encode(OutputStream out) throws IOException {
+        return new PooledDeflaterOutputStream(out, gzip);
+    }
+
+    /**
+     * Wraps a stream in a decoder.
+     *
+     * @param in The encoded stream.
+     * @return The decoded stream.
+     * @throws IOException if the header of the coding is invalid.
+     */
+    InputStream decode(InputStream in) throws IOException {
+        return gzip ? new GZIPInputStream(in, 8192) : new InflaterInputStream(in);
+    }
+
+    /**
+     * Looks up a coding by the name used in a Content-Encoding header.
+     *
+     * @param name The name, such as "gzip".
+     * @return The coding, or null if it is not supported.
+     */
+    public static ContentCoding forName(String name) {
+        switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip":
+            case "x-gzip":
+                return GZIP;
+            case "deflate":
+                return DEFLATE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Picks the coding of a response from the Accept-Encoding header of the
+     * request, preferring gzip when the client rates the codings equally.
+     *
+     * @param acceptEncoding The Accept-Encoding header, or null.
+     * @return The coding, or null if the response should not be encoded.
+     */
+    public static ContentCoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return null;
+        }
+        float[] quality = new float[values().length];
+        float wildcard = -1;
+        boolean[] listed = new boolean[quality.length];
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            float q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        q = Float.parseFloat(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0; // an unreadable weight does not enable a coding
+                    }
+                }
+            }
+            String name = parts[0].trim();
+            if (name.equals("*")) {
+                wildcard = q;
+                continue;
+            }
+            ContentCoding coding = forName(name);
+            if (coding != null) {
+                quality[coding.ordinal()] = Math.max(quality[coding.ordinal()], q);
+                listed[coding.ordinal()] = true;
+            }
+        }
+        ContentCoding best = null;
+        float bestQuality = 0;
+        for (ContentCoding coding : values()) {
+            float q = listed[coding.ordinal()] ? quality[coding.ordinal()] : Math.max(wildcard, 0);
+            if (q > bestQuality) {
+                best = coding;
+                bestQuality = q;
+            }
+        }
+        return best;
+    }
+}
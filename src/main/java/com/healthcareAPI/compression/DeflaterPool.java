@@ -0,0 +1,42 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.compression;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Reuses Deflater instances across responses. A deflater holds a few hundred
+ * kilobytes of native memory that is only released by {@link Deflater#end()},
+ * so creating one per response costs both the allocation and the cleanup.
+ * Idle deflaters are kept up to a fixed number, the rest are ended.
+ *
+ * @author Amandha
+ */
+final class DeflaterPool {
+
+    static final int LEVEL = Integer.getInteger("healthcare.compression.level", Deflater.DEFAULT_COMPRESSION);
+    private static final int MAX_IDLE = Integer.getInteger("healthcare.compression.pooledDeflaters", 32);
+
+    // raw deflate streams for gzip, which writes its own header and trailer, and zlib streams for deflate
+    private static final BlockingQueue<Deflater> RAW = new ArrayBlockingQueue<>(MAX_IDLE);
+    private static final BlockingQueue<Deflater> ZLIB = new ArrayBlockingQueue<>(MAX_IDLE);
+
+    private DeflaterPool() {
+    }
+
+    static Deflater borrow(boolean raw) {
+        Deflater deflater = (raw ? RAW : ZLIB).poll();
+        return deflater != null ? deflater : new Deflater(LEVEL, raw);
+    }
+
+    static void release(Deflater deflater, boolean raw) {
+        deflater.reset();
+        if (!(raw ? RAW : ZLIB).offer(deflater)) {
+            deflater.end(); // the pool is full
+        }
+    }
+}
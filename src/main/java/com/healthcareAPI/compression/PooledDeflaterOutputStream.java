@@ -0,0 +1,84 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a gzip or deflate stream with a deflater from the
+ * {@link DeflaterPool}. GZIPOutputStream always creates its own deflater, so
+ * the gzip header and trailer are written here around a raw deflate stream.
+ * <p>
+ * {@link #finish()} completes the stream and returns the deflater to the pool
+ * without closing the underlying stream, which belongs to the container.
+ *
+ * @author Amandha
+ */
+final class PooledDeflaterOutputStream extends DeflaterOutputStream {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final boolean gzip;
+    private final CRC32 crc;
+    private boolean finished;
+
+    PooledDeflaterOutputStream(OutputStream out, boolean gzip) throws IOException {
+        super(out, DeflaterPool.borrow(gzip), 8192);
+        this.gzip = gzip;
+        this.crc = gzip ? new CRC32() : null;
+        if (gzip) {
+            out.write(GZIP_HEADER);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        super.write(b, off, len);
+        if (crc != null) {
+            crc.update(b, off, len);
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            super.finish();
+            if (gzip) {
+                long size = def.getBytesRead();
+                out.write(new byte[]{
+                    (byte) crc.getValue(), (byte) (crc.getValue() >> 8), (byte) (crc.getValue() >> 16), (byte) (crc.getValue() >> 24),
+                    (byte) size, (byte) (size >> 8), (byte) (size >> 16), (byte) (size >> 24)});
+            }
+        } finally {
+            DeflaterPool.release(def, gzip);
+        }
+    }
+
+    /**
+     * Finishes the stream without closing the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        finish();
+    }
+
+    /**
+     * Returns the deflater to the pool after a failed write, without writing
+     * the rest of the stream.
+     */
+    void abandon() {
+        if (!finished) {
+            finished = true;
+            DeflaterPool.release(def, gzip);
+        }
+    }
+}
@@ -5,6 +5,9 @@
 package com.healthcareAPI.dao;
 
 import com.healthcareAPI.helper.Helper;
+import com.healthcareAPI.metrics.MetricsRegistry;
+import com.healthcareAPI.metrics.OperationMetrics;
+import com.healthcareAPI.profiling.Profiling;
 import static com.healthcareAPI.helper.SimpleDateFormatHelper.parseSimpleDate;
 import java.text.ParseException;
 import java.util.ArrayList;
@@ -13,9 +16,13 @@ import java.util.List;
 import com.healthcareAPI.model.Appointment;
 import com.healthcareAPI.model.Doctor;
 import com.healthcareAPI.model.Patient;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
+import com.healthcareAPI.storage.Dictionaries;
+import com.healthcareAPI.storage.IntMap;
+import com.healthcareAPI.storage.SearchCache;
+import com.healthcareAPI.storage.Tables;
+import com.healthcareAPI.storage.Versioned;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,7 +36,21 @@ import org.slf4j.LoggerFactory;
 public class AppointmentDAO {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AppointmentDAO.class);
-    private static final Map<Integer, Appointment> appointments = new HashMap<>();
+    private static final IntMap<Appointment> appointments = Tables.newTable(Tables.APPOINTMENTS);
+    private static final SearchCache<Appointment> searchCache = new SearchCache<>(appointments);
+    // held while new IDs are taken, so two adds never get the same one
+    private static final Object ID_LOCK = new Object();
+
+    private static final OperationMetrics GET = MetricsRegistry.operation("AppointmentDAO", "get");
+    private static final OperationMetrics FIND_BY_PATIENT = MetricsRegistry.operation("AppointmentDAO", "findByPatient");
+    private static final OperationMetrics FIND_BY_DOCTOR = MetricsRegistry.operation("AppointmentDAO", "findByDoctor");
+    private static final OperationMetrics ADD = MetricsRegistry.operation("AppointmentDAO", "add");
+    private static final OperationMetrics ADD_BATCH = MetricsRegistry.operation("AppointmentDAO", "addBatch");
+    private static final OperationMetrics UPDATE = MetricsRegistry.operation("AppointmentDAO", "update");
+    private static final OperationMetrics DELETE = MetricsRegistry.operation("AppointmentDAO", "delete");
+    private static final OperationMetrics SEARCH = MetricsRegistry.operation("AppointmentDAO", "search");
+    private static final OperationMetrics SEARCH_CACHE = MetricsRegistry.operation("AppointmentDAO", "searchCache");
+    private static final String[] SEARCH_CRITERIA = {"patientFirstName", "patientLastName", "doctorFirstName", "doctorLastName", "fromDateStr", "toDateStr", "specialization"};
 
     static {
         Patient patient1 = new Patient(3, "Jeromy", "Osinski", 1234548548, "86869 Weissnat Light Suite 560, SF", "M", 60, "Diagnosed with ADHD", "Parkinsons patient. Who was previously admitted due to loss of memory");
@@ -61,8 +82,25 @@ public class AppointmentDAO {
      * @return The appointment object if found, otherwise null.
      */
     public Appointment getAppointmentById(int appointmentId) {
+        long start = System.nanoTime();
+        LOGGER.info("Retrieving appointment by ID {}", appointmentId);
+        Appointment appointment = appointments.get(appointmentId);
+        GET.lookup(start, appointment != null);
+        return appointment;
+    }
+
+    /**
+     * Retrieves an appointment by ID together with the version of the stored record.
+     *
+     * @param appointmentId The ID of the appointment to retrieve.
+     * @return The appointment and its version, or null if not found.
+     */
+    public Versioned<Appointment> getVersionedAppointmentById(int appointmentId) {
+        long start = System.nanoTime();
         LOGGER.info("Retrieving appointment by ID {}", appointmentId);
-        return appointments.get(appointmentId);
+        Versioned<Appointment> appointment = appointments.getVersioned(appointmentId);
+        GET.lookup(start, appointment != null);
+        return appointment;
     }
 
     /**
@@ -72,11 +110,14 @@ public class AppointmentDAO {
      * @return A list of appointments associated with the patient.
      */
     public List<Appointment> getAppointmentByPatientId(int patientId) {
+        long start = System.nanoTime();
         LOGGER.info("Retrieving appointments by Patient ID {}", patientId);
 
-        return appointments.values().stream()
+        List<Appointment> patientAppointments = appointments.values().stream()
                 .filter(appointment -> appointment.getPatient().getPersonId() == patientId)
                 .collect(Collectors.toList());
+        FIND_BY_PATIENT.scan(start, appointments.size(), patientAppointments.size());
+        return patientAppointments;
     }
 
     /**
@@ -86,10 +127,13 @@ public class AppointmentDAO {
      * @return A list of appointments associated with the doctor.
      */
     public List<Appointment> getAppointmentByDoctorId(int doctorId) {
+        long start = System.nanoTime();
         LOGGER.info("Retrieving appointments by Doctor ID {}", doctorId);
-        return appointments.values().stream()
+        List<Appointment> doctorAppointments = appointments.values().stream()
                 .filter(appointment -> appointment.getDoctor().getPersonId() == doctorId)
                 .collect(Collectors.toList());
+        FIND_BY_DOCTOR.scan(start, appointments.size(), doctorAppointments.size());
+        return doctorAppointments;
     }
 
     /**
@@ -99,18 +143,59 @@ public class AppointmentDAO {
      * @return The ID assigned to the new appointment.
      */
     public int addAppointment(Appointment appointment) {
+        long start = System.nanoTime();
         try {
             Helper<Appointment> helper = new Helper<>();
-            int newAppointmentId = helper.getNextId(appointments); // generate the next appointment ID
-            appointment.setAppointmentId(newAppointmentId); // set the new appointment ID
+            int newAppointmentId;
+            synchronized (ID_LOCK) {
+                newAppointmentId = helper.getNextId(appointments); // generate the next appointment ID
+                appointment.setAppointmentId(newAppointmentId); // set the new appointment ID
 
-            appointments.put(newAppointmentId, appointment);
+                appointments.put(newAppointmentId, appointment);
+            }
             LOGGER.info("New appointment with ID {} was added to appointments list", newAppointmentId);
 
             return newAppointmentId;
         } catch (Exception e) {
-            LOGGER.error("Error adding appointment: " + e.getMessage(), e);
+            ADD.error();
+            LOGGER.error("Error adding appointment: {}", e.getMessage(), e);
+            return -1;
+        } finally {
+            ADD.stop(start);
+        }
+    }
+
+    /**
+     * Adds new appointments under consecutive IDs, taken in one step.
+     *
+     * @param newAppointments The appointments to add, in the order of their
+     * new IDs.
+     * @return The ID assigned to the first appointment, or -1 if none could be
+     * added.
+     */
+    public int addAppointments(List<Appointment> newAppointments) {
+        long start = System.nanoTime();
+        try {
+            Helper<Appointment> helper = new Helper<>();
+            int firstId;
+            synchronized (ID_LOCK) {
+                firstId = helper.getNextId(appointments);
+                for (int i = 0; i < newAppointments.size(); i++) {
+                    Appointment appointment = newAppointments.get(i);
+                    appointment.setAppointmentId(firstId + i);
+                    appointments.put(firstId + i, appointment);
+                }
+            }
+            LOGGER.info("{} new appointments with IDs {} to {} were added to appointments list",
+                    newAppointments.size(), firstId, firstId + newAppointments.size() - 1);
+
+            return firstId;
+        } catch (Exception e) {
+            ADD_BATCH.error();
+            LOGGER.error("Error adding appointments: {}", e.getMessage(), e);
             return -1;
+        } finally {
+            ADD_BATCH.stop(start);
         }
     }
 
@@ -120,11 +205,35 @@ public class AppointmentDAO {
      * @param updatedAppointment The updated appointment object.
      */
     public void updateAppointment(Appointment updatedAppointment) {
+        long start = System.nanoTime();
         try {
             appointments.put(updatedAppointment.getAppointmentId(), updatedAppointment);
             LOGGER.info("Appointment was updated. Appointment ID : {}", updatedAppointment.getAppointmentId());
         } catch (Exception e) {
-            LOGGER.error("Appointment ID: " + updatedAppointment.getAppointmentId() + ". Error updating appointment: " + e.getMessage(), e);
+            UPDATE.error();
+            LOGGER.error("Appointment ID: {}. Error updating appointment: {}", updatedAppointment.getAppointmentId(), e.getMessage(), e);
+        } finally {
+            UPDATE.stop(start);
+        }
+    }
+
+    /**
+     * Updates an existing appointment record if it is still at the expected
+     * version.
+     *
+     * @param updatedAppointment The updated appointment object.
+     * @param expectedVersion The version the update was based on.
+     * @return True if the appointment was updated, false if it was modified or
+     * deleted in the meantime.
+     */
+    public boolean updateAppointment(Appointment updatedAppointment, long expectedVersion) {
+        long start = System.nanoTime();
+        try {
+            boolean updated = appointments.putIfVersion(updatedAppointment.getAppointmentId(), updatedAppointment, expectedVersion);
+            LOGGER.info("Appointment ID : {}. Conditional update applied: {}", updatedAppointment.getAppointmentId(), updated);
+            return updated;
+        } finally {
+            UPDATE.stop(start);
         }
     }
 
@@ -136,6 +245,7 @@ public class AppointmentDAO {
      * false.
      */
     public boolean deleteAppointment(int appointmentId) {
+        long start = System.nanoTime();
         try {
             Appointment removedAppointment = appointments.remove(appointmentId);
             if (removedAppointment != null) {
@@ -146,11 +256,30 @@ public class AppointmentDAO {
                 return false;
             }
         } catch (Exception e) {
+            DELETE.error();
             LOGGER.error("Error deleting Appointment with ID {}: {}", appointmentId, e.getMessage());
             return false;
+        } finally {
+            DELETE.stop(start);
         }
     }
 
+    /**
+     * Deletes an appointment record if it is still at the expected version.
+     *
+     * @param appointmentId The ID of the appointment to delete.
+     * @param expectedVersion The version the deletion was based on.
+     * @return True if the appointment was deleted, false if it was modified or
+     * deleted in the meantime.
+     */
+    public boolean deleteAppointment(int appointmentId, long expectedVersion) {
+        long start = System.nanoTime();
+        boolean removed = appointments.removeIfVersion(appointmentId, expectedVersion);
+        DELETE.stop(start);
+        LOGGER.info("Appointment ID : {}. Conditional delete applied: {}", appointmentId, removed);
+        return removed;
+    }
+
     /**
      * Searches for appointments in the database based on specified criteria.
      *
@@ -164,9 +293,13 @@ public class AppointmentDAO {
      * @return A list of matching appointments.
      */
     public List<Appointment> searchAppointments(String patientFirstName, String patientLastName, String doctorFirstName, String doctorLastName, String fromDateStr, String toDateStr, String specialization) {
+        long start = System.nanoTime();
+        Profiling.Span span = Profiling.startSearch();
         LOGGER.info("Searching for appointments with criteria - Patient First Name: {}, Patient Last Name: {}, Doctor First Name: {}, Doctor Last Name: {}, From Date: {}, To Date: {}, Specialization: {}",
                 patientFirstName, patientLastName, doctorFirstName, doctorLastName, fromDateStr, toDateStr, specialization);
 
+        specialization = Dictionaries.SPECIALIZATIONS.lookup(specialization); // use the shared instance so matches compare by reference
+
         List<Appointment> matchingAppointments = new ArrayList<>();
 
         // Parse fromDate and toDate strings to Date objects
@@ -182,9 +315,22 @@ public class AppointmentDAO {
             }
         } catch (ParseException e) {
             LOGGER.error("Error parsing dates: {}", e.getMessage());
+            SEARCH.stop(start);
             return matchingAppointments;
         }
 
+        // the dates are part of the key as parsed, so equivalent spellings share the cached result
+        String key = SearchCache.key(patientFirstName, patientLastName, doctorFirstName, doctorLastName,
+                fromDate == null ? null : fromDate.getTime(), toDate == null ? null : toDate.getTime(), specialization);
+        List<Appointment> cachedAppointments = searchCache.get(key);
+        SEARCH_CACHE.lookup(start, cachedAppointments != null);
+        if (cachedAppointments != null) {
+            SEARCH.scan(start, 0, cachedAppointments.size());
+            Profiling.search(span, "Appointment", 0, cachedAppointments.size(), SEARCH_CRITERIA, patientFirstName, patientLastName, doctorFirstName, doctorLastName, fromDateStr, toDateStr, specialization);
+            return cachedAppointments;
+        }
+        long version = searchCache.version();
+
         for (Appointment appointment : appointments.values()) {
 
             Patient patient = appointment.getPatient();
@@ -211,6 +357,9 @@ public class AppointmentDAO {
                 matchingAppointments.add(appointment); // add the matching appointment to the list
             }
         }
+        searchCache.put(key, version, matchingAppointments.stream().mapToInt(Appointment::getAppointmentId).toArray());
+        SEARCH.scan(start, appointments.size(), matchingAppointments.size());
+        Profiling.search(span, "Appointment", appointments.size(), matchingAppointments.size(), SEARCH_CRITERIA, patientFirstName, patientLastName, doctorFirstName, doctorLastName, fromDateStr, toDateStr, specialization);
         return matchingAppointments;
     }
 }
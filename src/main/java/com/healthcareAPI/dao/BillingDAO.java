@@ -5,6 +5,9 @@
 package com.healthcareAPI.dao;
 
 import com.healthcareAPI.helper.Helper;
+import com.healthcareAPI.metrics.MetricsRegistry;
+import com.healthcareAPI.metrics.OperationMetrics;
+import com.healthcareAPI.profiling.Profiling;
 import static com.healthcareAPI.helper.SimpleDateFormatHelper.parseSimpleDate;
 import java.text.ParseException;
 import java.util.ArrayList;
@@ -13,9 +16,12 @@ import java.util.Date;
 import java.util.List;
 import com.healthcareAPI.model.Billing;
 import com.healthcareAPI.model.Patient;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
+import com.healthcareAPI.storage.Dictionaries;
+import com.healthcareAPI.storage.IntMap;
+import com.healthcareAPI.storage.Tables;
+import com.healthcareAPI.storage.Versioned;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,7 +34,18 @@ import org.slf4j.LoggerFactory;
 public class BillingDAO {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BillingDAO.class);
-    private static final Map<Integer, Billing> bills = new HashMap<>();
+    private static final IntMap<Billing> bills = Tables.newTable(Tables.BILLS);
+    // held while new IDs are taken, so two adds never get the same one
+    private static final Object ID_LOCK = new Object();
+
+    private static final OperationMetrics GET = MetricsRegistry.operation("BillingDAO", "get");
+    private static final OperationMetrics FIND_BY_PATIENT = MetricsRegistry.operation("BillingDAO", "findByPatient");
+    private static final OperationMetrics ADD = MetricsRegistry.operation("BillingDAO", "add");
+    private static final OperationMetrics ADD_BATCH = MetricsRegistry.operation("BillingDAO", "addBatch");
+    private static final OperationMetrics UPDATE = MetricsRegistry.operation("BillingDAO", "update");
+    private static final OperationMetrics DELETE = MetricsRegistry.operation("BillingDAO", "delete");
+    private static final OperationMetrics SEARCH = MetricsRegistry.operation("BillingDAO", "search");
+    private static final String[] SEARCH_CRITERIA = {"patientFirstName", "patientLastName", "startBillDate", "endBillDate"};
 
     static {
         List<String> services1 = Arrays.asList("Consultation", "MRI", "Physiotherapy");
@@ -44,6 +61,7 @@ public class BillingDAO {
         bills.put(3, new Billing(3, "07-01-2024", "10:15:12", patient1, services1, 300.0, 200.0, 100.0));
         bills.put(4, new Billing(4, "28-10-2024", "10:45:36", patient1, services3, 180.0, 120.0, 60.0));
         bills.put(5, new Billing(5, "19-04-2024", "17:20:58", patient2, services4, 220.0, 160.0, 60.0));
+        bills.values().forEach(Dictionaries::canonicalize);
     }
 
     /**
@@ -63,8 +81,25 @@ public class BillingDAO {
      * @return The bill object if found, otherwise null.
      */
     public Billing getBillById(int billId) {
+        long start = System.nanoTime();
         LOGGER.info("Retrieving bill by ID {}", billId);
-        return bills.get(billId);
+        Billing bill = bills.get(billId);
+        GET.lookup(start, bill != null);
+        return bill;
+    }
+
+    /**
+     * Retrieves a bill by ID together with the version of the stored record.
+     *
+     * @param billId The ID of the bill to retrieve.
+     * @return The bill and its version, or null if not found.
+     */
+    public Versioned<Billing> getVersionedBillById(int billId) {
+        long start = System.nanoTime();
+        LOGGER.info("Retrieving bill by ID {}", billId);
+        Versioned<Billing> bill = bills.getVersioned(billId);
+        GET.lookup(start, bill != null);
+        return bill;
     }
 
     /**
@@ -74,11 +109,14 @@ public class BillingDAO {
      * @return A list of bills associated with the patient.
      */
     public List<Billing> getBillByPatientId(int patientId) {
+        long start = System.nanoTime();
         LOGGER.info("Retrieving bills by Patient ID {}", patientId);
 
-        return bills.values().stream()
+        List<Billing> patientBills = bills.values().stream()
                 .filter(bill -> bill.getPatient().getPersonId() == patientId)
                 .collect(Collectors.toList());
+        FIND_BY_PATIENT.scan(start, bills.size(), patientBills.size());
+        return patientBills;
     }
 
     /**
@@ -88,18 +126,60 @@ public class BillingDAO {
      * @return The ID assigned to the new bill.
      */
     public int addBill(Billing bill) {
+        long start = System.nanoTime();
         try {
             Helper<Billing> helper = new Helper<>();
-            int newBillId = helper.getNextId(bills); // generate the next bill ID
+            Dictionaries.canonicalize(bill); // share the repeating service names
+            int newBillId;
+            synchronized (ID_LOCK) {
+                newBillId = helper.getNextId(bills); // generate the next bill ID
 
-            bill.setBillId(newBillId); // set the new bill ID
-            bills.put(newBillId, bill);
+                bill.setBillId(newBillId); // set the new bill ID
+                bills.put(newBillId, bill);
+            }
             LOGGER.info("New bill with ID {} is added to bills list", newBillId);
 
             return newBillId;
         } catch (Exception e) {
-            LOGGER.error("Error adding bill: " + e.getMessage(), e);
+            ADD.error();
+            LOGGER.error("Error adding bill: {}", e.getMessage(), e);
+            return -1;
+        } finally {
+            ADD.stop(start);
+        }
+    }
+
+    /**
+     * Adds new bills under consecutive IDs, taken in one step.
+     *
+     * @param newBills The bills to add, in the order of their new IDs.
+     * @return The ID assigned to the first bill, or -1 if none could be added.
+     */
+    public int addBills(List<Billing> newBills) {
+        long start = System.nanoTime();
+        try {
+            Helper<Billing> helper = new Helper<>();
+            for (Billing bill : newBills) {
+                Dictionaries.canonicalize(bill);
+            }
+            int firstId;
+            synchronized (ID_LOCK) {
+                firstId = helper.getNextId(bills);
+                for (int i = 0; i < newBills.size(); i++) {
+                    Billing bill = newBills.get(i);
+                    bill.setBillId(firstId + i);
+                    bills.put(firstId + i, bill);
+                }
+            }
+            LOGGER.info("{} new bills with IDs {} to {} are added to bills list", newBills.size(), firstId, firstId + newBills.size() - 1);
+
+            return firstId;
+        } catch (Exception e) {
+            ADD_BATCH.error();
+            LOGGER.error("Error adding bills: {}", e.getMessage(), e);
             return -1;
+        } finally {
+            ADD_BATCH.stop(start);
         }
     }
 
@@ -109,11 +189,37 @@ public class BillingDAO {
      * @param updatedBill The updated bill object.
      */
     public void updateBill(Billing updatedBill) {
+        long start = System.nanoTime();
         try {
+            Dictionaries.canonicalize(updatedBill);
             bills.put(updatedBill.getBillId(), updatedBill);
             LOGGER.info("Bill was updated. Bill ID : {}", updatedBill.getBillId());
         } catch (Exception e) {
-            LOGGER.error("Bill ID: " + updatedBill.getBillId() + ". Error updating bill: " + e.getMessage(), e);
+            UPDATE.error();
+            LOGGER.error("Bill ID: {}. Error updating bill: {}", updatedBill.getBillId(), e.getMessage(), e);
+        } finally {
+            UPDATE.stop(start);
+        }
+    }
+
+    /**
+     * Updates an existing bill record if it is still at the expected
+     * version.
+     *
+     * @param updatedBill The updated bill object.
+     * @param expectedVersion The version the update was based on.
+     * @return True if the bill was updated, false if it was modified or
+     * deleted in the meantime.
+     */
+    public boolean updateBill(Billing updatedBill, long expectedVersion) {
+        long start = System.nanoTime();
+        try {
+            Dictionaries.canonicalize(updatedBill);
+            boolean updated = bills.putIfVersion(updatedBill.getBillId(), updatedBill, expectedVersion);
+            LOGGER.info("Bill ID : {}. Conditional update applied: {}", updatedBill.getBillId(), updated);
+            return updated;
+        } finally {
+            UPDATE.stop(start);
         }
     }
 
@@ -124,7 +230,9 @@ public class BillingDAO {
      * @return True if the bill was successfully deleted, otherwise false.
      */
     public boolean deleteBill(int billId) {
+        long start = System.nanoTime();
         Billing removedBill = bills.remove(billId);
+        DELETE.stop(start);
         if (removedBill != null) {
             LOGGER.info("Bill with ID {} was successfully deleted", billId);
             return true;
@@ -134,6 +242,22 @@ public class BillingDAO {
         }
     }
 
+    /**
+     * Deletes a bill record if it is still at the expected version.
+     *
+     * @param billId The ID of the bill to delete.
+     * @param expectedVersion The version the deletion was based on.
+     * @return True if the bill was deleted, false if it was modified or
+     * deleted in the meantime.
+     */
+    public boolean deleteBill(int billId, long expectedVersion) {
+        long start = System.nanoTime();
+        boolean removed = bills.removeIfVersion(billId, expectedVersion);
+        DELETE.stop(start);
+        LOGGER.info("Bill ID : {}. Conditional delete applied: {}", billId, removed);
+        return removed;
+    }
+
     /**
      * Searches for bills in the database based on specified criteria.
      *
@@ -144,6 +268,8 @@ public class BillingDAO {
      * @return A list of matching bills.
      */
     public List<Billing> searchBills(String patientFirstName, String patientLastName, String startBillDate, String endBillDate) {
+        long start = System.nanoTime();
+        Profiling.Span span = Profiling.startSearch();
         LOGGER.info("Searching for bills with criteria - Patient First Name: {}, Patient Last Name: {}, Start Bill Date: {}, End Bill Date: {}",
                 patientFirstName, patientLastName, startBillDate, endBillDate);
 
@@ -162,6 +288,7 @@ public class BillingDAO {
             }
         } catch (ParseException e) {
             LOGGER.error("Error parsing dates: {}", e.getMessage());
+            SEARCH.stop(start);
             return matchingBills;
         }
 
@@ -186,6 +313,8 @@ public class BillingDAO {
                 matchingBills.add(bill);
             }
         }
+        SEARCH.scan(start, bills.size(), matchingBills.size());
+        Profiling.search(span, "Billing", bills.size(), matchingBills.size(), SEARCH_CRITERIA, patientFirstName, patientLastName, startBillDate, endBillDate);
         return matchingBills;
     }
 }
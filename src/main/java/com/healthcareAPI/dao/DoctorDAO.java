@@ -4,12 +4,22 @@
  */
 package com.healthcareAPI.dao;
 
+import com.healthcareAPI.cache.ResponseCache;
 import com.healthcareAPI.helper.ObjectPatcherHelper;
+import com.healthcareAPI.metrics.MetricsRegistry;
+import com.healthcareAPI.metrics.OperationMetrics;
+import com.healthcareAPI.profiling.Profiling;
+import com.healthcareAPI.serialization.JsonFragments;
 import com.healthcareAPI.model.Doctor;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import com.healthcareAPI.storage.Dictionaries;
+import com.healthcareAPI.storage.Tables;
+import com.healthcareAPI.storage.Transaction;
+import com.healthcareAPI.storage.TransactionManager;
+import com.healthcareAPI.storage.TransactionalIntMap;
+import com.healthcareAPI.storage.Versioned;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,7 +32,15 @@ import org.slf4j.LoggerFactory;
 public class DoctorDAO {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DoctorDAO.class);
-    private static final Map<Integer, Doctor> doctors = new HashMap<>();
+    private static final TransactionalIntMap<Doctor> doctors = TransactionManager.manage(Tables.<Doctor>newTable(Tables.DOCTORS));
+
+    private static final OperationMetrics GET = MetricsRegistry.operation("DoctorDAO", "get");
+    private static final OperationMetrics ADD = MetricsRegistry.operation("DoctorDAO", "add");
+    private static final OperationMetrics UPDATE = MetricsRegistry.operation("DoctorDAO", "update");
+    private static final OperationMetrics PATCH = MetricsRegistry.operation("DoctorDAO", "patch");
+    private static final OperationMetrics DELETE = MetricsRegistry.operation("DoctorDAO", "delete");
+    private static final OperationMetrics SEARCH = MetricsRegistry.operation("DoctorDAO", "search");
+    private static final String[] SEARCH_CRITERIA = {"firstName", "lastName", "minAge", "maxAge", "gender", "specialization"};
 
     // Static block to initialize some sample doctor records
     static {
@@ -33,6 +51,8 @@ public class DoctorDAO {
         doctors.put(1, doctor1);
         doctors.put(2, doctor2);
         doctors.put(9, doctor3);
+        doctors.values().forEach(Dictionaries::canonicalize);
+        doctors.values().forEach(JsonFragments::storeDoctor);
     }
 
     /**
@@ -52,8 +72,35 @@ public class DoctorDAO {
      * @return The doctor object if found, otherwise null.
      */
     public Doctor getDoctorById(int doctorId) {
+        long start = System.nanoTime();
         LOGGER.info("Retrieving doctor by ID: {}", doctorId);
-        return doctors.get(doctorId);
+        Doctor doctor = doctors.get(doctorId);
+        GET.lookup(start, doctor != null);
+        return doctor;
+    }
+
+    /**
+     * Retrieves a doctor by ID together with the version of the stored record.
+     *
+     * @param doctorId The ID of the doctor to retrieve.
+     * @return The doctor and its version, or null if not found.
+     */
+    public Versioned<Doctor> getVersionedDoctorById(int doctorId) {
+        long start = System.nanoTime();
+        LOGGER.info("Retrieving doctor by ID {}", doctorId);
+        Versioned<Doctor> doctor = doctors.getVersioned(doctorId);
+        GET.lookup(start, doctor != null);
+        return doctor;
+    }
+
+    /**
+     * Returns the current version of a doctor record.
+     *
+     * @param doctorId The ID of the doctor.
+     * @return The version, or 0 if the doctor does not exist.
+     */
+    public long getDoctorVersion(int doctorId) {
+        return doctors.version(doctorId);
     }
 
     /**
@@ -62,11 +109,18 @@ public class DoctorDAO {
      * @param doctor The doctor object to add.
      */
     public void addDoctor(Doctor doctor) {
+        long start = System.nanoTime();
         try {
+            Dictionaries.canonicalize(doctor); // share the repeating attribute values
             doctors.put(doctor.getPersonId(), doctor);
+            JsonFragments.storeDoctor(doctor);
+            ResponseCache.invalidate(ResponseCache.DOCTORS, doctor.getPersonId()); // drop the cached responses showing it
             LOGGER.info("New doctor with ID {} was added to doctors list", doctor.getPersonId());
         } catch (Exception e) {
-            LOGGER.error("Error adding doctor: " + e.getMessage(), e);
+            ADD.error();
+            LOGGER.error("Error adding doctor: {}", e.getMessage(), e);
+        } finally {
+            ADD.stop(start);
         }
     }
 
@@ -76,11 +130,18 @@ public class DoctorDAO {
      * @param updatedDoctor The updated doctor object.
      */
     public void updateDoctor(Doctor updatedDoctor) {
+        long start = System.nanoTime();
         try {
+            Dictionaries.canonicalize(updatedDoctor);
             doctors.put(updatedDoctor.getPersonId(), updatedDoctor);
-            LOGGER.info("Doctor record was updated. Doctor ID : " + updatedDoctor.getPersonId());
+            JsonFragments.storeDoctor(updatedDoctor);
+            ResponseCache.invalidate(ResponseCache.DOCTORS, updatedDoctor.getPersonId());
+            LOGGER.info("Doctor record was updated. Doctor ID : {}", updatedDoctor.getPersonId());
         } catch (Exception e) {
-            LOGGER.error("Doctor ID: " + updatedDoctor.getPersonId() + ". Error updating doctor: " + e.getMessage(), e);
+            UPDATE.error();
+            LOGGER.error("Doctor ID: {}. Error updating doctor: {}", updatedDoctor.getPersonId(), e.getMessage(), e);
+        } finally {
+            UPDATE.stop(start);
         }
     }
 
@@ -93,11 +154,20 @@ public class DoctorDAO {
      * the new values.
      */
     public void partialUpdateDoctor(Doctor existingDoctor, Doctor partialUpdatedDoctor) {
+        long start = System.nanoTime();
         try {
             LOGGER.info("Updating the doctor record");
-            ObjectPatcherHelper.objectPatcher(existingDoctor, partialUpdatedDoctor);
-        } catch (IllegalAccessException e) {
-            LOGGER.error("An error occured: " + e.getMessage());
+            // patch a copy so readers of the current version never see a half applied patch
+            Doctor patchedDoctor = ObjectPatcherHelper.patchedCopy(existingDoctor, partialUpdatedDoctor);
+            Dictionaries.canonicalize(patchedDoctor);
+            doctors.put(patchedDoctor.getPersonId(), patchedDoctor);
+            JsonFragments.storeDoctor(patchedDoctor);
+            ResponseCache.invalidate(ResponseCache.DOCTORS, patchedDoctor.getPersonId());
+        } catch (ReflectiveOperationException e) {
+            PATCH.error();
+            LOGGER.error("An error occured: {}", e.getMessage());
+        } finally {
+            PATCH.stop(start);
         }
     }
 
@@ -108,8 +178,11 @@ public class DoctorDAO {
      * @return True if the doctor was successfully deleted, otherwise false.
      */
     public boolean deleteDoctor(int doctorId) {
+        long start = System.nanoTime();
         try {
             Doctor removedDoctor = doctors.remove(doctorId);
+            JsonFragments.removeDoctor(doctorId);
+            ResponseCache.invalidate(ResponseCache.DOCTORS, doctorId);
             if (removedDoctor != null) {
                 LOGGER.info("Doctor with ID {} was successfully deleted", doctorId);
                 return true;
@@ -118,9 +191,114 @@ public class DoctorDAO {
                 return false;
             }
         } catch (Exception e) {
+            DELETE.error();
             LOGGER.error("Error deleting Doctor with ID {}: {}", doctorId, e.getMessage());
             return false;
+        } finally {
+            DELETE.stop(start);
+        }
+    }
+
+    /**
+     * Retrieves a doctor by ID as part of a transaction.
+     *
+     * @param transaction The transaction.
+     * @param doctorId The ID of the doctor to retrieve.
+     * @return The doctor with the specified ID, or null if not found.
+     */
+    public Doctor getDoctorById(Transaction transaction, int doctorId) {
+        long start = System.nanoTime();
+        Doctor doctor = transaction.read(doctors, doctorId);
+        GET.lookup(start, doctor != null);
+        return doctor;
+    }
+
+    /**
+     * Adds a new doctor as part of a transaction. The doctor keeps the ID of
+     * the person record it was created for.
+     *
+     * @param transaction The transaction.
+     * @param doctor The doctor to add.
+     */
+    public void addDoctor(Transaction transaction, Doctor doctor) {
+        long start = System.nanoTime();
+        transaction.read(doctors, doctor.getPersonId()); // a concurrent insert of the same ID fails the commit
+        Dictionaries.canonicalize(doctor);
+        transaction.write(doctors, doctor.getPersonId(), doctor);
+        transaction.afterCommit(() -> {
+            JsonFragments.storeDoctor(doctor);
+            ResponseCache.invalidate(ResponseCache.DOCTORS, doctor.getPersonId());
+        });
+        LOGGER.info("New doctor with ID {} was added to the transaction", doctor.getPersonId());
+        ADD.stop(start);
+    }
+
+    /**
+     * Updates a doctor's information as part of a transaction.
+     *
+     * @param transaction The transaction.
+     * @param updatedDoctor The updated doctor information.
+     */
+    public void updateDoctor(Transaction transaction, Doctor updatedDoctor) {
+        long start = System.nanoTime();
+        Dictionaries.canonicalize(updatedDoctor);
+        transaction.write(doctors, updatedDoctor.getPersonId(), updatedDoctor);
+        transaction.afterCommit(() -> {
+            JsonFragments.storeDoctor(updatedDoctor);
+            ResponseCache.invalidate(ResponseCache.DOCTORS, updatedDoctor.getPersonId());
+        });
+        LOGGER.info("Doctor with ID {} was updated in the transaction", updatedDoctor.getPersonId());
+        UPDATE.stop(start);
+    }
+
+    /**
+     * Partially updates a doctor record as part of a transaction.
+     *
+     * @param transaction The transaction.
+     * @param existingDoctor The existing doctor object, read in the same
+     * transaction.
+     * @param partialUpdatedDoctor The partial updated doctor object containing the
+     * new values.
+     */
+    public void partialUpdateDoctor(Transaction transaction, Doctor existingDoctor, Doctor partialUpdatedDoctor) {
+        long start = System.nanoTime();
+        try {
+            Doctor patchedDoctor = ObjectPatcherHelper.patchedCopy(existingDoctor, partialUpdatedDoctor);
+            Dictionaries.canonicalize(patchedDoctor);
+            transaction.write(doctors, patchedDoctor.getPersonId(), patchedDoctor);
+            transaction.afterCommit(() -> {
+                JsonFragments.storeDoctor(patchedDoctor);
+                ResponseCache.invalidate(ResponseCache.DOCTORS, patchedDoctor.getPersonId());
+            });
+        } catch (ReflectiveOperationException e) {
+            PATCH.error();
+            LOGGER.error("An error occured: {}", e.getMessage());
+        } finally {
+            PATCH.stop(start);
+        }
+    }
+
+    /**
+     * Deletes a doctor by ID as part of a transaction.
+     *
+     * @param transaction The transaction.
+     * @param doctorId The ID of the doctor to delete.
+     * @return True if the doctor exists and will be deleted on commit, false
+     * otherwise.
+     */
+    public boolean deleteDoctor(Transaction transaction, int doctorId) {
+        long start = System.nanoTime();
+        if (transaction.read(doctors, doctorId) == null) {
+            DELETE.stop(start);
+            return false;
         }
+        transaction.delete(doctors, doctorId);
+        transaction.afterCommit(() -> {
+            JsonFragments.removeDoctor(doctorId);
+            ResponseCache.invalidate(ResponseCache.DOCTORS, doctorId);
+        });
+        DELETE.stop(start);
+        return true;
     }
 
     /**
@@ -135,9 +313,15 @@ public class DoctorDAO {
      * @return A list of matching doctors indexed by their IDs.
      */
     public List<Doctor> searchDoctors(String firstName, String lastName, Integer minAge, Integer maxAge, String gender, String specialization) {
+        long start = System.nanoTime();
+        Profiling.Span span = Profiling.startSearch();
         LOGGER.info("Searching for doctors with first name: {}, last name: {}, age range: {} - {}, gender: {}, and specialization: {}",
                 firstName, lastName, minAge, maxAge, gender, specialization);
 
+        // use the shared instances so matches compare by reference
+        gender = Dictionaries.GENDERS.lookup(gender);
+        specialization = Dictionaries.SPECIALIZATIONS.lookup(specialization);
+
         List<Doctor> matchingDoctors = new ArrayList<>();
         for (Doctor doctor : doctors.values()) {
             boolean matchFirstName = firstName == null || firstName.equalsIgnoreCase(doctor.getFirstName());
@@ -150,6 +334,8 @@ public class DoctorDAO {
                 matchingDoctors.add(doctor);
             }
         }
+        SEARCH.scan(start, doctors.size(), matchingDoctors.size());
+        Profiling.search(span, "Doctor", doctors.size(), matchingDoctors.size(), SEARCH_CRITERIA, firstName, lastName, minAge, maxAge, gender, specialization);
         return matchingDoctors;
     }
 }
@@ -5,12 +5,17 @@
 package com.healthcareAPI.dao;
 
 import com.healthcareAPI.helper.Helper;
+import com.healthcareAPI.metrics.MetricsRegistry;
+import com.healthcareAPI.metrics.OperationMetrics;
+import com.healthcareAPI.profiling.Profiling;
 import com.healthcareAPI.model.MedicalRecord;
 import com.healthcareAPI.model.Patient;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import com.healthcareAPI.storage.Dictionaries;
+import com.healthcareAPI.storage.IntMap;
+import com.healthcareAPI.storage.Tables;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,7 +28,15 @@ import org.slf4j.LoggerFactory;
 public class MedicalRecordDAO {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MedicalRecordDAO.class);
-    private static final Map<Integer, MedicalRecord> medicalRecords = new HashMap<>();
+    private static final IntMap<MedicalRecord> medicalRecords = Tables.newTable(Tables.MEDICAL_RECORDS);
+
+    private static final OperationMetrics GET = MetricsRegistry.operation("MedicalRecordDAO", "get");
+    private static final OperationMetrics FIND_BY_PATIENT = MetricsRegistry.operation("MedicalRecordDAO", "findByPatient");
+    private static final OperationMetrics ADD = MetricsRegistry.operation("MedicalRecordDAO", "add");
+    private static final OperationMetrics UPDATE = MetricsRegistry.operation("MedicalRecordDAO", "update");
+    private static final OperationMetrics DELETE = MetricsRegistry.operation("MedicalRecordDAO", "delete");
+    private static final OperationMetrics SEARCH = MetricsRegistry.operation("MedicalRecordDAO", "search");
+    private static final String[] SEARCH_CRITERIA = {"patientFirstName", "patientLastName", "bloodGroup"};
 
     // Initialize some sample data
     static {
@@ -41,6 +54,7 @@ public class MedicalRecordDAO {
         medicalRecords.put(2, medicalRecord2);
         medicalRecords.put(3, medicalRecord3);
         medicalRecords.put(4, medicalRecord4);
+        medicalRecords.values().forEach(Dictionaries::canonicalize);
     }
 
     /**
@@ -60,8 +74,11 @@ public class MedicalRecordDAO {
      * @return The MedicalRecord object, or null if not found.
      */
     public MedicalRecord getMedicalRecordById(int medicalRecordId) {
-        LOGGER.info("Retrieving medical record by ID " + medicalRecordId);
-        return medicalRecords.get(medicalRecordId);
+        long start = System.nanoTime();
+        LOGGER.info("Retrieving medical record by ID {}", medicalRecordId);
+        MedicalRecord medicalRecord = medicalRecords.get(medicalRecordId);
+        GET.lookup(start, medicalRecord != null);
+        return medicalRecord;
     }
 
     /**
@@ -71,11 +88,14 @@ public class MedicalRecordDAO {
      * @return The MedicalRecord object, or null if not found.
      */
     public MedicalRecord getMedicalRecordByPatientId(int patientId) {
-        LOGGER.info("Retrieving medical record by Patient ID " + patientId);
-        return medicalRecords.values().stream()
+        long start = System.nanoTime();
+        LOGGER.info("Retrieving medical record by Patient ID {}", patientId);
+        MedicalRecord patientMedicalRecord = medicalRecords.values().stream()
                 .filter(medicalRecord -> medicalRecord.getPatient().getPersonId() == patientId)
                 .findFirst()
                 .orElse(null); // Return null if no record is found
+        FIND_BY_PATIENT.scan(start, medicalRecords.size(), patientMedicalRecord == null ? 0 : 1);
+        return patientMedicalRecord;
     }
 
     /**
@@ -85,18 +105,23 @@ public class MedicalRecordDAO {
      * @return The ID of the newly added medical record.
      */
     public int addMedicalRecord(MedicalRecord medicalRecord) {
+        long start = System.nanoTime();
         try {
             Helper<MedicalRecord> helper = new Helper<>();
             int newMedicalRecordId = helper.getNextId(medicalRecords); // generate the next medical record id
             medicalRecord.setMedicalRecordId(newMedicalRecordId); // set the new medical record id
+            Dictionaries.canonicalize(medicalRecord); // share the repeating attribute values
 
             medicalRecords.put(newMedicalRecordId, medicalRecord);
 
-            LOGGER.info("New medical record with ID " + newMedicalRecordId + " was added to medical records list");
+            LOGGER.info("New medical record with ID {} was added to medical records list", newMedicalRecordId);
             return newMedicalRecordId;
         } catch (Exception e) {
-            LOGGER.error("Error adding medical record: " + e.getMessage(), e);
+            ADD.error();
+            LOGGER.error("Error adding medical record: {}", e.getMessage(), e);
             return -1;
+        } finally {
+            ADD.stop(start);
         }
     }
 
@@ -106,11 +131,16 @@ public class MedicalRecordDAO {
      * @param updatedMedicalRecord The updated MedicalRecord object.
      */
     public void updateMedicalRecord(MedicalRecord updatedMedicalRecord) {
+        long start = System.nanoTime();
         try {
+            Dictionaries.canonicalize(updatedMedicalRecord);
             medicalRecords.put(updatedMedicalRecord.getMedicalRecordId(), updatedMedicalRecord);
-            LOGGER.info("Medical record was updated. MedicalRecord ID : " + updatedMedicalRecord.getMedicalRecordId());
+            LOGGER.info("Medical record was updated. MedicalRecord ID : {}", updatedMedicalRecord.getMedicalRecordId());
         } catch (Exception e) {
-            LOGGER.error("Medical record ID: " + updatedMedicalRecord.getMedicalRecordId() + ". Error updating medical record: " + e.getMessage(), e);
+            UPDATE.error();
+            LOGGER.error("Medical record ID: {}. Error updating medical record: {}", updatedMedicalRecord.getMedicalRecordId(), e.getMessage(), e);
+        } finally {
+            UPDATE.stop(start);
         }
     }
 
@@ -121,6 +151,7 @@ public class MedicalRecordDAO {
      * @return true if the medical record was deleted, false otherwise.
      */
     public boolean deleteMedicalRecord(int medicalRecordId) {
+        long start = System.nanoTime();
         try {
             MedicalRecord removedRecord = medicalRecords.remove(medicalRecordId);
             if (removedRecord != null) {
@@ -131,8 +162,11 @@ public class MedicalRecordDAO {
                 return false;
             }
         } catch (Exception e) {
+            DELETE.error();
             LOGGER.error("Error deleting Medical Record with ID {}: {}", medicalRecordId, e.getMessage());
             return false;
+        } finally {
+            DELETE.stop(start);
         }
     }
 
@@ -145,7 +179,11 @@ public class MedicalRecordDAO {
      * @return A list of matching medicalRecordId to MedicalRecord objects.
      */
     public List<MedicalRecord> searchMedicalRecords(String patientFirstName, String patientLastName, String bloodGroup) {
-        LOGGER.info("Searching for medical records in the given criteria: patientFirstName: " + patientFirstName + ", patientLastName: " + patientLastName + ", bloodGroup: " + bloodGroup);
+        long start = System.nanoTime();
+        Profiling.Span span = Profiling.startSearch();
+        LOGGER.info("Searching for medical records in the given criteria: patientFirstName: {}, patientLastName: {}, bloodGroup: {}", patientFirstName, patientLastName, bloodGroup);
+
+        bloodGroup = Dictionaries.BLOOD_GROUPS.lookup(bloodGroup); // use the shared instance so matches compare by reference
 
         List<MedicalRecord> matchingMedicalRecords = new ArrayList<>();
 
@@ -160,6 +198,8 @@ public class MedicalRecordDAO {
                 matchingMedicalRecords.add(medicalRecord); // add the matching medical record to the list
             }
         }
+        SEARCH.scan(start, medicalRecords.size(), matchingMedicalRecords.size());
+        Profiling.search(span, "MedicalRecord", medicalRecords.size(), matchingMedicalRecords.size(), SEARCH_CRITERIA, patientFirstName, patientLastName, bloodGroup);
         return matchingMedicalRecords;
     }
 }
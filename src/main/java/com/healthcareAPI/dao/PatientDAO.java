@@ -4,12 +4,23 @@
  */
 package com.healthcareAPI.dao;
 
+import com.healthcareAPI.cache.ResponseCache;
 import com.healthcareAPI.helper.ObjectPatcherHelper;
+import com.healthcareAPI.metrics.MetricsRegistry;
+import com.healthcareAPI.metrics.OperationMetrics;
+import com.healthcareAPI.profiling.Profiling;
+import com.healthcareAPI.serialization.JsonFragments;
 import com.healthcareAPI.model.Patient;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import com.healthcareAPI.storage.Dictionaries;
+import com.healthcareAPI.storage.SearchCache;
+import com.healthcareAPI.storage.Tables;
+import com.healthcareAPI.storage.Transaction;
+import com.healthcareAPI.storage.TransactionManager;
+import com.healthcareAPI.storage.TransactionalIntMap;
+import com.healthcareAPI.storage.Versioned;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,7 +34,18 @@ import org.slf4j.LoggerFactory;
 public class PatientDAO {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PatientDAO.class);
-    private static final Map<Integer, Patient> patients = new HashMap<>();
+    private static final TransactionalIntMap<Patient> patients = TransactionManager.manage(Tables.<Patient>newTable(Tables.PATIENTS));
+    private static final SearchCache<Patient> searchCache = new SearchCache<>(patients);
+
+    private static final OperationMetrics GET = MetricsRegistry.operation("PatientDAO", "get");
+    private static final OperationMetrics ADD = MetricsRegistry.operation("PatientDAO", "add");
+    private static final OperationMetrics ADD_BATCH = MetricsRegistry.operation("PatientDAO", "addBatch");
+    private static final OperationMetrics UPDATE = MetricsRegistry.operation("PatientDAO", "update");
+    private static final OperationMetrics PATCH = MetricsRegistry.operation("PatientDAO", "patch");
+    private static final OperationMetrics DELETE = MetricsRegistry.operation("PatientDAO", "delete");
+    private static final OperationMetrics SEARCH = MetricsRegistry.operation("PatientDAO", "search");
+    private static final OperationMetrics SEARCH_CACHE = MetricsRegistry.operation("PatientDAO", "searchCache");
+    private static final String[] SEARCH_CRITERIA = {"firstName", "lastName", "minAge", "maxAge", "gender"};
     
     // Initialize some sample data
     static {
@@ -38,6 +60,8 @@ public class PatientDAO {
         patients.put(5, patient3);
         patients.put(6, patient4);
         patients.put(8, patient5);
+        patients.values().forEach(Dictionaries::canonicalize);
+        patients.values().forEach(JsonFragments::storePatient);
     }
 
     /**
@@ -57,8 +81,35 @@ public class PatientDAO {
      * @return The patient with the specified ID, or null if not found.
      */
     public Patient getPatientById(int patientId) {
-        LOGGER.info("Retrieving patient by ID " + patientId);
-        return patients.get(patientId);
+        long start = System.nanoTime();
+        LOGGER.info("Retrieving patient by ID {}", patientId);
+        Patient patient = patients.get(patientId);
+        GET.lookup(start, patient != null);
+        return patient;
+    }
+
+    /**
+     * Retrieves a patient by ID together with the version of the stored record.
+     *
+     * @param patientId The ID of the patient to retrieve.
+     * @return The patient and its version, or null if not found.
+     */
+    public Versioned<Patient> getVersionedPatientById(int patientId) {
+        long start = System.nanoTime();
+        LOGGER.info("Retrieving patient by ID {}", patientId);
+        Versioned<Patient> patient = patients.getVersioned(patientId);
+        GET.lookup(start, patient != null);
+        return patient;
+    }
+
+    /**
+     * Returns the current version of a patient record.
+     *
+     * @param patientId The ID of the patient.
+     * @return The version, or 0 if the patient does not exist.
+     */
+    public long getPatientVersion(int patientId) {
+        return patients.version(patientId);
     }
 
     /**
@@ -68,11 +119,18 @@ public class PatientDAO {
      *
      */
     public void addPatient(Patient patient) {
+        long start = System.nanoTime();
         try {
+            Dictionaries.canonicalize(patient); // share the repeating attribute values
             patients.put(patient.getPersonId(), patient);
+            JsonFragments.storePatient(patient);
+            ResponseCache.invalidate(ResponseCache.PATIENTS, patient.getPersonId()); // drop the cached responses showing it
             LOGGER.info("New patient with ID {} was added to patients list", patient.getPersonId());
         } catch (Exception e) {
-            LOGGER.error("Error adding patient: " + e.getMessage(), e);
+            ADD.error();
+            LOGGER.error("Error adding patient: {}", e.getMessage(), e);
+        } finally {
+            ADD.stop(start);
         }
     }
 
@@ -82,11 +140,18 @@ public class PatientDAO {
      * @param updatedPatient The updated patient information.
      */
     public void updatePatient(Patient updatedPatient) {
+        long start = System.nanoTime();
         try {
+            Dictionaries.canonicalize(updatedPatient);
             patients.put(updatedPatient.getPersonId(), updatedPatient);
-            LOGGER.info("Patient record was updated. Patient ID : " + updatedPatient.getPersonId());
+            JsonFragments.storePatient(updatedPatient);
+            ResponseCache.invalidate(ResponseCache.PATIENTS, updatedPatient.getPersonId());
+            LOGGER.info("Patient record was updated. Patient ID : {}", updatedPatient.getPersonId());
         } catch (Exception e) {
-            LOGGER.error("Patient ID: " + updatedPatient.getPersonId() + ". Error updating patient: " + e.getMessage(), e);
+            UPDATE.error();
+            LOGGER.error("Patient ID: {}. Error updating patient: {}", updatedPatient.getPersonId(), e.getMessage(), e);
+        } finally {
+            UPDATE.stop(start);
         }
     }
 
@@ -99,11 +164,20 @@ public class PatientDAO {
      * containing the new values.
      */
     public void partialUpdatePatient(Patient existingPatient, Patient partialUpdatedPatient) {
+        long start = System.nanoTime();
         try {
             LOGGER.info("Updating the patient record");
-            ObjectPatcherHelper.objectPatcher(existingPatient, partialUpdatedPatient);
-        } catch (IllegalAccessException e) {
-            LOGGER.error("An error occured: " + e.getMessage());
+            // patch a copy so readers of the current version never see a half applied patch
+            Patient patchedPatient = ObjectPatcherHelper.patchedCopy(existingPatient, partialUpdatedPatient);
+            Dictionaries.canonicalize(patchedPatient);
+            patients.put(patchedPatient.getPersonId(), patchedPatient);
+            JsonFragments.storePatient(patchedPatient);
+            ResponseCache.invalidate(ResponseCache.PATIENTS, patchedPatient.getPersonId());
+        } catch (ReflectiveOperationException e) {
+            PATCH.error();
+            LOGGER.error("An error occured: {}", e.getMessage());
+        } finally {
+            PATCH.stop(start);
         }
     }
 
@@ -114,8 +188,11 @@ public class PatientDAO {
      * @return True if the patient was successfully deleted, false otherwise.
      */
     public boolean deletePatient(int patientId) {
+        long start = System.nanoTime();
         try {
             Patient removedPatient = patients.remove(patientId);
+            JsonFragments.removePatient(patientId);
+            ResponseCache.invalidate(ResponseCache.PATIENTS, patientId);
             if (removedPatient != null) {
                 LOGGER.info("Patient with ID {} was successfully deleted", patientId);
                 return true;
@@ -124,9 +201,138 @@ public class PatientDAO {
                 return false;
             }
         } catch (Exception e) {
+            DELETE.error();
             LOGGER.error("Error deleting Patient with ID {}: {}", patientId, e.getMessage());
             return false;
+        } finally {
+            DELETE.stop(start);
+        }
+    }
+
+    /**
+     * Retrieves a patient by ID as part of a transaction.
+     *
+     * @param transaction The transaction.
+     * @param patientId The ID of the patient to retrieve.
+     * @return The patient with the specified ID, or null if not found.
+     */
+    public Patient getPatientById(Transaction transaction, int patientId) {
+        long start = System.nanoTime();
+        Patient patient = transaction.read(patients, patientId);
+        GET.lookup(start, patient != null);
+        return patient;
+    }
+
+    /**
+     * Adds a new patient as part of a transaction. The patient keeps the ID of
+     * the person record it was created for.
+     *
+     * @param transaction The transaction.
+     * @param patient The patient to add.
+     */
+    public void addPatient(Transaction transaction, Patient patient) {
+        long start = System.nanoTime();
+        transaction.read(patients, patient.getPersonId()); // a concurrent insert of the same ID fails the commit
+        Dictionaries.canonicalize(patient);
+        transaction.write(patients, patient.getPersonId(), patient);
+        transaction.afterCommit(() -> {
+            JsonFragments.storePatient(patient);
+            ResponseCache.invalidate(ResponseCache.PATIENTS, patient.getPersonId());
+        });
+        LOGGER.info("New patient with ID {} was added to the transaction", patient.getPersonId());
+        ADD.stop(start);
+    }
+
+    /**
+     * Adds patients as part of a transaction. The patients keep the IDs of the
+     * person records reserved for them in the same transaction, so no other
+     * request can add a patient with those IDs.
+     *
+     * @param transaction The transaction.
+     * @param newPatients The patients to add.
+     */
+    public void addPatients(Transaction transaction, List<Patient> newPatients) {
+        long start = System.nanoTime();
+        for (Patient patient : newPatients) {
+            Dictionaries.canonicalize(patient);
+            transaction.write(patients, patient.getPersonId(), patient);
+        }
+        transaction.afterCommit(() -> {
+            for (Patient patient : newPatients) {
+                JsonFragments.storePatient(patient);
+                ResponseCache.invalidate(ResponseCache.PATIENTS, patient.getPersonId());
+            }
+        });
+        LOGGER.info("{} new patients were added to the transaction", newPatients.size());
+        ADD_BATCH.stop(start);
+    }
+
+    /**
+     * Updates a patient's information as part of a transaction.
+     *
+     * @param transaction The transaction.
+     * @param updatedPatient The updated patient information.
+     */
+    public void updatePatient(Transaction transaction, Patient updatedPatient) {
+        long start = System.nanoTime();
+        Dictionaries.canonicalize(updatedPatient);
+        transaction.write(patients, updatedPatient.getPersonId(), updatedPatient);
+        transaction.afterCommit(() -> {
+            JsonFragments.storePatient(updatedPatient);
+            ResponseCache.invalidate(ResponseCache.PATIENTS, updatedPatient.getPersonId());
+        });
+        LOGGER.info("Patient with ID {} was updated in the transaction", updatedPatient.getPersonId());
+        UPDATE.stop(start);
+    }
+
+    /**
+     * Partially updates a patient record as part of a transaction.
+     *
+     * @param transaction The transaction.
+     * @param existingPatient The existing patient object, read in the same
+     * transaction.
+     * @param partialUpdatedPatient The partial updated patient object containing the
+     * new values.
+     */
+    public void partialUpdatePatient(Transaction transaction, Patient existingPatient, Patient partialUpdatedPatient) {
+        long start = System.nanoTime();
+        try {
+            Patient patchedPatient = ObjectPatcherHelper.patchedCopy(existingPatient, partialUpdatedPatient);
+            Dictionaries.canonicalize(patchedPatient);
+            transaction.write(patients, patchedPatient.getPersonId(), patchedPatient);
+            transaction.afterCommit(() -> {
+                JsonFragments.storePatient(patchedPatient);
+                ResponseCache.invalidate(ResponseCache.PATIENTS, patchedPatient.getPersonId());
+            });
+        } catch (ReflectiveOperationException e) {
+            PATCH.error();
+            LOGGER.error("An error occured: {}", e.getMessage());
+        } finally {
+            PATCH.stop(start);
+        }
+    }
+
+    /**
+     * Deletes a patient by ID as part of a transaction.
+     *
+     * @param transaction The transaction.
+     * @param patientId The ID of the patient to delete.
+     * @return True if the patient exists and will be deleted on commit, false
+     * otherwise.
+     */
+    public boolean deletePatient(Transaction transaction, int patientId) {
+        long start = System.nanoTime();
+        if (transaction.read(patients, patientId) == null) {
+            DELETE.stop(start);
+            return false;
         }
+        transaction.delete(patients, patientId);
+        transaction.afterCommit(() -> {
+            JsonFragments.removePatient(patientId);
+            ResponseCache.invalidate(ResponseCache.PATIENTS, patientId);
+        });
+        DELETE.stop(start);
+        return true;
     }
 
     /**
@@ -140,9 +346,24 @@ public class PatientDAO {
      * @return A list of patients that match the specified criteria.
      */
     public List<Patient> searchPatients(String firstName, String lastName, Integer minAge, Integer maxAge, String gender) {
+        long start = System.nanoTime();
+        Profiling.Span span = Profiling.startSearch();
         LOGGER.info("Searching for patients with first name: {}, last name: {}, age range: {} - {}, and gender: {}",
                 firstName, lastName, minAge, maxAge, gender);
 
+        gender = Dictionaries.GENDERS.lookup(gender); // use the shared instance so matches compare by reference
+
+        // repeated searches are answered from the cache until the next write to the patients
+        String key = SearchCache.key(firstName, lastName, minAge, maxAge, gender);
+        List<Patient> cachedPatients = searchCache.get(key);
+        SEARCH_CACHE.lookup(start, cachedPatients != null);
+        if (cachedPatients != null) {
+            SEARCH.scan(start, 0, cachedPatients.size());
+            Profiling.search(span, "Patient", 0, cachedPatients.size(), SEARCH_CRITERIA, firstName, lastName, minAge, maxAge, gender);
+            return cachedPatients;
+        }
+        long version = searchCache.version();
+
         List<Patient> matchingPatients = new ArrayList<>();
         for (Patient patient : patients.values()) {
             boolean matchFirstName = firstName == null || firstName.equalsIgnoreCase(patient.getFirstName());
@@ -154,6 +375,9 @@ public class PatientDAO {
                 matchingPatients.add(patient); // add the matching patient record to the list
             }
         }
+        searchCache.put(key, version, matchingPatients.stream().mapToInt(Patient::getPersonId).toArray());
+        SEARCH.scan(start, patients.size(), matchingPatients.size());
+        Profiling.search(span, "Patient", patients.size(), matchingPatients.size(), SEARCH_CRITERIA, firstName, lastName, minAge, maxAge, gender);
         return matchingPatients;
     }
 
@@ -6,11 +6,20 @@ package com.healthcareAPI.dao;
 
 import com.healthcareAPI.helper.Helper;
 import com.healthcareAPI.helper.ObjectPatcherHelper;
+import com.healthcareAPI.metrics.MetricsRegistry;
+import com.healthcareAPI.metrics.OperationMetrics;
+import com.healthcareAPI.profiling.Profiling;
 import com.healthcareAPI.model.Person;
+import com.healthcareAPI.storage.Dictionaries;
+import com.healthcareAPI.storage.OffHeapPersonStore;
+import com.healthcareAPI.storage.Tables;
+import com.healthcareAPI.storage.Transaction;
+import com.healthcareAPI.storage.TransactionManager;
+import com.healthcareAPI.storage.TransactionalIntMap;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,12 +27,29 @@ import org.slf4j.LoggerFactory;
  * Data Access Object (DAO) for managing Person objects. This class provides
  * methods for retrieving, adding, updating, and deleting Person objects.
  *
+ * The people can optionally be kept off-heap in an {@link OffHeapPersonStore}
+ * by starting the application with
+ * {@code -Dhealthcare.storage.offHeapPeople=true}. Person objects are then
+ * created on demand when records are read.
+ *
  * @author Amandha
  */
 public class PersonDAO {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PersonDAO.class);
-    private static final Map<Integer, Person> people = new HashMap<>();
+    private static final boolean OFF_HEAP = Boolean.getBoolean("healthcare.storage.offHeapPeople");
+    private static final TransactionalIntMap<Person> people = TransactionManager.manage(OFF_HEAP ? new OffHeapPersonStore() : Tables.<Person>newTable());
+
+    private static final OperationMetrics GET = MetricsRegistry.operation("PersonDAO", "get");
+    private static final OperationMetrics ADD = MetricsRegistry.operation("PersonDAO", "add");
+    private static final OperationMetrics ADD_BATCH = MetricsRegistry.operation("PersonDAO", "addBatch");
+    private static final OperationMetrics UPDATE = MetricsRegistry.operation("PersonDAO", "update");
+    private static final OperationMetrics PATCH = MetricsRegistry.operation("PersonDAO", "patch");
+    private static final OperationMetrics DELETE = MetricsRegistry.operation("PersonDAO", "delete");
+    private static final OperationMetrics SEARCH = MetricsRegistry.operation("PersonDAO", "search");
+    // the highest person ID handed out, new IDs are reserved above it and above the table
+    private static final AtomicInteger LAST_RESERVED_ID = new AtomicInteger();
+    private static final String[] SEARCH_CRITERIA = {"firstName", "lastName", "minAge", "maxAge", "gender"};
 
     // add data to the people list
     static {
@@ -56,8 +82,11 @@ public class PersonDAO {
      * @return The Person object with the given ID, or null if not found.
      */
     public Person getPersonById(int personId) {
-        LOGGER.info("Retrieving the person with ID : " + personId);
-        return people.get(personId);
+        long start = System.nanoTime();
+        LOGGER.info("Retrieving the person with ID : {}", personId);
+        Person person = people.get(personId);
+        GET.lookup(start, person != null);
+        return person;
     }
 
     /**
@@ -68,15 +97,10 @@ public class PersonDAO {
      */
     public int addPerson(Person person) {
         try {
-            Helper<Person> helper = new Helper<>();
-            int newPersonId = helper.getNextId(people); // Get new person ID
-            person.setPersonId(newPersonId); // Set the new person ID
-
-            people.put(newPersonId, person);
-            LOGGER.info("New person with ID " + newPersonId + " was added to people list");
-            return newPersonId;
+            return TransactionManager.execute(transaction -> addPerson(transaction, person)); // timed by the transactional add
         } catch (Exception e) {
-            LOGGER.error("Error adding person: " + e.getMessage(), e);
+            ADD.error();
+            LOGGER.error("Error adding person: {}", e.getMessage(), e);
             return -1;
         }
     }
@@ -87,30 +111,42 @@ public class PersonDAO {
      * @param updatedPerson The updated Person object.
      */
     public void updatePerson(Person updatedPerson) {
+        long start = System.nanoTime();
         try {
+            Dictionaries.canonicalize(updatedPerson);
             people.put(updatedPerson.getPersonId(), updatedPerson);
-            LOGGER.info("Person was updated. Person ID : " + updatedPerson.getPersonId());
+            LOGGER.info("Person was updated. Person ID : {}", updatedPerson.getPersonId());
         } catch (Exception e) {
-            LOGGER.error("Person ID: " + updatedPerson.getPersonId() + ". Error updating person: " + e.getMessage(), e);
+            UPDATE.error();
+            LOGGER.error("Person ID: {}. Error updating person: {}", updatedPerson.getPersonId(), e.getMessage(), e);
+        } finally {
+            UPDATE.stop(start);
         }
 
     }
 
     /**
      * Partially updates a Person object with the values from another Person
-     * object. This method uses reflection to update the fields of the
-     * existingPerson object with non-null values from the partialUpdatedPerson
-     * object.
+     * object. This method uses reflection to copy the existingPerson object
+     * with the non-null values from the partialUpdatedPerson object applied, and
+     * stores the copy in place of the existing object.
      *
      * @param existingPerson The existing Person object to be updated.
      * @param partialUpdatedPerson The Person object containing partial updates.
      */
     public void partialUpdatePerson(Person existingPerson, Person partialUpdatedPerson) {
+        long start = System.nanoTime();
         try {
             LOGGER.info("Updating the person record");
-            ObjectPatcherHelper.objectPatcher(existingPerson, partialUpdatedPerson);
-        } catch (IllegalAccessException e) {
-            LOGGER.error("An error occured: " + e.getMessage());
+            // patch a copy so readers of the current version never see a half applied patch
+            Person patchedPerson = ObjectPatcherHelper.patchedCopy(existingPerson, partialUpdatedPerson);
+            Dictionaries.canonicalize(patchedPerson);
+            people.put(patchedPerson.getPersonId(), patchedPerson);
+        } catch (ReflectiveOperationException e) {
+            PATCH.error();
+            LOGGER.error("An error occured: {}", e.getMessage());
+        } finally {
+            PATCH.stop(start);
         }
     }
 
@@ -121,6 +157,7 @@ public class PersonDAO {
      * @return True if the person was successfully deleted, false otherwise.
      */
     public boolean deletePerson(int personId) {
+        long start = System.nanoTime();
         try {
             Person removedPerson = people.remove(personId);
             if (removedPerson != null) {
@@ -131,11 +168,140 @@ public class PersonDAO {
                 return false;
             }
         } catch (Exception e) {
+            DELETE.error();
             LOGGER.error("Error deleting Person with ID {}: {}", personId, e.getMessage());
             return false;
+        } finally {
+            DELETE.stop(start);
         }
     }
 
+    /**
+     * Retrieves a person by ID as part of a transaction.
+     *
+     * @param transaction The transaction.
+     * @param personId The ID of the person to retrieve.
+     * @return The Person object with the given ID, or null if not found.
+     */
+    public Person getPersonById(Transaction transaction, int personId) {
+        long start = System.nanoTime();
+        Person person = transaction.read(people, personId);
+        GET.lookup(start, person != null);
+        return person;
+    }
+
+    /**
+     * Adds a new person as part of a transaction, under a new ID reserved for
+     * it alone.
+     *
+     * @param transaction The transaction.
+     * @param person The person to add.
+     * @return The ID of the new person.
+     */
+    public int addPerson(Transaction transaction, Person person) {
+        long start = System.nanoTime();
+        int newPersonId = reserveIds(1); // Get new person ID
+        person.setPersonId(newPersonId); // Set the new person ID
+        Dictionaries.canonicalize(person); // share the repeating attribute values
+
+        transaction.write(people, newPersonId, person);
+        LOGGER.info("New person with ID {} was added to the transaction", newPersonId);
+        ADD.stop(start);
+        return newPersonId;
+    }
+
+    /**
+     * Adds people as part of a transaction, under a range of consecutive new
+     * IDs reserved in one step. The IDs of a transaction that does not commit
+     * are not reused.
+     *
+     * @param transaction The transaction.
+     * @param newPeople The people to add, in the order of their new IDs.
+     * @return The ID of the first person.
+     */
+    public int addPeople(Transaction transaction, List<? extends Person> newPeople) {
+        long start = System.nanoTime();
+        int firstId = reserveIds(newPeople.size());
+        for (int i = 0; i < newPeople.size(); i++) {
+            Person person = newPeople.get(i);
+            person.setPersonId(firstId + i);
+            Dictionaries.canonicalize(person);
+            transaction.write(people, firstId + i, person);
+        }
+        LOGGER.info("{} new people with IDs {} to {} were added to the transaction", newPeople.size(), firstId, firstId + newPeople.size() - 1);
+        ADD_BATCH.stop(start);
+        return firstId;
+    }
+
+    /**
+     * Reserves consecutive new person IDs, above every ID handed out before
+     * and every key of the table. No other add gets the same IDs, even before
+     * the transaction that uses them commits, so they are not read back to
+     * detect a clash.
+     *
+     * @param count The number of IDs.
+     * @return The first reserved ID.
+     */
+    private static int reserveIds(int count) {
+        int nextInTable = new Helper<Person>().getNextId(people);
+        return LAST_RESERVED_ID.updateAndGet(last -> Math.max(last, nextInTable - 1) + count) - count + 1;
+    }
+
+    /**
+     * Updates an existing person as part of a transaction.
+     *
+     * @param transaction The transaction.
+     * @param updatedPerson The updated Person object.
+     */
+    public void updatePerson(Transaction transaction, Person updatedPerson) {
+        long start = System.nanoTime();
+        Dictionaries.canonicalize(updatedPerson);
+        transaction.write(people, updatedPerson.getPersonId(), updatedPerson);
+        LOGGER.info("Person with ID {} was updated in the transaction", updatedPerson.getPersonId());
+        UPDATE.stop(start);
+    }
+
+    /**
+     * Partially updates a person as part of a transaction.
+     *
+     * @param transaction The transaction.
+     * @param existingPerson The existing Person object, read in the same
+     * transaction.
+     * @param partialUpdatedPerson The Person object containing partial updates.
+     */
+    public void partialUpdatePerson(Transaction transaction, Person existingPerson, Person partialUpdatedPerson) {
+        long start = System.nanoTime();
+        try {
+            Person patchedPerson = ObjectPatcherHelper.patchedCopy(existingPerson, partialUpdatedPerson);
+            Dictionaries.canonicalize(patchedPerson);
+            transaction.write(people, patchedPerson.getPersonId(), patchedPerson);
+        } catch (ReflectiveOperationException e) {
+            PATCH.error();
+            LOGGER.error("An error occured: {}", e.getMessage());
+        } finally {
+            PATCH.stop(start);
+        }
+    }
+
+    /**
+     * Deletes a person by ID as part of a transaction.
+     *
+     * @param transaction The transaction.
+     * @param personId The ID of the person to delete.
+     * @return True if the person exists and will be deleted on commit, false
+     * otherwise.
+     */
+    public boolean deletePerson(Transaction transaction, int personId) {
+        long start = System.nanoTime();
+        if (transaction.read(people, personId) == null) {
+            DELETE.stop(start);
+            return false;
+        }
+        transaction.delete(people, personId);
+        DELETE.stop(start);
+        return true;
+    }
+
     /**
      * Searches for people based on specified criteria.
      *
@@ -152,8 +318,18 @@ public class PersonDAO {
      * @return A map of Person objects matching the specified criteria.
      */
     public List<Person> searchPeople(String firstName, String lastName, Integer minAge, Integer maxAge, String gender) {
-        LOGGER.info("Searching for people with first name: " + firstName + ", last name: " + lastName
-                + ", age range: " + minAge + " - " + maxAge + ", and gender: " + gender);
+        long start = System.nanoTime();
+        Profiling.Span span = Profiling.startSearch();
+        LOGGER.info("Searching for people with first name: {}, last name: {}, age range: {} - {}, and gender: {}", firstName, lastName, minAge, maxAge, gender);
+
+        gender = Dictionaries.GENDERS.lookup(gender); // use the shared instance so matches compare by reference
+
+        if (OFF_HEAP) {
+            List<Person> matchingPeople = ((OffHeapPersonStore) people.getDelegate()).search(firstName, lastName, minAge, maxAge, gender); // scan the columns directly
+            SEARCH.scan(start, people.size(), matchingPeople.size());
+            Profiling.search(span, "Person", people.size(), matchingPeople.size(), SEARCH_CRITERIA, firstName, lastName, minAge, maxAge, gender);
+            return matchingPeople;
+        }
 
         List<Person> matchingPeople = new ArrayList<>();
         for (Person person : people.values()) {
@@ -166,6 +342,8 @@ public class PersonDAO {
                 matchingPeople.add(person); // add the matching record to the list
             }
         }
+        SEARCH.scan(start, people.size(), matchingPeople.size());
+        Profiling.search(span, "Person", people.size(), matchingPeople.size(), SEARCH_CRITERIA, firstName, lastName, minAge, maxAge, gender);
         return matchingPeople;
     }
 
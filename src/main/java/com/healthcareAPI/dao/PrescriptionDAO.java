@@ -5,6 +5,9 @@
 package com.healthcareAPI.dao;
 
 import com.healthcareAPI.helper.Helper;
+import com.healthcareAPI.metrics.MetricsRegistry;
+import com.healthcareAPI.metrics.OperationMetrics;
+import com.healthcareAPI.profiling.Profiling;
 import static com.healthcareAPI.helper.SimpleDateFormatHelper.parseSimpleDate;
 import com.healthcareAPI.model.Doctor;
 import com.healthcareAPI.model.Patient;
@@ -12,10 +15,11 @@ import com.healthcareAPI.model.Prescription;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import com.healthcareAPI.storage.IntMap;
+import com.healthcareAPI.storage.Tables;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,7 +33,16 @@ import org.slf4j.LoggerFactory;
 public class PrescriptionDAO {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PrescriptionDAO.class);
-    private static final Map<Integer, Prescription> prescriptions = new HashMap<>();
+    private static final IntMap<Prescription> prescriptions = Tables.newTable(Tables.PRESCRIPTIONS);
+
+    private static final OperationMetrics GET = MetricsRegistry.operation("PrescriptionDAO", "get");
+    private static final OperationMetrics FIND_BY_PATIENT = MetricsRegistry.operation("PrescriptionDAO", "findByPatient");
+    private static final OperationMetrics FIND_BY_DOCTOR = MetricsRegistry.operation("PrescriptionDAO", "findByDoctor");
+    private static final OperationMetrics ADD = MetricsRegistry.operation("PrescriptionDAO", "add");
+    private static final OperationMetrics UPDATE = MetricsRegistry.operation("PrescriptionDAO", "update");
+    private static final OperationMetrics DELETE = MetricsRegistry.operation("PrescriptionDAO", "delete");
+    private static final OperationMetrics SEARCH = MetricsRegistry.operation("PrescriptionDAO", "search");
+    private static final String[] SEARCH_CRITERIA = {"patientFirstName", "patientLastName", "doctorFirstName", "doctorLastName", "fromDateStr", "toDateStr"};
 
     static {
         Patient patient1 = new Patient(3, "Jeromy", "Osinski", 1234548548, "86869 Weissnat Light Suite 560, SF", "M", 60, "Diagnosed with ADHD", "Parkinsons patient. Who was previously admitted due to loss of memory");
@@ -62,8 +75,11 @@ public class PrescriptionDAO {
      * @return The prescription object if found, otherwise null.
      */
     public Prescription getPrescriptionById(int prescriptionId) {
-        LOGGER.info("Retrieving prescription by ID " + prescriptionId);
-        return prescriptions.getOrDefault(prescriptionId, null);
+        long start = System.nanoTime();
+        LOGGER.info("Retrieving prescription by ID {}", prescriptionId);
+        Prescription prescription = prescriptions.get(prescriptionId);
+        GET.lookup(start, prescription != null);
+        return prescription;
     }
 
     /**
@@ -73,11 +89,14 @@ public class PrescriptionDAO {
      * @return A list of prescriptions associated with the patient.
      */
     public List<Prescription> getPrescriptionByPatientId(int patientId) {
-        LOGGER.info("Retrieving prescription by Patient ID " + patientId);
+        long start = System.nanoTime();
+        LOGGER.info("Retrieving prescription by Patient ID {}", patientId);
 
-        return prescriptions.values().stream()
+        List<Prescription> patientPrescriptions = prescriptions.values().stream()
                 .filter(prescription -> prescription.getPrescribedFor().getPersonId() == patientId)
                 .collect(Collectors.toList());
+        FIND_BY_PATIENT.scan(start, prescriptions.size(), patientPrescriptions.size());
+        return patientPrescriptions;
     }
 
     /**
@@ -87,13 +106,16 @@ public class PrescriptionDAO {
      * @return A list of prescriptions associated with the doctor.
      */
     public List<Prescription> getPrescriptionByDoctorId(int doctorId) {
-        LOGGER.info("Retrieving prescription by Doctor ID " + doctorId);
+        long start = System.nanoTime();
+        LOGGER.info("Retrieving prescription by Doctor ID {}", doctorId);
 
         List<Prescription> matchingPrescriptions = new ArrayList<>();
 
-        return prescriptions.values().stream()
+        List<Prescription> doctorPrescriptions = prescriptions.values().stream()
                 .filter(prescription -> prescription.getPrescribedBy().getPersonId() == doctorId)
                 .collect(Collectors.toList());
+        FIND_BY_DOCTOR.scan(start, prescriptions.size(), doctorPrescriptions.size());
+        return doctorPrescriptions;
     }
 
     /**
@@ -103,18 +125,22 @@ public class PrescriptionDAO {
      * @return The ID assigned to the new prescription.
      */
     public int addPrescription(Prescription prescription) {
+        long start = System.nanoTime();
         try {
             Helper<Prescription> helper = new Helper<>();
             int newPrescriptionId = helper.getNextId(prescriptions); // generate the next prescription ID
             prescription.setPrescriptionId(newPrescriptionId);
 
             prescriptions.put(newPrescriptionId, prescription); // add the new prescription 
-            LOGGER.info("New prescription with ID " + newPrescriptionId + " is added to prescriptions list");
+            LOGGER.info("New prescription with ID {} is added to prescriptions list", newPrescriptionId);
 
             return newPrescriptionId;
         } catch (Exception e) {
-            LOGGER.error("Error adding prescription: " + e.getMessage(), e);
+            ADD.error();
+            LOGGER.error("Error adding prescription: {}", e.getMessage(), e);
             return -1;
+        } finally {
+            ADD.stop(start);
         }
     }
 
@@ -124,11 +150,15 @@ public class PrescriptionDAO {
      * @param updatedPrescription The updated prescription object.
      */
     public void updatePrescription(Prescription updatedPrescription) {
+        long start = System.nanoTime();
         try {
             prescriptions.put(updatedPrescription.getPrescriptionId(), updatedPrescription);
-            LOGGER.info("Prescription was updated. Prescription ID : " + updatedPrescription.getPrescriptionId());
+            LOGGER.info("Prescription was updated. Prescription ID : {}", updatedPrescription.getPrescriptionId());
         } catch (Exception e) {
-            LOGGER.error("Prescription ID: " + updatedPrescription.getPrescriptionId() + ". Error updating prescription: " + e.getMessage(), e);
+            UPDATE.error();
+            LOGGER.error("Prescription ID: {}. Error updating prescription: {}", updatedPrescription.getPrescriptionId(), e.getMessage(), e);
+        } finally {
+            UPDATE.stop(start);
         }
 
     }
@@ -141,6 +171,7 @@ public class PrescriptionDAO {
      * false.
      */
     public boolean deletePrescription(int prescriptionId) {
+        long start = System.nanoTime();
         try {
             Prescription removedPrescription = prescriptions.remove(prescriptionId);
             if (removedPrescription != null) {
@@ -151,8 +182,11 @@ public class PrescriptionDAO {
                 return false;
             }
         } catch (Exception e) {
+            DELETE.error();
             LOGGER.error("Error deleting prescription with ID {}: {}", prescriptionId, e.getMessage());
             return false;
+        } finally {
+            DELETE.stop(start);
         }
     }
 
@@ -170,6 +204,8 @@ public class PrescriptionDAO {
      * @return A list of prescriptions that match the specified criteria.
      */
     public List<Prescription> searchPrescriptions(String patientFirstName, String patientLastName, String doctorFirstName, String doctorLastName, String fromDateStr, String toDateStr) {
+        long start = System.nanoTime();
+        Profiling.Span span = Profiling.startSearch();
         LOGGER.info("Searching for prescriptions with criteria - Patient First Name: {}, Patient Last Name: {}, Doctor First Name: {}, Doctor Last Name: {}, From Date: {}, To Date: {}",
                 patientFirstName, patientLastName, doctorFirstName, doctorLastName, fromDateStr, toDateStr);
 
@@ -188,6 +224,7 @@ public class PrescriptionDAO {
             }
         } catch (ParseException e) {
             LOGGER.error("Error parsing dates: {}", e.getMessage());
+            SEARCH.stop(start);
             return matchingPrescriptions;
         }
 
@@ -216,6 +253,8 @@ public class PrescriptionDAO {
                 matchingPrescriptions.add(prescription); // add the matching prescription to the list
             }
         }
+        SEARCH.scan(start, prescriptions.size(), matchingPrescriptions.size());
+        Profiling.search(span, "Prescription", prescriptions.size(), matchingPrescriptions.size(), SEARCH_CRITERIA, patientFirstName, patientLastName, doctorFirstName, doctorLastName, fromDateStr, toDateStr);
         return matchingPrescriptions;
     }
 }
@@ -14,6 +14,8 @@ import javax.ws.rs.BadRequestException;
 import javax.ws.rs.ForbiddenException;
 import javax.ws.rs.NotAllowedException;
 import javax.ws.rs.NotFoundException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.ext.ExceptionMapper;
 import javax.ws.rs.ext.Provider;
@@ -32,6 +34,7 @@ public class GenericExceptionMapper implements ExceptionMapper<Throwable> {
             LOGGER.error("Method not allowed: " + exception.getMessage());
             return Response.status(Response.Status.METHOD_NOT_ALLOWED)
                     .entity("This action is not allowed. Error: " + exception.getMessage())
+                    .type(MediaType.TEXT_PLAIN)
                     .build();
         } 
         // Handling NotFoundException
@@ -39,6 +42,7 @@ public class GenericExceptionMapper implements ExceptionMapper<Throwable> {
             LOGGER.error("Resource not found: " + exception.getMessage());
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("Sorry, the requested resource was not found. Error: " + exception.getMessage())
+                    .type(MediaType.TEXT_PLAIN)
                     .build();
         } 
         // Handling ForbiddenException
@@ -46,6 +50,7 @@ public class GenericExceptionMapper implements ExceptionMapper<Throwable> {
             LOGGER.error("Access forbidden: " + exception.getMessage());
             return Response.status(Response.Status.FORBIDDEN)
                     .entity("Sorry, you don't have permission to access this resource. Error: " + exception.getMessage())
+                    .type(MediaType.TEXT_PLAIN)
                     .build();
         } 
         // Handling BadRequestException
@@ -53,6 +58,7 @@ public class GenericExceptionMapper implements ExceptionMapper<Throwable> {
             LOGGER.error("Bad request: " + exception.getMessage());
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity("There was an error in your request. Error: " + exception.getMessage())
+                    .type(MediaType.TEXT_PLAIN)
                     .build();
         } 
         // Handling NullPointerException
@@ -60,6 +66,16 @@ public class GenericExceptionMapper implements ExceptionMapper<Throwable> {
             LOGGER.error("Null pointer exception: " + exception.getMessage());
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Error when processing your request. The request body is empty or contains invalid data. Please provide valid data and try again.")
+                    .type(MediaType.TEXT_PLAIN)
+                    .build();
+        }
+        // Handling the other client and server errors raised by the JAX-RS runtime, such as an unsupported Content-Encoding
+        else if (exception instanceof WebApplicationException) {
+            int status = ((WebApplicationException) exception).getResponse().getStatus();
+            LOGGER.error("Request failed with status " + status + ": " + exception.getMessage());
+            return Response.status(status)
+                    .entity("Sorry, the request could not be processed. Error: " + exception.getMessage())
+                    .type(MediaType.TEXT_PLAIN)
                     .build();
         }
         
@@ -67,6 +83,7 @@ public class GenericExceptionMapper implements ExceptionMapper<Throwable> {
         LOGGER.error("An unexpected error occurred: " + exception.getMessage()  + " Exception: " + exception.toString());
         return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                 .entity("Sorry, an unexpected error occurred. Error: " + exception.getMessage())
+                .type(MediaType.TEXT_PLAIN)
                 .build();
 
     }
@@ -0,0 +1,35 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.exception;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ExceptionMapper;
+import javax.ws.rs.ext.Provider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exception mapper for handling PreconditionFailedException.
+ * This class maps the PreconditionFailedException to a 412 (Precondition Failed) HTTP status code and returns the exception message as the response entity.
+ *
+ * @author Amandha
+ */
+@Provider
+public class PreconditionFailedExceptionMapper implements ExceptionMapper<PreconditionFailedException> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PreconditionFailedExceptionMapper.class);
+    
+    @Override
+    public Response toResponse(PreconditionFailedException exception) {
+        // Log the exception
+        LOGGER.info("PreconditionFailedException caught: {}", exception.getMessage());
+        
+        // Build and return the response
+        return Response.status(Response.Status.PRECONDITION_FAILED)
+                .entity(exception.getMessage())
+                .type(MediaType.TEXT_PLAIN)
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.exception;
+
+/**
+ * Thrown when a transaction could not be committed because the records it read
+ * were changed by a concurrent request.
+ *
+ * @author Amandha
+ */
+public class TransactionConflictException extends RuntimeException {
+
+    public TransactionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.helper;
+
+import com.healthcareAPI.exception.TransactionConflictException;
+import com.healthcareAPI.model.BulkResult;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs one bulk create request: validates the submitted records in parallel,
+ * lets the resource reject the ones that refer to missing records, inserts the
+ * accepted ones in batches and reports the outcome of every record. A rejected
+ * record never stops the others.
+ * <p>
+ * The batch size is set with the healthcare.bulk.batchSize system property
+ * (500 records by default) and the largest accepted request with
+ * healthcare.bulk.maxRecords (100000 records by default).
+ *
+ * @author Amandha
+ * @param <T> The type of the records.
+ */
+public class BulkHelper<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkHelper.class);
+
+    public static final int BATCH_SIZE = Math.max(1, Integer.getInteger("healthcare.bulk.batchSize", 500));
+    public static final int MAX_RECORDS = Integer.getInteger("healthcare.bulk.maxRecords", 100000);
+
+    private static final int MULTI_STATUS = 207;
+
+    private final String name;
+    private final List<T> records;
+    private final BulkResult.Item[] results;
+    private final long start = System.nanoTime();
+
+    /**
+     * Starts a bulk request.
+     *
+     * @param name The plural name of the records, for the log messages.
+     * @param records The submitted records.
+     * @throws BadRequestException if no record was submitted.
+     * @throws WebApplicationException with status 413 if more than
+     * {@link #MAX_RECORDS} records were submitted.
+     */
+    public BulkHelper(String name, List<T> records) {
+        if (records == null || records.isEmpty()) {
+            throw new BadRequestException("The request must contain at least one record");
+        }
+        if (records.size() > MAX_RECORDS) {
+            throw new WebApplicationException("A bulk request can contain at most " + MAX_RECORDS + " records",
+                    Response.Status.REQUEST_ENTITY_TOO_LARGE);
+        }
+        this.name = name;
+        this.records = records;
+        this.results = new BulkResult.Item[records.size()];
+    }
+
+    /**
+     * Validates every record, in parallel, and rejects the invalid ones with
+     * their first constraint violation.
+     */
+    public void validate() {
+        IntStream.range(0, records.size()).parallel().forEach(index -> {
+            T record = records.get(index);
+            String validationError = record == null ? "Record cannot be null" : ValidationHelper.validateFailFast(record);
+            if (validationError != null) {
+                reject(index, Response.Status.BAD_REQUEST.getStatusCode(), validationError);
+            }
+        });
+    }
+
+    /**
+     * Runs a check on every record that is still accepted, in order, and
+     * rejects the ones it fails.
+     *
+     * @param status The status of the rejected records.
+     * @param check Returns the reason to reject a record, or null to keep it.
+     */
+    public void check(int status, Function<T, String> check) {
+        for (int index = 0; index < records.size(); index++) {
+            if (results[index] == null) {
+                String error = check.apply(records.get(index));
+                if (error != null) {
+                    reject(index, status, error);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rejects a record.
+     *
+     * @param index The position of the record in the request.
+     * @param status The HTTP status of the record.
+     * @param error The reason.
+     */
+    public void reject(int index, int status, String error) {
+        results[index] = new BulkResult.Item(index, status, null, error);
+    }
+
+    /**
+     * Inserts the accepted records, in batches of {@link #BATCH_SIZE}.
+     *
+     * @param addBatch Adds one batch under consecutive IDs and returns the ID
+     * of its first record, or -1 if the batch could not be added. The records
+     * of a batch that throws a {@link TransactionConflictException} are
+     * reported with status 409, so the client can send them again, and those
+     * of a batch that fails otherwise with status 500.
+     */
+    public void insert(Function<List<T>, Integer> addBatch) {
+        List<Integer> batchIndexes = new ArrayList<>(Math.min(BATCH_SIZE, records.size()));
+        List<T> batch = new ArrayList<>(Math.min(BATCH_SIZE, records.size()));
+        for (int index = 0; index < records.size(); index++) {
+            if (results[index] == null) {
+                batchIndexes.add(index);
+                batch.add(records.get(index));
+                if (batch.size() == BATCH_SIZE) {
+                    insertBatch(addBatch, batchIndexes, batch);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBatch(addBatch, batchIndexes, batch);
+        }
+    }
+
+    private void insertBatch(Function<List<T>, Integer> addBatch, List<Integer> batchIndexes, List<T> batch) {
+        int firstId = -1;
+        int failureStatus = Response.Status.INTERNAL_SERVER_ERROR.getStatusCode();
+        String failure = "An unexpected error occured when adding the record";
+        try {
+            firstId = addBatch.apply(new ArrayList<>(batch));
+        } catch (TransactionConflictException e) {
+            LOGGER.warn("A batch of {} {} conflicted with concurrent writes: {}", batch.size(), name, e.getMessage());
+            failureStatus = Response.Status.CONFLICT.getStatusCode();
+            failure = e.getMessage();
+        } catch (RuntimeException e) {
+            LOGGER.error("Error adding a batch of {} {}: {}", batch.size(), name, e.getMessage(), e);
+        }
+        for (int j = 0; j < batchIndexes.size(); j++) {
+            int index = batchIndexes.get(j);
+            results[index] = firstId != -1
+                    ? new BulkResult.Item(index, Response.Status.CREATED.getStatusCode(), firstId + j, null)
+                    : new BulkResult.Item(index, failureStatus, null, failure);
+        }
+        batchIndexes.clear();
+        batch.clear();
+    }
+
+    /**
+     * @return The outcome of every record, in the order they were submitted.
+     * The records that were not inserted or rejected yet have no outcome.
+     */
+    public List<BulkResult.Item> getResults() {
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Builds the response, with the outcome of every record. The status is the
+     * one shared by all records, such as 201 when all were created, or 207
+     * when their outcomes differ.
+     *
+     * @return The response.
+     */
+    public Response toResponse() {
+        long elapsedNanos = System.nanoTime() - start;
+        int created = (int) Arrays.stream(results).filter(item -> item.getId() != null).count();
+
+        BulkResult result = new BulkResult();
+        result.setReceived(records.size());
+        result.setCreated(created);
+        result.setFailed(records.size() - created);
+        result.setElapsedMillis(elapsedNanos / 1000000);
+        result.setRecordsPerSecond(records.size() / Math.max(elapsedNanos / 1e9, 1e-6));
+        result.setResults(Arrays.asList(results));
+
+        LOGGER.info("Bulk request of {} {}: {} created, {} failed in {} ms ({} records/s)", records.size(), name, created,
+                records.size() - created, result.getElapsedMillis(), Math.round(result.getRecordsPerSecond()));
+        // one status when every record had the same outcome, such as all created or all invalid
+        boolean sameStatus = Arrays.stream(results).allMatch(item -> item.getStatus() == results[0].getStatus());
+        int status = sameStatus ? results[0].getStatus() : MULTI_STATUS;
+        return Response.status(status).entity(result).build();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.helper;
+
+import com.healthcareAPI.dao.DoctorDAO;
+import com.healthcareAPI.dao.PatientDAO;
+import com.healthcareAPI.dao.PersonDAO;
+import com.healthcareAPI.model.Appointment;
+import com.healthcareAPI.model.Billing;
+import com.healthcareAPI.model.Doctor;
+import com.healthcareAPI.model.Patient;
+import com.healthcareAPI.model.Person;
+import com.healthcareAPI.storage.TransactionManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The reference checks and batch inserts of the records created in bulk, used
+ * by both the /batch endpoints of the resources and the CSV and NDJSON
+ * imports, so both accept and store the same records in the same way.
+ *
+ * @author Amandha
+ */
+public final class BulkOperations {
+
+    private static final PersonDAO PERSON_DAO = new PersonDAO();
+    private static final PatientDAO PATIENT_DAO = new PatientDAO();
+    private static final DoctorDAO DOCTOR_DAO = new DoctorDAO();
+
+    private BulkOperations() {
+    }
+
+    /**
+     * Adds a batch of patients with their person records in one transaction,
+     * under consecutive new person IDs.
+     *
+     * @param batch The patients.
+     * @return The ID of the first patient.
+     * @throws com.healthcareAPI.exception.TransactionConflictException if the
+     * transaction kept conflicting with concurrent writes.
+     */
+    public static int addPatients(List<Patient> batch) {
+        return TransactionManager.execute(transaction -> {
+            List<Person> people = new ArrayList<>(batch.size());
+            for (Patient patient : batch) {
+                people.add(new Person(0, patient.getFirstName(), patient.getLastName(), patient.getContactNo(),
+                        patient.getAddress(), patient.getGender(), patient.getAge()));
+            }
+            int firstId = PERSON_DAO.addPeople(transaction, people);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).setPersonId(firstId + i);
+            }
+            PATIENT_DAO.addPatients(transaction, batch);
+            return firstId;
+        });
+    }
+
+    /**
+     * Checks that the doctor and the patient of an appointment exist, and sets
+     * the stored records on it.
+     *
+     * @param appointment The appointment.
+     * @return The reason to reject the appointment, or null to keep it.
+     */
+    public static String checkAppointment(Appointment appointment) {
+        Patient patient = PATIENT_DAO.getPatientById(appointment.getPatient().getPersonId());
+        Doctor doctor = DOCTOR_DAO.getDoctorById(appointment.getDoctor().getPersonId());
+        if (doctor == null) {
+            return "Doctor does not exist";
+        } else if (patient == null) {
+            return "Patient does not exist";
+        }
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        return null;
+    }
+
+    /**
+     * Checks that the patient of a bill exists, and sets the stored record on
+     * it.
+     *
+     * @param bill The bill.
+     * @return The reason to reject the bill, or null to keep it.
+     */
+    public static String checkBill(Billing bill) {
+        Patient patient = PATIENT_DAO.getPatientById(bill.getPatient().getPersonId());
+        if (patient == null) {
+            return "Patient does not exist";
+        }
+        bill.setPatient(patient);
+        return null;
+    }
+}
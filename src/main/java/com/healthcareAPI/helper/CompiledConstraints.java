@@ -0,0 +1,470 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.helper;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import javax.validation.Constraint;
+import javax.validation.Valid;
+import javax.validation.constraints.Digits;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compiles the field constraints of a model class into plain checks, which
+ * are run without going through the Bean Validation engine. Supported are
+ * {@link NotNull}, {@link NotEmpty}, {@link Pattern} and {@link Digits} with
+ * literal messages and the default group. Simple patterns such as
+ * {@code [a-zA-Z]+} or {@code \d{2}-\d{2}-\d{4}} become character checks, the
+ * others are matched with a precompiled {@link java.util.regex.Pattern}.
+ *
+ * A class using anything else, like other constraints, cascaded validation or
+ * constraints on getters, is not compiled and {@link #forClass} returns null
+ * for it, so the caller falls back to the Bean Validation engine.
+ *
+ * @author Amandha
+ */
+final class CompiledConstraints {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompiledConstraints.class);
+
+    private static final ClassValue<CompiledConstraints> COMPILED = new ClassValue<CompiledConstraints>() {
+        @Override
+        protected CompiledConstraints computeValue(Class<?> type) {
+            return compile(type);
+        }
+    };
+
+    private final FieldCheck[] checks;
+
+    private CompiledConstraints(FieldCheck[] checks) {
+        this.checks = checks;
+    }
+
+    /**
+     * Returns the compiled constraints of a class.
+     *
+     * @param type The class.
+     * @return The compiled constraints, or null if the class uses constraints
+     * that can not be compiled.
+     */
+    static CompiledConstraints forClass(Class<?> type) {
+        return COMPILED.get(type);
+    }
+
+    /**
+     * Validates an object in the format of {@link ValidationHelper}.
+     *
+     * @param object The object to validate.
+     * @param failFast Whether to stop at the first violation.
+     * @return The violations, one per line, or null if the object is valid.
+     */
+    String validate(Object object, boolean failFast) {
+        StringBuilder errorMessage = null;
+        for (FieldCheck check : checks) {
+            Object value = check.get(object);
+            for (Check constraint : check.constraints) {
+                if (!constraint.test(value)) {
+                    if (errorMessage == null) {
+                        errorMessage = new StringBuilder();
+                    } else {
+                        errorMessage.append('\n');
+                    }
+                    errorMessage.append(check.name).append(": ").append(constraint.message);
+                    if (failFast) {
+                        return errorMessage.toString();
+                    }
+                }
+            }
+        }
+        return errorMessage == null ? null : errorMessage.toString();
+    }
+
+    private static CompiledConstraints compile(Class<?> type) {
+        if (hasConstraints(type)) {
+            return unsupported(type, "class level constraints");
+        }
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<FieldCheck> fieldChecks = new ArrayList<>();
+        for (Class<?> currentClass = type; currentClass != null && currentClass != Object.class; currentClass = currentClass.getSuperclass()) {
+            for (Method method : currentClass.getDeclaredMethods()) {
+                if (hasConstraints(method)) {
+                    return unsupported(type, "constraints on method " + method.getName());
+                }
+            }
+            for (Field field : currentClass.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                List<Check> constraints = new ArrayList<>();
+                for (Annotation annotation : field.getAnnotations()) {
+                    if (annotation instanceof Valid) {
+                        return unsupported(type, "cascaded validation of " + field.getName());
+                    }
+                    if (!isValidationAnnotation(annotation)) {
+                        continue;
+                    }
+                    Check check = compile(annotation);
+                    if (check == null) {
+                        return unsupported(type, annotation.annotationType().getSimpleName() + " on " + field.getName());
+                    }
+                    constraints.add(check);
+                }
+                if (!constraints.isEmpty()) {
+                    field.setAccessible(true);
+                    try {
+                        MethodHandle getter = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+                        fieldChecks.add(new FieldCheck(field.getName(), getter, constraints.toArray(new Check[0])));
+                    } catch (IllegalAccessException e) {
+                        return unsupported(type, "inaccessible field " + field.getName());
+                    }
+                }
+            }
+        }
+        LOGGER.debug("Compiled {} constrained fields of {}", fieldChecks.size(), type.getName());
+        return new CompiledConstraints(fieldChecks.toArray(new FieldCheck[0]));
+    }
+
+    private static Check compile(Annotation annotation) {
+        if (annotation instanceof NotNull) {
+            NotNull notNull = (NotNull) annotation;
+            return isPlain(notNull.message(), notNull.groups()) ? new Check(notNull.message(), value -> value != null) : null;
+        }
+        if (annotation instanceof NotEmpty) {
+            NotEmpty notEmpty = (NotEmpty) annotation;
+            return isPlain(notEmpty.message(), notEmpty.groups()) ? new Check(notEmpty.message(), CompiledConstraints::isNotEmpty) : null;
+        }
+        if (annotation instanceof Pattern) {
+            Pattern pattern = (Pattern) annotation;
+            if (!isPlain(pattern.message(), pattern.groups()) || pattern.flags().length > 0) {
+                return null;
+            }
+            CharSequenceMatcher matcher = SimplePattern.compile(pattern.regexp());
+            if (matcher == null) {
+                java.util.regex.Pattern regex = java.util.regex.Pattern.compile(pattern.regexp());
+                matcher = value -> regex.matcher(value).matches();
+            }
+            CharSequenceMatcher compiled = matcher;
+            return new Check(pattern.message(), value -> value == null || compiled.matches((CharSequence) value));
+        }
+        if (annotation instanceof Digits) {
+            Digits digits = (Digits) annotation;
+            if (!isPlain(digits.message(), digits.groups())) {
+                return null;
+            }
+            int maxInteger = digits.integer();
+            int maxFraction = digits.fraction();
+            return new Check(digits.message(), value -> value == null || hasDigits(value, maxInteger, maxFraction));
+        }
+        return null;
+    }
+
+    private static boolean isValidationAnnotation(Annotation annotation) {
+        Class<? extends Annotation> annotationType = annotation.annotationType();
+        return annotationType.isAnnotationPresent(Constraint.class) || annotationType.getName().startsWith("javax.validation.");
+    }
+
+    private static boolean hasConstraints(AnnotatedElement element) {
+        for (Annotation annotation : element.getAnnotations()) {
+            if (isValidationAnnotation(annotation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPlain(String message, Class<?>[] groups) {
+        // messages with {...} or ${...} need the message interpolation of the engine
+        return groups.length == 0 && message.indexOf('{') < 0;
+    }
+
+    private static CompiledConstraints unsupported(Class<?> type, String reason) {
+        LOGGER.info("The constraints of {} are validated by the Bean Validation engine: {}", type.getName(), reason);
+        return null;
+    }
+
+    private static boolean isNotEmpty(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length() > 0;
+        }
+        if (value instanceof Collection) {
+            return !((Collection<?>) value).isEmpty();
+        }
+        if (value instanceof Map) {
+            return !((Map<?, ?>) value).isEmpty();
+        }
+        if (value.getClass().isArray()) {
+            return Array.getLength(value) > 0;
+        }
+        return true;
+    }
+
+    private static boolean hasDigits(Object value, int maxInteger, int maxFraction) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            long number = ((Number) value).longValue();
+            int integerDigits = 1;
+            // count towards zero, so Long.MIN_VALUE does not overflow
+            for (long rest = number / 10; rest != 0; rest /= 10) {
+                integerDigits++;
+            }
+            return integerDigits <= maxInteger;
+        }
+        BigDecimal decimal;
+        if (value instanceof BigDecimal) {
+            decimal = (BigDecimal) value;
+        } else if (value instanceof BigInteger) {
+            decimal = new BigDecimal((BigInteger) value);
+        } else if (value instanceof Number || value instanceof CharSequence) {
+            try {
+                decimal = new BigDecimal(value.toString());
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        } else {
+            return false;
+        }
+        decimal = decimal.stripTrailingZeros();
+        int integerDigits = decimal.precision() - decimal.scale();
+        int fractionDigits = Math.max(decimal.scale(), 0);
+        return integerDigits <= maxInteger && fractionDigits <= maxFraction;
+    }
+
+    /**
+     * Tests a string against a compiled pattern.
+     */
+    interface CharSequenceMatcher {
+
+        boolean matches(CharSequence value);
+    }
+
+    /**
+     * One constraint of a field.
+     */
+    private static final class Check {
+
+        final String message;
+        final Predicate<Object> predicate;
+
+        Check(String message, Predicate<Object> predicate) {
+            this.message = message;
+            this.predicate = predicate;
+        }
+
+        boolean test(Object value) {
+            return predicate.test(value);
+        }
+    }
+
+    /**
+     * The constraints of one field with the handle reading it.
+     */
+    private static final class FieldCheck {
+
+        final String name;
+        final MethodHandle getter;
+        final Check[] constraints;
+
+        FieldCheck(String name, MethodHandle getter, Check[] constraints) {
+            this.name = name;
+            this.getter = getter;
+            this.constraints = constraints;
+        }
+
+        Object get(Object target) {
+            try {
+                return (Object) getter.invokeExact(target);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException("Could not read field " + name, t);
+            }
+        }
+    }
+
+    /**
+     * Hand-rolled matcher for patterns made of a sequence of character classes
+     * with fixed repeat counts, where only the last one may repeat any number
+     * of times, such as {@code \d{2}:\d{2}:\d{2}} or {@code [a-zA-Z]+}. The
+     * classes are limited to ASCII, which keeps every check a table lookup.
+     */
+    static final class SimplePattern implements CharSequenceMatcher {
+
+        private final boolean[][] classes;
+        private final int[] minCounts;
+        private final int[] maxCounts; // Integer.MAX_VALUE for an unbounded repeat
+        private final int minLength;
+
+        private SimplePattern(boolean[][] classes, int[] minCounts, int[] maxCounts) {
+            this.classes = classes;
+            this.minCounts = minCounts;
+            this.maxCounts = maxCounts;
+            int length = 0;
+            for (int minCount : minCounts) {
+                length += minCount;
+            }
+            this.minLength = length;
+        }
+
+        /**
+         * Compiles a regular expression into a simple pattern.
+         *
+         * @param regexp The regular expression.
+         * @return The pattern, or null if the expression is not simple enough.
+         */
+        static SimplePattern compile(String regexp) {
+            String expression = regexp;
+            if (expression.startsWith("^")) {
+                expression = expression.substring(1); // the whole value is matched anyway
+            }
+            if (expression.endsWith("$") && !expression.endsWith("\\$")) {
+                expression = expression.substring(0, expression.length() - 1);
+            }
+
+            List<boolean[]> classes = new ArrayList<>();
+            List<int[]> counts = new ArrayList<>();
+            int position = 0;
+            while (position < expression.length()) {
+                boolean[] characterClass = new boolean[128];
+                char c = expression.charAt(position);
+                if (c == '\\') {
+                    if (position + 1 >= expression.length()) {
+                        return null;
+                    }
+                    char escaped = expression.charAt(position + 1);
+                    if (escaped == 'd') {
+                        fill(characterClass, '0', '9');
+                    } else if (!Character.isLetterOrDigit(escaped) && escaped < 128) {
+                        characterClass[escaped] = true; // escaped punctuation stands for itself
+                    } else {
+                        return null;
+                    }
+                    position += 2;
+                } else if (c == '[') {
+                    int end = expression.indexOf(']', position + 1);
+                    if (end < 0 || !parseClass(expression.substring(position + 1, end), characterClass)) {
+                        return null;
+                    }
+                    position = end + 1;
+                } else if ("()|.*+?{}^$".indexOf(c) >= 0 || c >= 128) {
+                    return null;
+                } else {
+                    characterClass[c] = true;
+                    position++;
+                }
+
+                int[] count = {1, 1};
+                if (position < expression.length()) {
+                    char quantifier = expression.charAt(position);
+                    if (quantifier == '+') {
+                        count = new int[]{1, Integer.MAX_VALUE};
+                        position++;
+                    } else if (quantifier == '{') {
+                        int end = expression.indexOf('}', position);
+                        if (end < 0) {
+                            return null;
+                        }
+                        try {
+                            int repeat = Integer.parseInt(expression.substring(position + 1, end));
+                            count = new int[]{repeat, repeat};
+                        } catch (NumberFormatException e) {
+                            return null; // ranges such as {2,4} are left to the regex engine
+                        }
+                        position = end + 1;
+                    } else if (quantifier == '*' || quantifier == '?') {
+                        return null;
+                    }
+                }
+                if (!counts.isEmpty() && counts.get(counts.size() - 1)[1] == Integer.MAX_VALUE) {
+                    return null; // an unbounded repeat is only supported at the end, there is no backtracking
+                }
+                classes.add(characterClass);
+                counts.add(count);
+            }
+            if (classes.isEmpty()) {
+                return null;
+            }
+
+            int[] minCounts = new int[counts.size()];
+            int[] maxCounts = new int[counts.size()];
+            for (int i = 0; i < counts.size(); i++) {
+                minCounts[i] = counts.get(i)[0];
+                maxCounts[i] = counts.get(i)[1];
+            }
+            return new SimplePattern(classes.toArray(new boolean[0][]), minCounts, maxCounts);
+        }
+
+        private static boolean parseClass(String body, boolean[] characterClass) {
+            if (body.isEmpty() || body.charAt(0) == '^') {
+                return false;
+            }
+            for (int i = 0; i < body.length(); i++) {
+                char c = body.charAt(i);
+                if (c == '\\' || c == '[' || c == '&' || c >= 128) {
+                    return false;
+                }
+                if (i + 2 < body.length() && body.charAt(i + 1) == '-') {
+                    char to = body.charAt(i + 2);
+                    if (to < c || to >= 128) {
+                        return false;
+                    }
+                    fill(characterClass, c, to);
+                    i += 2;
+                } else {
+                    characterClass[c] = true;
+                }
+            }
+            return true;
+        }
+
+        private static void fill(boolean[] characterClass, char from, char to) {
+            for (char c = from; c <= to; c++) {
+                characterClass[c] = true;
+            }
+        }
+
+        @Override
+        public boolean matches(CharSequence value) {
+            int length = value.length();
+            if (length < minLength) {
+                return false;
+            }
+            int position = 0;
+            for (int atom = 0; atom < classes.length; atom++) {
+                boolean[] characterClass = classes[atom];
+                int count = maxCounts[atom] == Integer.MAX_VALUE ? length - position : minCounts[atom];
+                if (count < minCounts[atom] || position + count > length) {
+                    return false;
+                }
+                for (int end = position + count; position < end; position++) {
+                    char c = value.charAt(position);
+                    if (c >= 128 || !characterClass[c]) {
+                        return false;
+                    }
+                }
+            }
+            return position == length;
+        }
+    }
+}
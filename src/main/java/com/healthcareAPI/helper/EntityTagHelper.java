@@ -0,0 +1,101 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.helper;
+
+import com.healthcareAPI.compression.CompressionInterceptor;
+import com.healthcareAPI.compression.ContentCoding;
+import com.healthcareAPI.exception.PreconditionFailedException;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+
+/**
+ * Builds the strong entity tags of the records from their storage versions
+ * and evaluates the conditional headers against them.
+ *
+ * The versions start over whenever the application starts, so the tags carry
+ * the start time as well, which keeps a tag from an earlier run from matching
+ * a different record state.
+ * <p>
+ * A record version is sent in several representations: JSON, CBOR or Smile,
+ * each either plain or compressed. A strong tag must differ per
+ * representation, so the tags sent to the clients end with the media type and
+ * the content coding, see {@link #representationTag}. The writes only compare
+ * the record version, see {@link #versionTag}.
+ *
+ * @author Amandha
+ */
+public final class EntityTagHelper {
+
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    private EntityTagHelper() {
+    }
+
+    /**
+     * Returns the entity tag of a record version.
+     *
+     * @param version The version of the record.
+     * @return The strong entity tag.
+     */
+    public static EntityTag entityTag(long version) {
+        return new EntityTag(EPOCH + "-" + Long.toString(version, 36));
+    }
+
+    /**
+     * Returns the entity tag of one representation of a record version.
+     *
+     * @param tag The entity tag of the record version, with or without a
+     * representation.
+     * @param mediaType The media type of the body.
+     * @param acceptEncoding The Accept-Encoding header of the request, which
+     * picks the content coding, or null.
+     * @return The strong entity tag of the representation.
+     */
+    public static EntityTag representationTag(EntityTag tag, MediaType mediaType, String acceptEncoding) {
+        ContentCoding coding = CompressionInterceptor.ENABLED ? ContentCoding.negotiate(acceptEncoding) : null;
+        // the coding is the negotiated one, a body too small to compress keeps it and stays distinct from a plain request
+        return new EntityTag(versionTag(tag).getValue() + "-" + format(mediaType) + "-" + (coding != null ? coding.getToken() : "identity"));
+    }
+
+    /**
+     * Returns the entity tag of the record version a tag was built from.
+     *
+     * @param tag An entity tag, with or without a representation.
+     * @return The entity tag of the record version, or the tag itself if it
+     * was not built here.
+     */
+    public static EntityTag versionTag(EntityTag tag) {
+        String value = tag.getValue();
+        int start = value.indexOf('-');
+        int end = start < 0 ? -1 : value.indexOf('-', start + 1);
+        return end < 0 ? tag : new EntityTag(value.substring(0, end), tag.isWeak());
+    }
+
+    /**
+     * Evaluates the If-Match and If-None-Match headers of a write against the
+     * current version of the record. The tags of the headers are reduced to
+     * their record version by the EntityTagFilter first.
+     *
+     * @param request The request.
+     * @param version The current version of the record.
+     * @throws PreconditionFailedException if the preconditions are not met.
+     */
+    public static void checkPreconditions(Request request, long version) {
+        if (request.evaluatePreconditions(entityTag(version)) != null) {
+            throw new PreconditionFailedException("The record was modified, its current entity tag is " + entityTag(version));
+        }
+    }
+
+    // the last part of the subtype, such as json, cbor or smile
+    private static String format(MediaType mediaType) {
+        if (mediaType == null) {
+            return "none";
+        }
+        String subtype = mediaType.getSubtype();
+        int separator = Math.max(subtype.lastIndexOf('-'), subtype.lastIndexOf('+'));
+        return subtype.substring(separator + 1);
+    }
+}
@@ -4,6 +4,7 @@
  */
 package com.healthcareAPI.helper;
 
+import com.healthcareAPI.storage.IntMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -36,6 +37,14 @@ public class Helper<T> {
         return maxId + 1;
     }
     
+    // Return the next ID of the passed IntMap without boxing the keys
+    public int getNextId(IntMap<?> map) {
+        if (map.isEmpty()) {
+            return 1;
+        }
+        return map.maxKey() + 1;
+    }
+
     // Return the next ID of the passed Map
     public <K> int getNextId(Map<K, ?> map) {
         if(map.isEmpty()) {
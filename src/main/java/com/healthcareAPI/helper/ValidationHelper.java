@@ -4,23 +4,106 @@
  */
 package com.healthcareAPI.helper;
 
+import com.healthcareAPI.model.Appointment;
+import com.healthcareAPI.model.Billing;
+import com.healthcareAPI.model.Doctor;
+import com.healthcareAPI.model.MedicalRecord;
+import com.healthcareAPI.model.Patient;
+import com.healthcareAPI.model.Person;
+import com.healthcareAPI.model.Prescription;
 import java.util.Set;
 import javax.validation.ConstraintViolation;
 import javax.validation.Validation;
 import javax.validation.Validator;
-import javax.validation.ValidatorFactory;
+import org.hibernate.validator.HibernateValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
+ * Validates the model objects against their Bean Validation constraints. The
+ * constraints of the models are compiled into plain checks where possible,
+ * see {@link CompiledConstraints}. The other classes go through the Bean
+ * Validation engine, whose validators are bootstrapped once and shared by all
+ * requests.
  *
  * @author Amandha
  */
 public class ValidationHelper {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ValidationHelper.class);
+
+    /**
+     * The model classes validated by the resources.
+     */
+    public static final Class<?>[] MODEL_CLASSES = {
+        Person.class, Patient.class, Doctor.class, Appointment.class, Billing.class, MedicalRecord.class, Prescription.class
+    };
+
+    /**
+     * Validates an object and reports all constraint violations.
+     *
+     * @param <T> The type of the object.
+     * @param object The object to validate.
+     * @return The violations, one per line, or null if the object is valid.
+     */
     public static <T> String validate(T object) {
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        Validator validator = factory.getValidator();
-        Set<ConstraintViolation<T>> violations = validator.validate(object);
+        CompiledConstraints compiled = CompiledConstraints.forClass(object.getClass());
+        if (compiled != null) {
+            return compiled.validate(object, false);
+        }
+        return validateWithBeanValidation(object);
+    }
+
+    /**
+     * Validates an object, stopping at the first constraint violation. Meant
+     * for bulk writes, where a rejected record only needs one reason.
+     *
+     * @param <T> The type of the object.
+     * @param object The object to validate.
+     * @return The first violation, or null if the object is valid.
+     */
+    public static <T> String validateFailFast(T object) {
+        CompiledConstraints compiled = CompiledConstraints.forClass(object.getClass());
+        if (compiled != null) {
+            return compiled.validate(object, true);
+        }
+        return format(Validators.FAIL_FAST_VALIDATOR.validate(object));
+    }
+
+    /**
+     * Validates an object with the Bean Validation engine, bypassing the
+     * compiled constraints. Used for the classes whose constraints can not be
+     * compiled.
+     *
+     * @param <T> The type of the object.
+     * @param object The object to validate.
+     * @return The violations, one per line, or null if the object is valid.
+     */
+    public static <T> String validateWithBeanValidation(T object) {
+        return format(Validators.VALIDATOR.validate(object));
+    }
+
+    /**
+     * Bootstraps the validators and builds the constraint metadata of the
+     * model classes, so the first requests do not pay for it.
+     */
+    public static void warmUp() {
+        long start = System.nanoTime();
+        for (Class<?> modelClass : MODEL_CLASSES) {
+            Validators.VALIDATOR.getConstraintsForClass(modelClass);
+            Validators.FAIL_FAST_VALIDATOR.getConstraintsForClass(modelClass);
+            CompiledConstraints.forClass(modelClass);
+            try {
+                // an empty model violates its constraints, which also initializes the message interpolation
+                validateWithBeanValidation(modelClass.getDeclaredConstructor().newInstance());
+            } catch (ReflectiveOperationException e) {
+                LOGGER.warn("Could not create an empty {} to warm up the validation", modelClass.getSimpleName());
+            }
+        }
+        LOGGER.info("Validation metadata of {} model classes was built in {} ms", MODEL_CLASSES.length, (System.nanoTime() - start) / 1_000_000);
+    }
 
+    private static <T> String format(Set<ConstraintViolation<T>> violations) {
         if (!violations.isEmpty()) {
             StringBuilder errorMessage = new StringBuilder();
             for (ConstraintViolation<T> violation : violations) {
@@ -31,4 +114,17 @@ public class ValidationHelper {
 
         return null;
     }
+
+    /**
+     * Holder of the shared validators, bootstrapped on first use.
+     */
+    private static final class Validators {
+
+        static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+        static final Validator FAIL_FAST_VALIDATOR = Validation.byProvider(HibernateValidator.class)
+                .configure()
+                .failFast(true)
+                .buildValidatorFactory()
+                .getValidator();
+    }
 }
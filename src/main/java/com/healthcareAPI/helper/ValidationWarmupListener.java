@@ -0,0 +1,27 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.helper;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+
+/**
+ * Warms up the validation when the application is deployed, so the first write
+ * requests do not bootstrap the validator.
+ *
+ * @author Amandha
+ */
+public class ValidationWarmupListener implements ServletContextListener {
+
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        ValidationHelper.warmUp();
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+
+    }
+}
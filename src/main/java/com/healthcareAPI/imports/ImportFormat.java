@@ -0,0 +1,48 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.imports;
+
+/**
+ * The file formats of an import. Both hold one record per line: CSV files
+ * start with a header line naming the columns, and NDJSON files hold one JSON
+ * object per line.
+ *
+ * @author Amandha
+ */
+public enum ImportFormat {
+
+    CSV, NDJSON;
+
+    /**
+     * Finds a format by its name.
+     *
+     * @param name The name, such as csv.
+     * @return The format, or null if there is no format with that name.
+     */
+    public static ImportFormat forName(String name) {
+        for (ImportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Guesses the format of a file from its extension.
+     *
+     * @param fileName The name of the file.
+     * @return The format, or null if the extension is not known.
+     */
+    public static ImportFormat forFile(String fileName) {
+        String name = fileName.toLowerCase();
+        if (name.endsWith(".csv")) {
+            return CSV;
+        } else if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.imports;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The status of one import: its progress, the rows it rejected and its
+ * throughput. The counters are only updated by the thread running the import
+ * and read by the requests asking for the status.
+ *
+ * @author Amandha
+ */
+public class ImportJob {
+
+    /**
+     * The stages of an import.
+     */
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    /**
+     * A rejected row of the file.
+     */
+    public static class ErrorRow {
+
+        private final long line;
+        private final String error;
+
+        public ErrorRow(long line, String error) {
+            this.line = line;
+            this.error = error;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    private final int id;
+    private final ImportType type;
+    private final ImportFormat format;
+    private final String file;
+    private final long totalBytes;
+    private final int maxErrorRows;
+    private final List<ErrorRow> errorRows = new ArrayList<>();
+    private final long queuedAt = System.currentTimeMillis();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile String message;
+    private volatile boolean cancelRequested;
+    private volatile long startNanos;
+    private volatile long elapsedNanos;
+    private volatile long bytesProcessed;
+    private volatile long created;
+    private volatile long failed;
+
+    ImportJob(int id, ImportType type, ImportFormat format, String file, long totalBytes, int maxErrorRows) {
+        this.id = id;
+        this.type = type;
+        this.format = format;
+        this.file = file;
+        this.totalBytes = totalBytes;
+        this.maxErrorRows = maxErrorRows;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type.getName();
+    }
+
+    public String getFormat() {
+        return format.name().toLowerCase();
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return Why the import failed, or null.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    public long getQueuedAt() {
+        return queuedAt;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getBytesProcessed() {
+        return bytesProcessed;
+    }
+
+    public double getPercentComplete() {
+        return totalBytes == 0 ? (status == Status.COMPLETED ? 100 : 0) : 100.0 * bytesProcessed / totalBytes;
+    }
+
+    public long getRecordsProcessed() {
+        return created + failed;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getElapsedMillis() {
+        return elapsed() / 1000000;
+    }
+
+    public double getRecordsPerSecond() {
+        long elapsed = elapsed();
+        return elapsed == 0 ? 0 : getRecordsProcessed() / (elapsed / 1e9);
+    }
+
+    public double getMegabytesPerSecond() {
+        long elapsed = elapsed();
+        return elapsed == 0 ? 0 : bytesProcessed / 1048576.0 / (elapsed / 1e9);
+    }
+
+    /**
+     * @return The first rejected rows, at most healthcare.import.maxErrorRows
+     * of them.
+     */
+    public List<ErrorRow> getErrorRows() {
+        synchronized (errorRows) {
+            return new ArrayList<>(errorRows);
+        }
+    }
+
+    /**
+     * @return The number of rejected rows left out of {@link #getErrorRows()}.
+     */
+    public long getErrorRowsOmitted() {
+        synchronized (errorRows) {
+            return failed - errorRows.size();
+        }
+    }
+
+    ImportType importType() {
+        return type;
+    }
+
+    ImportFormat importFormat() {
+        return format;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    synchronized void cancel() {
+        cancelRequested = true;
+        if (status == Status.QUEUED) {
+            status = Status.CANCELLED; // the runner skips it
+        }
+    }
+
+    /**
+     * Moves a queued import to running, unless it was cancelled while queued.
+     *
+     * @return True if the import should run.
+     */
+    synchronized boolean start() {
+        if (cancelRequested) {
+            status = Status.CANCELLED;
+            return false;
+        }
+        startNanos = System.nanoTime();
+        status = Status.RUNNING;
+        return true;
+    }
+
+    void created(long count) {
+        created += count;
+    }
+
+    void failed(long line, String error) {
+        synchronized (errorRows) {
+            if (errorRows.size() < maxErrorRows) {
+                errorRows.add(new ErrorRow(line, error));
+            }
+            failed++;
+        }
+    }
+
+    void processed(long bytes) {
+        bytesProcessed = bytes;
+    }
+
+    void finish(Status finalStatus, String finalMessage) {
+        elapsedNanos = System.nanoTime() - startNanos;
+        message = finalMessage;
+        status = finalStatus;
+    }
+
+    private long elapsed() {
+        switch (status) {
+            case QUEUED:
+                return 0;
+            case RUNNING:
+                return System.nanoTime() - startNanos;
+            default:
+                return elapsedNanos;
+        }
+    }
+}
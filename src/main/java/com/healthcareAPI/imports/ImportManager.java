@@ -0,0 +1,153 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcareAPI.serialization.ObjectMappers;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.ws.rs.BadRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Starts the imports and keeps their status. The imports run one at a time on
+ * a background thread, in the order they were requested, and parse on a
+ * fork-join pool of their own so a large file does not take the common pool
+ * from the requests.
+ * <p>
+ * The files are read from the directory set with the healthcare.import.dir
+ * system property (healthcare-imports under the temporary directory by
+ * default), and nothing outside of it. The pipeline is tuned with:
+ * <ul>
+ * <li>healthcare.import.chunkSize: the bytes read at a time, 4 MB by
+ * default,</li>
+ * <li>healthcare.import.parallelism: the parsing threads, the number of
+ * processors by default,</li>
+ * <li>healthcare.import.maxChunksInFlight: the chunks read but not ingested
+ * yet, twice the parallelism by default,</li>
+ * <li>healthcare.import.maxErrorRows: the rejected rows kept per import, 1000
+ * by default,</li>
+ * <li>healthcare.import.retainedJobs: the finished imports kept for their
+ * status, 100 by default.</li>
+ * </ul>
+ *
+ * @author Amandha
+ */
+public final class ImportManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportManager.class);
+
+    private static final Path DIRECTORY = Paths.get(System.getProperty("healthcare.import.dir",
+            Paths.get(System.getProperty("java.io.tmpdir"), "healthcare-imports").toString())).toAbsolutePath().normalize();
+    private static final int CHUNK_SIZE = Math.max(4096, Integer.getInteger("healthcare.import.chunkSize", 4 * 1024 * 1024));
+    private static final int PARALLELISM = Math.max(1, Integer.getInteger("healthcare.import.parallelism", Runtime.getRuntime().availableProcessors()));
+    private static final int MAX_CHUNKS_IN_FLIGHT = Math.max(1, Integer.getInteger("healthcare.import.maxChunksInFlight", 2 * PARALLELISM));
+    private static final int MAX_ERROR_ROWS = Integer.getInteger("healthcare.import.maxErrorRows", 1000);
+    private static final int RETAINED_JOBS = Integer.getInteger("healthcare.import.retainedJobs", 100);
+
+    private static final ObjectMapper MAPPER = ObjectMappers.newJsonMapper();
+    private static final ForkJoinPool PARSERS = new ForkJoinPool(PARALLELISM);
+    private static final ExecutorService RUNNER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "import-runner");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(1);
+    private static final ConcurrentNavigableMap<Integer, ImportJob> JOBS = new ConcurrentSkipListMap<>();
+
+    private ImportManager() {
+    }
+
+    /**
+     * Queues an import.
+     *
+     * @param type The type of the records.
+     * @param format The format of the file, or null to tell it from the
+     * extension of the file.
+     * @param fileName The name of the file, relative to the import directory.
+     * @return The status of the queued import.
+     * @throws BadRequestException if the file is outside of the import
+     * directory, does not exist, or its format is not known.
+     */
+    public static ImportJob start(ImportType type, ImportFormat format, String fileName) {
+        Path file = DIRECTORY.resolve(fileName).toAbsolutePath().normalize();
+        if (!file.startsWith(DIRECTORY) || file.equals(DIRECTORY)) {
+            throw new BadRequestException("The file must be in the import directory");
+        }
+        if (!Files.isRegularFile(file) || !Files.isReadable(file)) {
+            throw new BadRequestException("The file " + fileName + " does not exist in the import directory");
+        }
+        ImportFormat fileFormat = format != null ? format : ImportFormat.forFile(fileName);
+        if (fileFormat == null) {
+            throw new BadRequestException("The format of " + fileName + " is not known. Use the format parameter with csv or ndjson");
+        }
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (IOException e) {
+            throw new BadRequestException("The file " + fileName + " can not be read: " + e.getMessage(), e);
+        }
+
+        ImportJob job = new ImportJob(NEXT_ID.getAndIncrement(), type, fileFormat, DIRECTORY.relativize(file).toString(), size, MAX_ERROR_ROWS);
+        JOBS.put(job.getId(), job);
+        forgetOldJobs();
+        RUNNER.execute(new ImportPipeline(job, file, MAPPER, PARSERS, CHUNK_SIZE, MAX_CHUNKS_IN_FLIGHT));
+        LOGGER.info("Import {} of {} from {} ({} bytes) was queued", job.getId(), type.getName(), job.getFile(), size);
+        return job;
+    }
+
+    /**
+     * @param jobId The ID of an import.
+     * @return The status of the import, or null if there is no such import.
+     */
+    public static ImportJob get(int jobId) {
+        return JOBS.get(jobId);
+    }
+
+    /**
+     * @return The status of the retained imports, oldest first.
+     */
+    public static Collection<ImportJob> list() {
+        return new ArrayList<>(JOBS.values());
+    }
+
+    /**
+     * Cancels an import. A queued import never starts, and a running one stops
+     * after the chunk it is adding. The records added so far are kept.
+     *
+     * @param jobId The ID of the import.
+     * @return The status of the import, or null if there is no such import.
+     */
+    public static ImportJob cancel(int jobId) {
+        ImportJob job = JOBS.get(jobId);
+        if (job != null) {
+            job.cancel();
+        }
+        return job;
+    }
+
+    // keeps the status of the last finished imports, and of every queued or running one
+    private static void forgetOldJobs() {
+        int finished = 0;
+        for (Iterator<ImportJob> jobs = JOBS.descendingMap().values().iterator(); jobs.hasNext();) {
+            ImportJob.Status status = jobs.next().getStatus();
+            if (status != ImportJob.Status.QUEUED && status != ImportJob.Status.RUNNING && ++finished > RETAINED_JOBS) {
+                jobs.remove();
+            }
+        }
+    }
+}
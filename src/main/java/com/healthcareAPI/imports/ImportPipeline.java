@@ -0,0 +1,251 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcareAPI.helper.BulkHelper;
+import com.healthcareAPI.model.BulkResult;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import javax.ws.rs.core.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs one import in three stages:
+ * <ol>
+ * <li>a reader thread reads the file through a FileChannel in chunks of whole
+ * lines,</li>
+ * <li>the chunks are parsed and validated in parallel on the fork-join pool,
+ * see {@link RecordParser},</li>
+ * <li>the thread running the import takes the parsed chunks in file order,
+ * checks the references of the valid records and adds them in batches through
+ * the bulk ingestion of the DAOs.</li>
+ * </ol>
+ * A semaphore bounds the chunks read but not ingested yet, so the reader waits
+ * when parsing or ingestion falls behind and a large file is never held in
+ * memory.
+ *
+ * @author Amandha
+ */
+final class ImportPipeline implements Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportPipeline.class);
+
+    /**
+     * A chunk read from the file: the future of its parsed lines, and the
+     * offset of its end in the file. The last chunk of a file is followed by
+     * {@link #END}.
+     */
+    private static final class Chunk {
+
+        final CompletableFuture<List<RecordParser.ParsedRecord>> records;
+        final long endOffset;
+        final Exception failure;
+
+        Chunk(CompletableFuture<List<RecordParser.ParsedRecord>> records, long endOffset, Exception failure) {
+            this.records = records;
+            this.endOffset = endOffset;
+            this.failure = failure;
+        }
+    }
+
+    private static final Chunk END = new Chunk(null, -1, null);
+
+    private final ImportJob job;
+    private final Path file;
+    private final ObjectMapper mapper;
+    private final ForkJoinPool parsers;
+    private final int chunkSize;
+    private final Semaphore chunksInFlight;
+    private final BlockingQueue<Chunk> chunks = new LinkedBlockingQueue<>();
+
+    ImportPipeline(ImportJob job, Path file, ObjectMapper mapper, ForkJoinPool parsers, int chunkSize, int maxChunksInFlight) {
+        this.job = job;
+        this.file = file;
+        this.mapper = mapper;
+        this.parsers = parsers;
+        this.chunkSize = chunkSize;
+        this.chunksInFlight = new Semaphore(maxChunksInFlight);
+    }
+
+    @Override
+    public void run() {
+        if (!job.start()) {
+            LOGGER.info("Import {} was cancelled before it started", job.getId());
+            return;
+        }
+        LOGGER.info("Import {} of {} from {} started", job.getId(), job.getType(), job.getFile());
+        Thread reader = new Thread(this::read, "import-reader-" + job.getId());
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            for (Chunk chunk = chunks.take(); chunk != END; chunk = chunks.take()) {
+                if (chunk.failure != null) {
+                    throw chunk.failure;
+                }
+                ingest(chunk.records.join());
+                job.processed(chunk.endOffset);
+                chunksInFlight.release();
+                if (job.isCancelRequested()) {
+                    job.finish(ImportJob.Status.CANCELLED, null);
+                    LOGGER.info("Import {} was cancelled after {} records", job.getId(), job.getRecordsProcessed());
+                    return;
+                }
+            }
+            job.finish(ImportJob.Status.COMPLETED, null);
+            LOGGER.info("Import {} completed: {} created, {} failed in {} ms ({} records/s)", job.getId(), job.getCreated(),
+                    job.getFailed(), job.getElapsedMillis(), Math.round(job.getRecordsPerSecond()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(ImportJob.Status.FAILED, "The import was interrupted");
+        } catch (Exception e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            job.finish(ImportJob.Status.FAILED, cause.getMessage());
+            LOGGER.error("Import {} failed: {}", job.getId(), cause.getMessage(), cause);
+        } finally {
+            reader.interrupt(); // stops a reader waiting for a permit after a failure or a cancellation
+        }
+    }
+
+    /**
+     * Reads the file in chunks of whole lines and hands them to the parsers.
+     * Runs on its own thread.
+     */
+    private void read() {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+            RecordParser parser = job.importFormat() == ImportFormat.CSV ? null : new RecordParser(job.importType(), ImportFormat.NDJSON, mapper, null);
+            long offset = 0;
+            long line = 1;
+            boolean endOfFile = false;
+            while (!endOfFile) {
+                chunksInFlight.acquire();
+                while (buffer.hasRemaining() && !endOfFile) {
+                    endOfFile = channel.read(buffer) < 0;
+                }
+                buffer.flip();
+                int end = endOfFile ? buffer.limit() : lastLineBreak(buffer) + 1;
+                if (end == 0 && buffer.limit() > 0) {
+                    throw new IOException("Line " + line + " is longer than the chunk size of " + chunkSize + " bytes");
+                }
+                byte[] bytes = new byte[end];
+                buffer.get(bytes);
+                buffer.compact();
+                offset += end;
+
+                int start = 0;
+                if (parser == null) {
+                    // the header of the CSV file names the columns of every line
+                    start = headerLength(bytes);
+                    parser = new RecordParser(job.importType(), ImportFormat.CSV, mapper, header(bytes, start));
+                    line++;
+                }
+                byte[] lines = start == 0 ? bytes : Arrays.copyOfRange(bytes, start, bytes.length);
+                long firstLine = line;
+                line += lineBreaks(lines);
+                RecordParser chunkParser = parser;
+                chunks.put(new Chunk(CompletableFuture.supplyAsync(() -> chunkParser.parse(lines, firstLine), parsers), offset, null));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (IOException | RuntimeException e) {
+            chunks.add(new Chunk(null, -1, e));
+        }
+        chunks.add(END);
+    }
+
+    /**
+     * Checks the references of the valid records of a chunk and adds them in
+     * batches. Every rejected row is recorded with its line number.
+     */
+    private void ingest(List<RecordParser.ParsedRecord> parsed) {
+        ImportType type = job.importType();
+        List<Object> records = new ArrayList<>(BulkHelper.BATCH_SIZE);
+        List<Long> lines = new ArrayList<>(BulkHelper.BATCH_SIZE);
+        for (RecordParser.ParsedRecord record : parsed) {
+            if (record.error != null) {
+                job.failed(record.line, record.error);
+                continue;
+            }
+            records.add(record.record);
+            lines.add(record.line);
+            if (records.size() == BulkHelper.BATCH_SIZE) {
+                ingestBatch(type, records, lines);
+            }
+        }
+        if (!records.isEmpty()) {
+            ingestBatch(type, records, lines);
+        }
+    }
+
+    private void ingestBatch(ImportType type, List<Object> records, List<Long> lines) {
+        BulkHelper<Object> bulk = new BulkHelper<>(type.getName(), new ArrayList<>(records));
+        bulk.check(Response.Status.NOT_FOUND.getStatusCode(), type::check);
+        bulk.insert(type::addBatch);
+        long created = 0;
+        for (BulkResult.Item item : bulk.getResults()) {
+            if (item.getId() != null) {
+                created++;
+            } else {
+                job.failed(lines.get(item.getIndex()), item.getError());
+            }
+        }
+        job.created(created);
+        records.clear();
+        lines.clear();
+    }
+
+    private static int lastLineBreak(ByteBuffer buffer) {
+        for (int i = buffer.limit() - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int headerLength(byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return bytes.length;
+    }
+
+    private static String[] header(byte[] bytes, int length) {
+        String header = new String(bytes, 0, length, StandardCharsets.UTF_8).trim();
+        if (!header.isEmpty() && header.charAt(0) == '\uFEFF') {
+            header = header.substring(1); // byte order mark
+        }
+        List<String> columns = RecordParser.splitCsv(header);
+        return columns.toArray(new String[0]);
+    }
+
+    private static long lineBreaks(byte[] bytes) {
+        long count = 0;
+        for (byte b : bytes) {
+            if (b == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+}
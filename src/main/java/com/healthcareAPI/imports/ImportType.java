@@ -0,0 +1,130 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.imports;
+
+import com.healthcareAPI.dao.AppointmentDAO;
+import com.healthcareAPI.dao.BillingDAO;
+import com.healthcareAPI.helper.BulkOperations;
+import com.healthcareAPI.model.Appointment;
+import com.healthcareAPI.model.Billing;
+import com.healthcareAPI.model.Patient;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The kinds of records that can be imported, with the reference checks and the
+ * bulk ingestion of each. The patient batches and the reference checks are
+ * the {@link BulkOperations} shared with the /batch endpoints of the resources.
+ *
+ * @author Amandha
+ */
+public enum ImportType {
+
+    PATIENTS("patients", Patient.class) {
+        @Override
+        String check(Object record) {
+            return null; // a new patient does not refer to other records
+        }
+
+        @Override
+        int addBatch(List<Object> records) {
+            return BulkOperations.addPatients(cast(records));
+        }
+    },
+    APPOINTMENTS("appointments", Appointment.class) {
+        @Override
+        String check(Object record) {
+            return BulkOperations.checkAppointment((Appointment) record);
+        }
+
+        @Override
+        int addBatch(List<Object> records) {
+            return APPOINTMENT_DAO.addAppointments(cast(records));
+        }
+    },
+    BILLS("bills", Billing.class, "services") {
+        @Override
+        String check(Object record) {
+            return BulkOperations.checkBill((Billing) record);
+        }
+
+        @Override
+        int addBatch(List<Object> records) {
+            return BILLING_DAO.addBills(cast(records));
+        }
+    };
+
+
+    private static final AppointmentDAO APPOINTMENT_DAO = new AppointmentDAO();
+    private static final BillingDAO BILLING_DAO = new BillingDAO();
+
+    private final String name;
+    private final Class<?> recordClass;
+    private final List<String> listColumns;
+
+    ImportType(String name, Class<?> recordClass, String... listColumns) {
+        this.name = name;
+        this.recordClass = recordClass;
+        this.listColumns = Arrays.asList(listColumns);
+    }
+
+    /**
+     * Finds the type of an import by its name, as used in the paths of the
+     * resources.
+     *
+     * @param name The name, such as patients.
+     * @return The type, or null if there is no type with that name.
+     */
+    public static ImportType forName(String name) {
+        for (ImportType type : values()) {
+            if (type.name.equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    Class<?> getRecordClass() {
+        return recordClass;
+    }
+
+    /**
+     * @param column The name of a CSV column.
+     * @return True if the column holds a list, with the values separated by a
+     * vertical bar.
+     */
+    boolean isListColumn(String column) {
+        return listColumns.contains(column);
+    }
+
+    /**
+     * Checks that the records a valid record refers to exist, and sets the
+     * stored instances on it.
+     *
+     * @param record The record.
+     * @return The reason to reject the record, or null to keep it.
+     */
+    abstract String check(Object record);
+
+    /**
+     * Adds a batch of checked records under consecutive IDs.
+     *
+     * @param records The records.
+     * @return The ID of the first record, or -1 if the batch could not be
+     * added.
+     * @throws com.healthcareAPI.exception.TransactionConflictException if the
+     * batch conflicted with concurrent writes and nothing was added.
+     */
+    abstract int addBatch(List<Object> records);
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> cast(List<Object> records) {
+        return (List<T>) (List<?>) records;
+    }
+}
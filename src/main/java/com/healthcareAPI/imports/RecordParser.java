@@ -0,0 +1,203 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.healthcareAPI.helper.ValidationHelper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses and validates the lines of one chunk of an import file. A parser
+ * holds no state between chunks, so the chunks of a file are parsed in
+ * parallel.
+ * <p>
+ * A CSV line is turned into a JSON tree keyed by the header columns and bound
+ * with the shared JSON mapper, so both formats get the same conversions. A
+ * column with a dotted name, such as patient.personId, fills a nested object,
+ * and the values of a list column are separated by a vertical bar. An empty
+ * value leaves the property unset. Quoted values may contain commas and
+ * doubled quotes, but not line breaks.
+ *
+ * @author Amandha
+ */
+final class RecordParser {
+
+    /**
+     * The outcome of one line: the valid record, or the reason it was
+     * rejected.
+     */
+    static final class ParsedRecord {
+
+        final long line;
+        final Object record;
+        final String error;
+
+        ParsedRecord(long line, Object record, String error) {
+            this.line = line;
+            this.record = record;
+            this.error = error;
+        }
+    }
+
+    private final ImportType type;
+    private final ImportFormat format;
+    private final ObjectMapper mapper;
+    private final ObjectReader reader;
+    private final String[] columns;
+
+    /**
+     * Creates a parser.
+     *
+     * @param type The type of the records.
+     * @param format The format of the file.
+     * @param mapper The JSON mapper.
+     * @param columns The columns of the CSV header, or null for NDJSON.
+     */
+    RecordParser(ImportType type, ImportFormat format, ObjectMapper mapper, String[] columns) {
+        this.type = type;
+        this.format = format;
+        this.mapper = mapper;
+        this.reader = mapper.readerFor(type.getRecordClass());
+        this.columns = columns;
+    }
+
+    /**
+     * Parses and validates the lines of a chunk. Blank lines are skipped.
+     *
+     * @param chunk The chunk, made of whole lines.
+     * @param firstLine The line number of the first line of the chunk.
+     * @return The outcome of every line, in order.
+     */
+    List<ParsedRecord> parse(byte[] chunk, long firstLine) {
+        List<ParsedRecord> records = new ArrayList<>();
+        long line = firstLine;
+        int start = 0;
+        while (start < chunk.length) {
+            int end = start;
+            while (end < chunk.length && chunk[end] != '\n') {
+                end++;
+            }
+            int length = end - start;
+            if (length > 0 && chunk[end - 1] == '\r') {
+                length--;
+            }
+            if (!isBlank(chunk, start, length)) {
+                records.add(parseLine(chunk, start, length, line));
+            }
+            line++;
+            start = end + 1;
+        }
+        return records;
+    }
+
+    private ParsedRecord parseLine(byte[] chunk, int start, int length, long line) {
+        Object record;
+        try {
+            if (format == ImportFormat.CSV) {
+                record = mapper.treeToValue(toTree(new String(chunk, start, length, StandardCharsets.UTF_8)), type.getRecordClass());
+            } else {
+                record = reader.readValue(chunk, start, length);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            return new ParsedRecord(line, null, "Not a valid record: " + firstLine(e.getMessage()));
+        }
+        String validationError = record == null ? "Record cannot be null" : ValidationHelper.validateFailFast(record);
+        if (validationError != null) {
+            return new ParsedRecord(line, null, validationError);
+        }
+        return new ParsedRecord(line, record, null);
+    }
+
+    private ObjectNode toTree(String line) {
+        List<String> values = splitCsv(line);
+        if (values.size() != columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " columns but found " + values.size());
+        }
+        ObjectNode tree = mapper.createObjectNode();
+        for (int i = 0; i < columns.length; i++) {
+            String value = values.get(i);
+            if (value.isEmpty()) {
+                continue;
+            }
+            ObjectNode parent = tree;
+            String name = columns[i];
+            for (int dot = name.indexOf('.'); dot >= 0; dot = name.indexOf('.')) {
+                parent = parent.with(name.substring(0, dot));
+                name = name.substring(dot + 1);
+            }
+            if (type.isListColumn(columns[i])) {
+                ArrayNode list = parent.putArray(name);
+                for (String item : value.split("\\|")) {
+                    list.add(item.trim());
+                }
+            } else {
+                parent.put(name, value);
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Splits a CSV line into its values.
+     *
+     * @param line The line.
+     * @return The values, without their quotes.
+     * @throws IllegalArgumentException if a quoted value is not closed.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == ',') {
+                values.add(value.toString().trim());
+                value.setLength(0);
+            } else if (c == '"' && value.toString().trim().isEmpty()) {
+                value.setLength(0);
+                quoted = true;
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("A quoted value is not closed");
+        }
+        values.add(value.toString().trim());
+        return values;
+    }
+
+    private static boolean isBlank(byte[] chunk, int start, int length) {
+        for (int i = start; i < start + length; i++) {
+            if (chunk[i] != ' ' && chunk[i] != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String firstLine(String message) {
+        if (message == null) {
+            return "";
+        }
+        int lineBreak = message.indexOf('\n');
+        return lineBreak < 0 ? message : message.substring(0, lineBreak);
+    }
+}
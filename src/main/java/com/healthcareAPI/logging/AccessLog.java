@@ -0,0 +1,206 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.logging;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Asynchronous access log. Request threads only copy the raw values of a
+ * completed request into a preallocated event of a {@link RingBuffer}. A
+ * background writer thread formats the events and passes them to the
+ * <code>com.healthcareAPI.access</code> logger, so neither the formatting nor
+ * the appenders run on the request thread.
+ *
+ * Every request is written as one tab separated line, easy to load for offline
+ * latency analysis:
+ * <pre>
+ * timestamp  ip  method  uri  template  status  bytes  durationMicros
+ * </pre>
+ * The template is the URI template of the matched resource method, or
+ * <code>-</code> if the request did not reach a resource.
+ *
+ * Events are dropped and counted when the writer falls behind, instead of
+ * slowing the requests down.
+ *
+ * @author Amandha
+ */
+public final class AccessLog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AccessLog.class);
+    private static final Logger ACCESS_LOGGER = LoggerFactory.getLogger("com.healthcareAPI.access");
+
+    private static final int CAPACITY = Integer.getInteger("healthcare.accessLog.capacity", 8192);
+    private static final long IDLE_PARK_NANOS = 1_000_000L;
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private static final RingBuffer<RequestEvent> BUFFER = new RingBuffer<>(CAPACITY, RequestEvent::new);
+    private static final LongAdder DROPPED = new LongAdder();
+    private static final AtomicBoolean RUNNING = new AtomicBoolean();
+    private static volatile Thread writer;
+
+    // only used by the writer thread, which caches the formatted timestamp of the current second
+    private static final StringBuilder LINE = new StringBuilder(256);
+    private static long formattedSecond = Long.MIN_VALUE;
+    private static String formattedTimestamp;
+
+    private AccessLog() {
+    }
+
+    /**
+     * Starts the background writer, if it is not running yet.
+     */
+    public static void start() {
+        if (RUNNING.compareAndSet(false, true)) {
+            Thread thread = new Thread(AccessLog::drainLoop, "access-log-writer");
+            thread.setDaemon(true);
+            writer = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops the background writer after it has written the pending events.
+     */
+    public static void stop() {
+        if (RUNNING.compareAndSet(true, false)) {
+            Thread thread = writer;
+            LockSupport.unpark(thread);
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Records a completed request. Never blocks and does not format anything.
+     *
+     * @param timestamp The time the request arrived in epoch milliseconds.
+     * @param ip The address of the client.
+     * @param method The HTTP method.
+     * @param uri The request URI.
+     * @param template The URI template of the matched resource method, or null.
+     * @param status The status code of the response.
+     * @param bytes The number of bytes of the response body.
+     * @param durationNanos The time it took to handle the request.
+     * @return True if the event was queued, false if it was dropped.
+     */
+    public static boolean request(long timestamp, String ip, String method, String uri, String template,
+            int status, long bytes, long durationNanos) {
+        long position = BUFFER.claim();
+        if (position < 0) {
+            DROPPED.increment();
+            return false;
+        }
+        RequestEvent event = BUFFER.get(position);
+        event.timestamp = timestamp;
+        event.ip = ip;
+        event.method = method;
+        event.uri = uri;
+        event.template = template;
+        event.status = status;
+        event.bytes = bytes;
+        event.durationNanos = durationNanos;
+        BUFFER.publish(position);
+        return true;
+    }
+
+    /**
+     * Returns the number of events dropped because the buffer was full.
+     *
+     * @return The number of dropped events.
+     */
+    public static long droppedEvents() {
+        return DROPPED.sum();
+    }
+
+    private static void drainLoop() {
+        LOGGER.info("Access log writer started with a buffer of {} events", BUFFER.capacity());
+        while (RUNNING.get()) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        drain(); // write what was queued before the stop
+        LOGGER.info("Access log writer stopped, {} events were dropped", DROPPED.sum());
+    }
+
+    private static int drain() {
+        int written = 0;
+        for (long position = BUFFER.poll(); position >= 0; position = BUFFER.poll()) {
+            RequestEvent event = BUFFER.get(position);
+            try {
+                ACCESS_LOGGER.info(format(event));
+            } catch (RuntimeException e) {
+                LOGGER.error("Could not write an access log event: {}", e.getMessage());
+            } finally {
+                event.clear();
+                BUFFER.release(position);
+            }
+            written++;
+        }
+        return written;
+    }
+
+    private static String format(RequestEvent event) {
+        LINE.setLength(0);
+        appendTimestamp(event.timestamp);
+        LINE.append('\t').append(event.ip)
+                .append('\t').append(event.method)
+                .append('\t').append(event.uri)
+                .append('\t').append(event.template == null ? "-" : event.template)
+                .append('\t').append(event.status)
+                .append('\t').append(event.bytes)
+                .append('\t').append(event.durationNanos / 1000);
+        return LINE.toString();
+    }
+
+    private static void appendTimestamp(long epochMillis) {
+        long second = Math.floorDiv(epochMillis, 1000L);
+        if (second != formattedSecond) {
+            formattedTimestamp = FORMATTER.format(Instant.ofEpochSecond(second));
+            formattedSecond = second;
+        }
+        int millis = (int) Math.floorMod(epochMillis, 1000L);
+        LINE.append(formattedTimestamp).append('.');
+        if (millis < 100) {
+            LINE.append('0');
+        }
+        if (millis < 10) {
+            LINE.append('0');
+        }
+        LINE.append(millis);
+    }
+
+    /**
+     * A reusable slot of the ring buffer.
+     */
+    private static final class RequestEvent {
+
+        long timestamp;
+        String ip;
+        String method;
+        String uri;
+        String template;
+        int status;
+        long bytes;
+        long durationNanos;
+
+        void clear() {
+            ip = null;
+            method = null;
+            uri = null;
+            template = null;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.logging;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.ext.Provider;
+import org.glassfish.jersey.server.ExtendedUriInfo;
+import org.glassfish.jersey.server.model.ResourceMethod;
+import org.glassfish.jersey.uri.UriTemplate;
+
+/**
+ * Stores the URI template of the matched resource method, such as
+ * <code>/patients/{patientId}</code>, as a request property. The servlet
+ * container exposes it as a request attribute, so the access log can group
+ * the requests by endpoint instead of by concrete URI.
+ *
+ * @author Amandha
+ */
+@Provider
+public class ResourceTemplateFilter implements ContainerRequestFilter {
+
+    /**
+     * The name of the request property holding the template.
+     */
+    public static final String RESOURCE_TEMPLATE = "com.healthcareAPI.resourceTemplate";
+
+    // the templates only depend on the matched method, so they are built once per method
+    private static final ConcurrentMap<ResourceMethod, String> TEMPLATES = new ConcurrentHashMap<>();
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        ExtendedUriInfo uriInfo = (ExtendedUriInfo) requestContext.getUriInfo();
+        ResourceMethod method = uriInfo.getMatchedResourceMethod();
+        if (method == null) {
+            return;
+        }
+        String template = TEMPLATES.get(method);
+        if (template == null) {
+            template = TEMPLATES.computeIfAbsent(method, key -> buildTemplate(uriInfo.getMatchedTemplates()));
+        }
+        requestContext.setProperty(RESOURCE_TEMPLATE, template);
+    }
+
+    private static String buildTemplate(List<UriTemplate> matchedTemplates) {
+        StringBuilder template = new StringBuilder();
+        // the last matched template comes first
+        for (int i = matchedTemplates.size() - 1; i >= 0; i--) {
+            String part = matchedTemplates.get(i).getTemplate();
+            if (part.isEmpty() || "/".equals(part)) {
+                continue;
+            }
+            if (part.charAt(0) != '/') {
+                template.append('/');
+            }
+            template.append(part.endsWith("/") ? part.substring(0, part.length() - 1) : part);
+        }
+        return template.length() == 0 ? "/" : template.toString();
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Bounded lock-free ring buffer for many producers and a single consumer. The
+ * slots hold preallocated, reusable events: a producer claims a slot, fills in
+ * the event and publishes it, so producing an event does not allocate.
+ *
+ * Every slot has a sequence number telling whether it is free for the
+ * producers of a lap or ready for the consumer. A producer never waits, when
+ * the buffer is full the claim fails and the caller drops the event.
+ *
+ * @author Amandha
+ * @param <E> The type of the events.
+ */
+public final class RingBuffer<E> {
+
+    private final E[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong(); // next position to claim
+    private long head; // next position to consume, only used by the consumer
+
+    @SuppressWarnings("unchecked")
+    public RingBuffer(int capacity, Supplier<E> factory) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        slots = (E[]) new Object[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = factory.get();
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Claims the next free slot.
+     *
+     * @return The position of the claimed slot, or -1 if the buffer is full.
+     */
+    public long claim() {
+        while (true) {
+            long position = tail.get();
+            long difference = sequences.get((int) position & mask) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+            } else if (difference < 0) {
+                return -1; // the consumer has not freed this slot yet
+            }
+            // else another producer claimed the position first, try the next one
+        }
+    }
+
+    /**
+     * Returns the event of a claimed or consumed position.
+     *
+     * @param position The position.
+     * @return The event stored in the slot.
+     */
+    public E get(long position) {
+        return slots[(int) position & mask];
+    }
+
+    /**
+     * Hands a claimed and filled slot over to the consumer.
+     *
+     * @param position The claimed position.
+     */
+    public void publish(long position) {
+        sequences.lazySet((int) position & mask, position + 1);
+    }
+
+    /**
+     * Returns the position of the next published event. Must only be called by
+     * the consumer thread.
+     *
+     * @return The position, or -1 if no event is ready.
+     */
+    public long poll() {
+        long position = head;
+        return sequences.get((int) position & mask) == position + 1 ? position : -1;
+    }
+
+    /**
+     * Frees the slot returned by {@link #poll()} after the event was
+     * processed. Must only be called by the consumer thread.
+     *
+     * @param position The polled position.
+     */
+    public void release(long position) {
+        sequences.lazySet((int) position & mask, position + slots.length);
+        head = position + 1;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The request metrics of one resource method: the latency distribution and the
+ * number of responses per status class.
+ *
+ * @author Amandha
+ */
+public final class EndpointMetrics {
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder[] responses = new LongAdder[5]; // 1xx to 5xx
+
+    EndpointMetrics(String name) {
+        this.name = name;
+        for (int i = 0; i < responses.length; i++) {
+            responses[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a completed request.
+     *
+     * @param status The status code of the response.
+     * @param durationNanos The time it took to handle the request.
+     */
+    public void record(int status, long durationNanos) {
+        latency.record(durationNanos);
+        int statusClass = status / 100 - 1;
+        if (statusClass >= 0 && statusClass < responses.length) {
+            responses[statusClass].increment();
+        }
+    }
+
+    /**
+     * Returns the name of the endpoint, such as
+     * <code>PatientResource.getPatientById</code>.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the latency distribution in nanoseconds.
+     *
+     * @return The histogram.
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Returns the number of responses of a status class.
+     *
+     * @param statusClass The status class, 1 for 1xx up to 5 for 5xx.
+     * @return The number of responses.
+     */
+    public long getResponses(int statusClass) {
+        return responses[statusClass - 1].sum();
+    }
+
+    /**
+     * Returns the number of server errors, the 5xx responses.
+     *
+     * @return The number of errors.
+     */
+    public long getErrors() {
+        return getResponses(5);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.metrics;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Priority;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Measures the requests per resource method. The clock starts before the other
+ * request filters and stops once the response entity has been written, so the
+ * latency includes the authentication, the resource method and the
+ * serialization.
+ *
+ * @author Amandha
+ */
+@Provider
+@Priority(1)
+public class MetricsFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+    private static final String START = "com.healthcareAPI.metrics.start";
+    private static final String ENDPOINT = "com.healthcareAPI.metrics.endpoint";
+    private static final String STATUS = "com.healthcareAPI.metrics.status";
+
+    private static final ConcurrentMap<Method, EndpointMetrics> METHODS = new ConcurrentHashMap<>();
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        Method method = resourceInfo.getResourceMethod();
+        if (method == null) {
+            return;
+        }
+        EndpointMetrics metrics = METHODS.get(method);
+        if (metrics == null) {
+            metrics = METHODS.computeIfAbsent(method,
+                    key -> MetricsRegistry.endpoint(resourceInfo.getResourceClass().getSimpleName() + "." + key.getName()));
+        }
+        requestContext.setProperty(ENDPOINT, metrics);
+        requestContext.setProperty(START, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) throws IOException {
+        EndpointMetrics metrics = (EndpointMetrics) requestContext.getProperty(ENDPOINT);
+        if (metrics == null) {
+            return;
+        }
+        if (responseContext.hasEntity()) {
+            // recorded by aroundWriteTo once the entity is written
+            requestContext.setProperty(STATUS, responseContext.getStatus());
+        } else {
+            metrics.record(responseContext.getStatus(), System.nanoTime() - (Long) requestContext.getProperty(START));
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+        EndpointMetrics metrics = (EndpointMetrics) context.getProperty(ENDPOINT);
+        Integer status = (Integer) context.getProperty(STATUS);
+        if (metrics == null || status == null) {
+            context.proceed();
+            return;
+        }
+        boolean written = false;
+        try {
+            context.proceed();
+            written = true;
+        } finally {
+            metrics.record(written ? status : 500, System.nanoTime() - (Long) context.getProperty(START));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.metrics;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the metrics of the application. The metrics are created on first use
+ * and live as long as the application.
+ *
+ * @author Amandha
+ */
+public final class MetricsRegistry {
+
+    private static final ConcurrentMap<String, EndpointMetrics> ENDPOINTS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, OperationMetrics> OPERATIONS = new ConcurrentHashMap<>();
+
+    private MetricsRegistry() {
+    }
+
+    /**
+     * Returns the metrics of an endpoint, creating them if needed.
+     *
+     * @param name The name of the endpoint.
+     * @return The metrics.
+     */
+    public static EndpointMetrics endpoint(String name) {
+        EndpointMetrics metrics = ENDPOINTS.get(name);
+        if (metrics == null) {
+            metrics = ENDPOINTS.computeIfAbsent(name, EndpointMetrics::new);
+        }
+        return metrics;
+    }
+
+    /**
+     * Returns the metrics of a DAO operation, creating them if needed. Meant to
+     * be called once per operation and kept in a constant.
+     *
+     * @param dao The name of the DAO, such as <code>PatientDAO</code>.
+     * @param operation The name of the operation, such as <code>search</code>.
+     * @return The metrics.
+     */
+    public static OperationMetrics operation(String dao, String operation) {
+        return OPERATIONS.computeIfAbsent(dao + "." + operation, key -> new OperationMetrics(dao, operation));
+    }
+
+    public static Collection<EndpointMetrics> getEndpoints() {
+        return ENDPOINTS.values();
+    }
+
+    public static Collection<OperationMetrics> getOperations() {
+        return OPERATIONS.values();
+    }
+}
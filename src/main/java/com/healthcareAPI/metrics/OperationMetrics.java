@@ -0,0 +1,115 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of one DAO operation, such as the searches of the
+ * AppointmentDAO: the latency, the failures and, depending on the operation,
+ * the index hits and misses or the records scanned and returned.
+ *
+ * All counters are striped {@link LongAdder}s, so the operations of
+ * concurrent requests do not contend on them.
+ *
+ * @author Amandha
+ */
+public final class OperationMetrics {
+
+    private final String dao;
+    private final String operation;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder scanned = new LongAdder();
+    private final LongAdder results = new LongAdder();
+
+    OperationMetrics(String dao, String operation) {
+        this.dao = dao;
+        this.operation = operation;
+    }
+
+    /**
+     * Records a completed operation.
+     *
+     * @param startNanos The {@link System#nanoTime()} at the start of the
+     * operation.
+     */
+    public void stop(long startNanos) {
+        latency.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records a completed lookup by key.
+     *
+     * @param startNanos The {@link System#nanoTime()} at the start of the
+     * lookup.
+     * @param hit True if the key was found.
+     */
+    public void lookup(long startNanos, boolean hit) {
+        stop(startNanos);
+        (hit ? hits : misses).increment();
+    }
+
+    /**
+     * Records a completed scan.
+     *
+     * @param startNanos The {@link System#nanoTime()} at the start of the
+     * scan.
+     * @param scannedRecords The number of records looked at.
+     * @param resultRecords The number of records returned.
+     */
+    public void scan(long startNanos, long scannedRecords, long resultRecords) {
+        stop(startNanos);
+        scanned.add(scannedRecords);
+        results.add(resultRecords);
+    }
+
+    /**
+     * Records a failed operation. The operation is still timed by
+     * {@link #stop(long)}.
+     */
+    public void error() {
+        errors.increment();
+    }
+
+    public String getDao() {
+        return dao;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * Returns the latency distribution in nanoseconds.
+     *
+     * @return The histogram.
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getScanned() {
+        return scanned.sum();
+    }
+
+    public long getResults() {
+        return results.sum();
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Writes the metrics of the {@link MetricsRegistry} in the Prometheus text
+ * exposition format.
+ *
+ * For every endpoint the latency is exposed twice: as a histogram with fixed
+ * buckets, which can be aggregated over time and instances with
+ * <code>histogram_quantile</code>, and as a summary with the quantiles since
+ * the start of the application, read from the log-linear histogram. The DAO
+ * operations are exposed as summaries, next to their error, index lookup and
+ * scan counters.
+ *
+ * @author Amandha
+ */
+public final class PrometheusFormatter {
+
+    /**
+     * The content type of the text exposition format.
+     */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] BUCKET_SECONDS = {
+        0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+    private static final long[] BUCKET_NANOS = new long[BUCKET_SECONDS.length];
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    static {
+        for (int i = 0; i < BUCKET_SECONDS.length; i++) {
+            BUCKET_NANOS[i] = (long) (BUCKET_SECONDS[i] * 1e9);
+        }
+    }
+
+    private PrometheusFormatter() {
+    }
+
+    /**
+     * Formats all the metrics of the registry.
+     *
+     * @return The metrics in the text exposition format.
+     */
+    public static String format() {
+        List<EndpointMetrics> endpoints = new ArrayList<>(MetricsRegistry.getEndpoints());
+        endpoints.sort(Comparator.comparing(EndpointMetrics::getName));
+        StringBuilder out = new StringBuilder(4096);
+
+        header(out, "healthcare_http_requests_total", "counter", "Completed requests per resource method and status class.");
+        for (EndpointMetrics endpoint : endpoints) {
+            for (int statusClass = 1; statusClass <= 5; statusClass++) {
+                long responses = endpoint.getResponses(statusClass);
+                if (responses > 0) {
+                    out.append("healthcare_http_requests_total{endpoint=\"").append(endpoint.getName())
+                            .append("\",status=\"").append(statusClass).append("xx\"} ").append(responses).append('\n');
+                }
+            }
+        }
+
+        header(out, "healthcare_http_request_errors_total", "counter", "Requests per resource method answered with a server error.");
+        for (EndpointMetrics endpoint : endpoints) {
+            sample(out, "healthcare_http_request_errors_total", endpoint.getName(), null, endpoint.getErrors());
+        }
+
+        header(out, "healthcare_http_request_duration_seconds", "histogram", "Request latency per resource method.");
+        for (EndpointMetrics endpoint : endpoints) {
+            LatencyHistogram latency = endpoint.getLatency();
+            long count = latency.getCount();
+            long[] cumulative = latency.getCumulativeCounts(BUCKET_NANOS);
+            for (int i = 0; i < BUCKET_SECONDS.length; i++) {
+                out.append("healthcare_http_request_duration_seconds_bucket{endpoint=\"").append(endpoint.getName())
+                        .append("\",le=\"").append(BUCKET_SECONDS[i]).append("\"} ").append(Math.min(cumulative[i], count)).append('\n');
+            }
+            out.append("healthcare_http_request_duration_seconds_bucket{endpoint=\"").append(endpoint.getName())
+                    .append("\",le=\"+Inf\"} ").append(count).append('\n');
+            sample(out, "healthcare_http_request_duration_seconds_sum", endpoint.getName(), null, seconds(latency.getSum()));
+            sample(out, "healthcare_http_request_duration_seconds_count", endpoint.getName(), null, count);
+        }
+
+        header(out, "healthcare_http_request_latency_seconds", "summary", "Request latency quantiles per resource method since the start.");
+        for (EndpointMetrics endpoint : endpoints) {
+            LatencyHistogram latency = endpoint.getLatency();
+            for (double quantile : QUANTILES) {
+                sample(out, "healthcare_http_request_latency_seconds", endpoint.getName(), quantile, seconds(latency.getValueAtQuantile(quantile)));
+            }
+            sample(out, "healthcare_http_request_latency_seconds_sum", endpoint.getName(), null, seconds(latency.getSum()));
+            sample(out, "healthcare_http_request_latency_seconds_count", endpoint.getName(), null, latency.getCount());
+        }
+
+        List<OperationMetrics> operations = new ArrayList<>(MetricsRegistry.getOperations());
+        operations.sort(Comparator.comparing(OperationMetrics::getDao).thenComparing(OperationMetrics::getOperation));
+
+        header(out, "healthcare_dao_operation_duration_seconds", "summary", "DAO operation latency since the start.");
+        for (OperationMetrics operation : operations) {
+            String labels = operationLabels(operation);
+            LatencyHistogram latency = operation.getLatency();
+            for (double quantile : QUANTILES) {
+                out.append("healthcare_dao_operation_duration_seconds{").append(labels).append(",quantile=\"").append(quantile)
+                        .append("\"} ").append(seconds(latency.getValueAtQuantile(quantile))).append('\n');
+            }
+            operationSample(out, "healthcare_dao_operation_duration_seconds_sum", labels, seconds(latency.getSum()));
+            operationSample(out, "healthcare_dao_operation_duration_seconds_count", labels, latency.getCount());
+        }
+
+        header(out, "healthcare_dao_operation_errors_total", "counter", "DAO operations that failed.");
+        for (OperationMetrics operation : operations) {
+            operationSample(out, "healthcare_dao_operation_errors_total", operationLabels(operation), operation.getErrors());
+        }
+
+        header(out, "healthcare_dao_index_lookups_total", "counter", "Lookups by key per DAO operation, by whether the key was found.");
+        for (OperationMetrics operation : operations) {
+            if (operation.getHits() + operation.getMisses() > 0) {
+                String labels = operationLabels(operation);
+                operationSample(out, "healthcare_dao_index_lookups_total", labels + ",result=\"hit\"", operation.getHits());
+                operationSample(out, "healthcare_dao_index_lookups_total", labels + ",result=\"miss\"", operation.getMisses());
+            }
+        }
+
+        header(out, "healthcare_dao_records_scanned_total", "counter", "Records looked at by the scanning DAO operations.");
+        for (OperationMetrics operation : operations) {
+            if (operation.getScanned() > 0) {
+                operationSample(out, "healthcare_dao_records_scanned_total", operationLabels(operation), operation.getScanned());
+            }
+        }
+
+        header(out, "healthcare_dao_records_returned_total", "counter", "Records returned by the scanning DAO operations.");
+        for (OperationMetrics operation : operations) {
+            if (operation.getScanned() > 0) {
+                operationSample(out, "healthcare_dao_records_returned_total", operationLabels(operation), operation.getResults());
+            }
+        }
+        return out.toString();
+    }
+
+    private static String operationLabels(OperationMetrics operation) {
+        return "dao=\"" + operation.getDao() + "\",operation=\"" + operation.getOperation() + "\"";
+    }
+
+    private static void operationSample(StringBuilder out, String name, String labels, Object value) {
+        out.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String endpoint, Double quantile, Object value) {
+        out.append(name).append("{endpoint=\"").append(endpoint).append('"');
+        if (quantile != null) {
+            out.append(",quantile=\"").append(quantile).append('"');
+        }
+        out.append("} ").append(value).append('\n');
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+}
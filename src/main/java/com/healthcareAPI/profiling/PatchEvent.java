@@ -0,0 +1,48 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of an object patch.
+ *
+ * @author Amandha
+ */
+@Name("com.healthcareAPI.Patch")
+@Label("Object Patch")
+@Category({"Healthcare API", "DAO"})
+@StackTrace(false)
+class PatchEvent extends jdk.jfr.Event {
+
+    @Label("Entity Type")
+    String entityType;
+
+    @Label("Fields Patched")
+    int fields;
+
+    @Label("Copy")
+    boolean copy;
+
+    static Profiling.Span start() {
+        PatchEvent event = new PatchEvent();
+        if (!event.isEnabled()) {
+            return Profiling.Span.NONE;
+        }
+        event.begin();
+        return new Profiling.Span(event);
+    }
+
+    static void finish(Object begun, String entityType, int fields, boolean copy) {
+        PatchEvent event = (PatchEvent) begun;
+        event.entityType = entityType;
+        event.fields = fields;
+        event.copy = copy;
+        event.commit();
+    }
+}
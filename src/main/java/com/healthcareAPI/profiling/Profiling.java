@@ -0,0 +1,187 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.profiling;
+
+/**
+ * Emits the custom Java Flight Recorder events of the application: requests,
+ * DAO searches, object patches and entity serialization. The events are
+ * recorded when a recording enables them, for example with
+ * <code>jcmd &lt;pid&gt; JFR.start settings=profile</code>, and cost next to
+ * nothing otherwise. Each event is started when the measured work begins and
+ * committed when it ends, so it carries the duration of the work.
+ *
+ * The events need the <code>jdk.jfr</code> API, which older Java 8 runtimes
+ * do not have. On those, and when started with
+ * <code>-Dhealthcare.jfr=false</code>, nothing is emitted and the event
+ * classes are never loaded.
+ *
+ * @author Amandha
+ */
+public final class Profiling {
+
+    /**
+     * True if the events can be emitted.
+     */
+    public static final boolean ENABLED = !"false".equals(System.getProperty("healthcare.jfr")) && isFlightRecorderAvailable();
+
+    private Profiling() {
+    }
+
+    /**
+     * Starts the event of an HTTP request.
+     *
+     * @return The started event, to pass to
+     * {@link #request(Span, String, String, String, int, long)} once the
+     * response is complete.
+     */
+    public static Span startRequest() {
+        return ENABLED ? RequestEvent.start() : Span.NONE;
+    }
+
+    /**
+     * Commits the event of a completed HTTP request.
+     *
+     * @param span The event started with {@link #startRequest()}.
+     * @param method The HTTP method.
+     * @param uri The request URI.
+     * @param template The URI template of the matched resource method, or
+     * null.
+     * @param status The status code of the response.
+     * @param bytes The number of bytes of the response body.
+     */
+    public static void request(Span span, String method, String uri, String template, int status, long bytes) {
+        if (span.event != null) {
+            RequestEvent.finish(span.event, method, uri, template, status, bytes);
+        }
+    }
+
+    /**
+     * Starts the event of a DAO search.
+     *
+     * @return The started event, to pass to
+     * {@link #search(Span, String, long, long, String[], Object...)} once the
+     * search is done.
+     */
+    public static Span startSearch() {
+        return ENABLED ? SearchEvent.start() : Span.NONE;
+    }
+
+    /**
+     * Commits the event of a DAO search. The criteria are reported by the
+     * names of the ones that were given, such as <code>firstName,maxAge</code>,
+     * so the events show the shape of the searches without the searched
+     * values.
+     *
+     * @param span The event started with {@link #startSearch()}.
+     * @param entityType The type of the searched records.
+     * @param scanned The number of records looked at.
+     * @param results The number of records returned.
+     * @param criteriaNames The names of the search criteria.
+     * @param criteriaValues The values of the search criteria, in the order of
+     * the names, null if not given.
+     */
+    public static void search(Span span, String entityType, long scanned, long results, String[] criteriaNames, Object... criteriaValues) {
+        if (span.event != null) {
+            SearchEvent.finish(span.event, entityType, criteriaShape(criteriaNames, criteriaValues), scanned, results);
+        }
+    }
+
+    /**
+     * Starts the event of an object patch.
+     *
+     * @return The started event, to pass to
+     * {@link #patch(Span, String, int, boolean)} once the patch is applied.
+     */
+    public static Span startPatch() {
+        return ENABLED ? PatchEvent.start() : Span.NONE;
+    }
+
+    /**
+     * Commits the event of an object patch.
+     *
+     * @param span The event started with {@link #startPatch()}.
+     * @param entityType The type of the patched object.
+     * @param fields The number of fields taken from the patch.
+     * @param copy True if the patch was applied to a copy.
+     */
+    public static void patch(Span span, String entityType, int fields, boolean copy) {
+        if (span.event != null) {
+            PatchEvent.finish(span.event, entityType, fields, copy);
+        }
+    }
+
+    /**
+     * Starts the event of a serialized response entity. The caller can skip
+     * counting the bytes when {@link Span#isRecorded()} is false.
+     *
+     * @return The started event, to pass to
+     * {@link #serialization(Span, String, String, long)} once the entity is
+     * written.
+     */
+    public static Span startSerialization() {
+        return ENABLED ? SerializationEvent.start() : Span.NONE;
+    }
+
+    /**
+     * Commits the event of a serialized response entity.
+     *
+     * @param span The event started with {@link #startSerialization()}.
+     * @param entityType The type of the entity.
+     * @param mediaType The media type it was written as.
+     * @param bytes The number of bytes written.
+     */
+    public static void serialization(Span span, String entityType, String mediaType, long bytes) {
+        if (span.event != null) {
+            SerializationEvent.finish(span.event, entityType, mediaType, bytes);
+        }
+    }
+
+    private static String criteriaShape(String[] names, Object[] values) {
+        StringBuilder shape = new StringBuilder();
+        for (int i = 0; i < names.length && i < values.length; i++) {
+            if (values[i] != null) {
+                if (shape.length() > 0) {
+                    shape.append(',');
+                }
+                shape.append(names[i]);
+            }
+        }
+        return shape.length() == 0 ? "-" : shape.toString();
+    }
+
+    private static boolean isFlightRecorderAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, Profiling.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * An event started when the measured work begins. Committing it through
+     * the method of its kind ends it, so the recording shows the start time
+     * and the duration of the work. When the event is not recorded, it is
+     * {@link #NONE} and committing it does nothing.
+     */
+    public static final class Span {
+
+        static final Span NONE = new Span(null);
+
+        // the begun jdk.jfr.Event, held as an Object so this class loads without jdk.jfr
+        final Object event;
+
+        Span(Object event) {
+            this.event = event;
+        }
+
+        /**
+         * @return True if the event will be recorded when committed.
+         */
+        public boolean isRecorded() {
+            return event != null;
+        }
+    }
+}
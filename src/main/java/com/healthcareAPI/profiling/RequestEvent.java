@@ -0,0 +1,60 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a completed HTTP request.
+ *
+ * @author Amandha
+ */
+@Name("com.healthcareAPI.Request")
+@Label("HTTP Request")
+@Category({"Healthcare API", "HTTP"})
+@StackTrace(false)
+class RequestEvent extends jdk.jfr.Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("URI")
+    String uri;
+
+    @Label("Resource Template")
+    @Description("URI template of the matched resource method")
+    String template;
+
+    @Label("Status")
+    int status;
+
+    @Label("Response Size")
+    @DataAmount
+    long bytes;
+
+    static Profiling.Span start() {
+        RequestEvent event = new RequestEvent();
+        if (!event.isEnabled()) {
+            return Profiling.Span.NONE;
+        }
+        event.begin();
+        return new Profiling.Span(event);
+    }
+
+    static void finish(Object begun, String method, String uri, String template, int status, long bytes) {
+        RequestEvent event = (RequestEvent) begun;
+        event.method = method;
+        event.uri = uri;
+        event.template = template;
+        event.status = status;
+        event.bytes = bytes;
+        event.commit();
+    }
+}
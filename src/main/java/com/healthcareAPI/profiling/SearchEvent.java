@@ -0,0 +1,54 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a DAO search.
+ *
+ * @author Amandha
+ */
+@Name("com.healthcareAPI.Search")
+@Label("DAO Search")
+@Category({"Healthcare API", "DAO"})
+@StackTrace(false)
+class SearchEvent extends jdk.jfr.Event {
+
+    @Label("Entity Type")
+    String entityType;
+
+    @Label("Criteria")
+    @Description("The criteria given to the search, without their values")
+    String criteria;
+
+    @Label("Records Scanned")
+    long scanned;
+
+    @Label("Records Returned")
+    long results;
+
+    static Profiling.Span start() {
+        SearchEvent event = new SearchEvent();
+        if (!event.isEnabled()) {
+            return Profiling.Span.NONE;
+        }
+        event.begin();
+        return new Profiling.Span(event);
+    }
+
+    static void finish(Object begun, String entityType, String criteria, long scanned, long results) {
+        SearchEvent event = (SearchEvent) begun;
+        event.entityType = entityType;
+        event.criteria = criteria;
+        event.scanned = scanned;
+        event.results = results;
+        event.commit();
+    }
+}
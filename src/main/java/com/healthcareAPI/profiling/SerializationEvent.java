@@ -0,0 +1,51 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a response entity written by a message body
+ * writer.
+ *
+ * @author Amandha
+ */
+@Name("com.healthcareAPI.Serialization")
+@Label("Entity Serialization")
+@Category({"Healthcare API", "HTTP"})
+@StackTrace(false)
+class SerializationEvent extends jdk.jfr.Event {
+
+    @Label("Entity Type")
+    String entityType;
+
+    @Label("Media Type")
+    String mediaType;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    static Profiling.Span start() {
+        SerializationEvent event = new SerializationEvent();
+        if (!event.isEnabled()) {
+            return Profiling.Span.NONE;
+        }
+        event.begin();
+        return new Profiling.Span(event);
+    }
+
+    static void finish(Object begun, String entityType, String mediaType, long bytes) {
+        SerializationEvent event = (SerializationEvent) begun;
+        event.entityType = entityType;
+        event.mediaType = mediaType;
+        event.bytes = bytes;
+        event.commit();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.profiling;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Emits a Flight Recorder event for every response entity written by the
+ * message body writers, such as the JSON writer.
+ *
+ * @author Amandha
+ */
+@Provider
+public class SerializationProfiler implements WriterInterceptor {
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+        Profiling.Span span = Profiling.startSerialization();
+        if (!span.isRecorded()) {
+            context.proceed();
+            return;
+        }
+        OutputStream original = context.getOutputStream();
+        CountingOutputStream counting = new CountingOutputStream(original);
+        context.setOutputStream(counting);
+        try {
+            context.proceed();
+        } finally {
+            context.setOutputStream(original);
+            Profiling.serialization(span, typeName(context.getGenericType()), String.valueOf(context.getMediaType()), counting.count);
+        }
+    }
+
+    private static String typeName(Type type) {
+        if (type instanceof Class) {
+            return ((Class<?>) type).getSimpleName();
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            StringBuilder name = new StringBuilder(typeName(parameterized.getRawType())).append('<');
+            Type[] arguments = parameterized.getActualTypeArguments();
+            for (int i = 0; i < arguments.length; i++) {
+                name.append(i == 0 ? "" : ",").append(typeName(arguments[i]));
+            }
+            return name.append('>').toString();
+        }
+        return type == null ? "-" : type.getTypeName();
+    }
+
+    /**
+     * Counts the bytes passed through to the entity stream.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
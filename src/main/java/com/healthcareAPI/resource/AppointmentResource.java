@@ -8,11 +8,17 @@ import com.healthcareAPI.dao.AppointmentDAO;
 import com.healthcareAPI.dao.DoctorDAO;
 import com.healthcareAPI.dao.PatientDAO;
 import com.healthcareAPI.exception.ModelIdMismatchException;
+import com.healthcareAPI.exception.PreconditionFailedException;
 import com.healthcareAPI.exception.ResourceNotFoundException;
+import com.healthcareAPI.helper.BulkHelper;
+import com.healthcareAPI.helper.BulkOperations;
+import com.healthcareAPI.helper.EntityTagHelper;
 import com.healthcareAPI.helper.ValidationHelper;
 import com.healthcareAPI.model.Appointment;
 import com.healthcareAPI.model.Doctor;
 import com.healthcareAPI.model.Patient;
+import com.healthcareAPI.serialization.MediaTypes;
+import com.healthcareAPI.storage.Versioned;
 import java.util.List;
 import java.util.Collection;
 import org.slf4j.Logger;
@@ -21,13 +27,17 @@ import javax.ws.rs.BadRequestException;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 
 /**
@@ -50,7 +60,7 @@ public class AppointmentResource {
      * @throws ResourceNotFoundException If no appointments are found.
      */
     @GET
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Collection<Appointment> getAllAppointments() {
         if (!appointmentDAO.getAllAppointments().isEmpty()) {
             LOGGER.info("Returning all appointments");
@@ -64,18 +74,20 @@ public class AppointmentResource {
      * Retrieves an appointment by its ID.
      *
      * @param appointmentId The ID of the appointment to retrieve.
-     * @return The appointment with the specified ID.
+     * @return The appointment with the specified ID and its entity tag, or 304
+     * (Not Modified) if the client already has the current version.
      * @throws ResourceNotFoundException If no appointment is found with the
      * given ID.
      */
     @GET
     @Path("/{appointmentId}")
-    @Produces(MediaType.APPLICATION_JSON)
-    public Appointment getAppointmentById(@PathParam("appointmentId") int appointmentId) {
-        Appointment appointment = appointmentDAO.getAppointmentById(appointmentId); // get the appointment
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    public Response getAppointmentById(@PathParam("appointmentId") int appointmentId) {
+        Versioned<Appointment> appointment = appointmentDAO.getVersionedAppointmentById(appointmentId); // get the appointment
         if (appointment != null) {
             LOGGER.info("Getting the appointment by ID: " + appointmentId);
-            return appointment;
+            // the EntityTagFilter adds the representation to the tag and answers If-None-Match
+            return Response.ok(appointment.getValue()).tag(EntityTagHelper.entityTag(appointment.getVersion())).build();
         } else {
             throw new ResourceNotFoundException("Appointment with ID " + appointmentId + " was not found");
         }
@@ -88,7 +100,7 @@ public class AppointmentResource {
      * @return A response indicating the success of the operation.
      */
     @POST
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Response addAppointment(Appointment appointment) {
         if (appointment == null) {
             LOGGER.error("Appointment object cannot be null");
@@ -121,17 +133,43 @@ public class AppointmentResource {
         return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("An unexpected error occured when adding the appointment").build();
     }
 
+    /**
+     * Adds many new appointments. The records are validated in parallel, the
+     * ones whose patient or doctor does not exist are rejected, and the others
+     * are added in batches of consecutive IDs.
+     *
+     * @param appointments The appointments to add, as a JSON array or NDJSON.
+     * @return The outcome of every record, with the throughput of the request.
+     * @throws BadRequestException if no appointment was sent.
+     */
+    @POST
+    @Path("/batch")
+    @Consumes({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_NDJSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    public Response addAppointments(List<Appointment> appointments) {
+        BulkHelper<Appointment> bulk = new BulkHelper<>("appointments", appointments);
+        bulk.validate();
+        bulk.check(Response.Status.NOT_FOUND.getStatusCode(), BulkOperations::checkAppointment);
+        bulk.insert(appointmentDAO::addAppointments);
+        return bulk.toResponse();
+    }
+
     /**
      * Updates an existing appointment.
      *
      * @param appointmentId The ID of the appointment to update.
      * @param updatedAppointment The updated appointment object.
+     * @param request The request, for the If-Match header.
+     * @param ifMatch The If-Match header, if the update is conditional.
      * @return A response indicating the success of the operation.
+     * @throws PreconditionFailedException if the appointment was modified since
+     * the version named in the If-Match header.
      */
     @PUT
     @Path("/{appointmentId}")
-    @Consumes(MediaType.APPLICATION_JSON)
-    public Response updateAppointment(@PathParam("appointmentId") int appointmentId, Appointment updatedAppointment) {
+    @Consumes({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    public Response updateAppointment(@PathParam("appointmentId") int appointmentId, Appointment updatedAppointment,
+            @Context Request request, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
         if (updatedAppointment == null) {
             LOGGER.error("Appointment object cannot be null");
             return Response.status(Response.Status.BAD_REQUEST).entity("Appointment cannot be null").build();
@@ -148,9 +186,10 @@ public class AppointmentResource {
         }
         
         // Get the existing appointment
-        Appointment existingAppointment = appointmentDAO.getAppointmentById(appointmentId); 
+        Versioned<Appointment> existingAppointment = appointmentDAO.getVersionedAppointmentById(appointmentId);
 
-        if (existingAppointment != null) { 
+        if (existingAppointment != null) {
+            EntityTagHelper.checkPreconditions(request, existingAppointment.getVersion());
             int patientId = updatedAppointment.getPatient().getPersonId();
             int doctorId = updatedAppointment.getDoctor().getPersonId();
             Patient patient = patientDAO.getPatientById(patientId); // get the existing patient details
@@ -164,8 +203,12 @@ public class AppointmentResource {
             updatedAppointment.setDoctor(doctor); // set the doctor details in the appointment
             updatedAppointment.setPatient(patient); // set the patient deatils in the appointment
 
-            appointmentDAO.updateAppointment(updatedAppointment); // update the existing appointment
-            
+            if (ifMatch == null) {
+                appointmentDAO.updateAppointment(updatedAppointment); // update the existing appointment
+            } else if (!appointmentDAO.updateAppointment(updatedAppointment, existingAppointment.getVersion())) {
+                throw new PreconditionFailedException("Appointment with ID " + appointmentId + " was modified concurrently");
+            }
+
             LOGGER.info("Appointment record was updated. Updated Appointment ID: " + appointmentId);
             return Response.status(Response.Status.OK).entity("Appointment with ID " + appointmentId + " was updated successfully").build();
         } else {
@@ -177,12 +220,30 @@ public class AppointmentResource {
      * Deletes an appointment by its ID.
      *
      * @param appointmentId The ID of the appointment to delete.
+     * @param request The request, for the If-Match header.
+     * @param ifMatch The If-Match header, if the deletion is conditional.
      * @return A response indicating the success of the operation.
+     * @throws PreconditionFailedException if the appointment was modified since
+     * the version named in the If-Match header.
      */
     @DELETE
     @Path("/{appointmentId}")
-    public Response deleteAppointment(@PathParam("appointmentId") int appointmentId) {
-        boolean removed = appointmentDAO.deleteAppointment(appointmentId); // delete the appointment
+    public Response deleteAppointment(@PathParam("appointmentId") int appointmentId,
+            @Context Request request, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
+        boolean removed;
+        if (ifMatch == null) {
+            removed = appointmentDAO.deleteAppointment(appointmentId); // delete the appointment
+        } else {
+            Versioned<Appointment> existingAppointment = appointmentDAO.getVersionedAppointmentById(appointmentId);
+            if (existingAppointment == null) {
+                throw new ResourceNotFoundException("Appointment with ID " + appointmentId + " was not found");
+            }
+            EntityTagHelper.checkPreconditions(request, existingAppointment.getVersion());
+            if (!appointmentDAO.deleteAppointment(appointmentId, existingAppointment.getVersion())) {
+                throw new PreconditionFailedException("Appointment with ID " + appointmentId + " was modified concurrently");
+            }
+            removed = true;
+        }
         if (removed) {
             return Response.status(Response.Status.OK).entity("Appointment with ID " + appointmentId + " was deleted successfully").build();
         } else {
@@ -207,7 +268,7 @@ public class AppointmentResource {
      */
     @GET
     @Path("/search")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Response searchAppointments(
             @QueryParam("patientFirstName") String patientFirstName,
             @QueryParam("patientLastName") String patientLastName,
@@ -7,23 +7,33 @@ package com.healthcareAPI.resource;
 import com.healthcareAPI.dao.BillingDAO;
 import com.healthcareAPI.dao.PatientDAO;
 import com.healthcareAPI.exception.ModelIdMismatchException;
+import com.healthcareAPI.exception.PreconditionFailedException;
 import com.healthcareAPI.exception.ResourceNotFoundException;
+import com.healthcareAPI.helper.BulkHelper;
+import com.healthcareAPI.helper.BulkOperations;
+import com.healthcareAPI.helper.EntityTagHelper;
 import com.healthcareAPI.helper.ValidationHelper;
 import java.util.List;
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import com.healthcareAPI.model.Billing;
 import com.healthcareAPI.model.Patient;
+import com.healthcareAPI.serialization.MediaTypes;
+import com.healthcareAPI.storage.Versioned;
 import java.util.Collection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,7 +59,7 @@ public class BillingResource {
      * @throws ResourceNotFoundException if no records were found.
      */
     @GET
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Collection<Billing> getAllBills() {
         if (!billingDAO.getAllBills().isEmpty()) {
             LOGGER.info("Returning all bills");
@@ -63,18 +73,20 @@ public class BillingResource {
      * Retrieves a billing record by its ID.
      *
      * @param billId The ID of the billing record to retrieve.
-     * @return The billing record.
+     * @return The billing record and its entity tag, or 304 (Not Modified) if
+     * the client already has the current version.
      * @throws ResourceNotFoundException if the record with the specified ID was
      * not found.
      */
     @GET
     @Path("/{billId}")
-    @Produces(MediaType.APPLICATION_JSON)
-    public Billing getAppointmentById(@PathParam("billId") int billId) {
-        Billing bill = billingDAO.getBillById(billId); // get the existing bill 
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    public Response getAppointmentById(@PathParam("billId") int billId) {
+        Versioned<Billing> bill = billingDAO.getVersionedBillById(billId); // get the existing bill
         if (bill != null) {
             LOGGER.info("Getting the bill by ID: " + billId);
-            return bill;
+            // the EntityTagFilter adds the representation to the tag and answers If-None-Match
+            return Response.ok(bill.getValue()).tag(EntityTagHelper.entityTag(bill.getVersion())).build();
         } else {
             throw new ResourceNotFoundException("Bill with ID " + billId + " was not found");
         }
@@ -87,7 +99,7 @@ public class BillingResource {
      * @return A response indicating the success of the operation.
      */
     @POST
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Response addBill(Billing bill) {
         if (bill == null) {
             LOGGER.error("Bill object cannot be null");
@@ -116,17 +128,43 @@ public class BillingResource {
         return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("An unexpected error occured when adding the bill").build();
     }
 
+    /**
+     * Adds many new billing records. The records are validated in parallel,
+     * the ones whose patient does not exist are rejected, and the others are
+     * added in batches of consecutive IDs.
+     *
+     * @param bills The billing records to add, as a JSON array or NDJSON.
+     * @return The outcome of every record, with the throughput of the request.
+     * @throws BadRequestException if no billing record was sent.
+     */
+    @POST
+    @Path("/batch")
+    @Consumes({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_NDJSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    public Response addBills(List<Billing> bills) {
+        BulkHelper<Billing> bulk = new BulkHelper<>("bills", bills);
+        bulk.validate();
+        bulk.check(Response.Status.NOT_FOUND.getStatusCode(), BulkOperations::checkBill);
+        bulk.insert(billingDAO::addBills);
+        return bulk.toResponse();
+    }
+
     /**
      * Updates an existing billing record.
      *
      * @param billId The ID of the billing record to update.
      * @param updatedBill The updated billing record.
+     * @param request The request, for the If-Match header.
+     * @param ifMatch The If-Match header, if the update is conditional.
      * @return A response indicating the success of the operation.
+     * @throws PreconditionFailedException if the bill was modified since the
+     * version named in the If-Match header.
      */
     @PUT
     @Path("/{billId}")
-    @Consumes(MediaType.APPLICATION_JSON)
-    public Response updateBill(@PathParam("billId") int billId, Billing updatedBill) {
+    @Consumes({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    public Response updateBill(@PathParam("billId") int billId, Billing updatedBill,
+            @Context Request request, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
         if (updatedBill == null) {
             LOGGER.error("Bill object cannot be null");
             return Response.status(Response.Status.BAD_REQUEST).entity("Bill cannot be null").build();
@@ -142,9 +180,10 @@ public class BillingResource {
             return Response.status(Response.Status.BAD_REQUEST).entity(validationError).build();
         }
 
-        Billing existingBill = billingDAO.getBillById(billId); // check for the existing bill
+        Versioned<Billing> existingBill = billingDAO.getVersionedBillById(billId); // check for the existing bill
 
         if (existingBill != null) {
+            EntityTagHelper.checkPreconditions(request, existingBill.getVersion());
             int patientId = updatedBill.getPatient().getPersonId();
             Patient patient = patientDAO.getPatientById(patientId); // get the existing patient record
 
@@ -153,8 +192,12 @@ public class BillingResource {
             }
             updatedBill.setPatient(patient); // set the patient details
 
-            billingDAO.updateBill(updatedBill); // update the existing bill
-            
+            if (ifMatch == null) {
+                billingDAO.updateBill(updatedBill); // update the existing bill
+            } else if (!billingDAO.updateBill(updatedBill, existingBill.getVersion())) {
+                throw new PreconditionFailedException("Bill with ID " + billId + " was modified concurrently");
+            }
+
             LOGGER.info("Bill record was updated. Updated Bill ID: " + billId);
             return Response.status(Response.Status.OK).entity("Bill with ID " + billId + " was updated successfully").build();
         } else {
@@ -166,12 +209,30 @@ public class BillingResource {
      * Deletes a billing record.
      *
      * @param billId The ID of the billing record to delete.
+     * @param request The request, for the If-Match header.
+     * @param ifMatch The If-Match header, if the deletion is conditional.
      * @return A response indicating the success of the operation.
+     * @throws PreconditionFailedException if the bill was modified since the
+     * version named in the If-Match header.
      */
     @DELETE
     @Path("/{billId}")
-    public Response deleteBill(@PathParam("billId") int billId) {
-        boolean removed = billingDAO.deleteBill(billId);
+    public Response deleteBill(@PathParam("billId") int billId,
+            @Context Request request, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
+        boolean removed;
+        if (ifMatch == null) {
+            removed = billingDAO.deleteBill(billId);
+        } else {
+            Versioned<Billing> existingBill = billingDAO.getVersionedBillById(billId);
+            if (existingBill == null) {
+                throw new ResourceNotFoundException("Bill with ID " + billId + " was not found");
+            }
+            EntityTagHelper.checkPreconditions(request, existingBill.getVersion());
+            if (!billingDAO.deleteBill(billId, existingBill.getVersion())) {
+                throw new PreconditionFailedException("Bill with ID " + billId + " was modified concurrently");
+            }
+            removed = true;
+        }
         if (removed) {
             return Response.status(Response.Status.OK).entity("Bill with ID " + billId + " was deleted successfully").build();
         } else {
@@ -190,7 +251,7 @@ public class BillingResource {
      */
     @GET
     @Path("/search")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Response searchBills(
             @QueryParam("patientFirstName") String patientFirstName,
             @QueryParam("patientLastName") String patientLastName,
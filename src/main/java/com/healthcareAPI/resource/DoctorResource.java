@@ -4,12 +4,18 @@
  */
 package com.healthcareAPI.resource;
 
+import com.healthcareAPI.cache.CachedResponse;
+import com.healthcareAPI.cache.Coalesced;
+import com.healthcareAPI.cache.ResponseCache;
 import com.healthcareAPI.dao.AppointmentDAO;
 import com.healthcareAPI.dao.DoctorDAO;
+import com.healthcareAPI.dao.PatientDAO;
 import com.healthcareAPI.dao.PersonDAO;
 import com.healthcareAPI.dao.PrescriptionDAO;
 import com.healthcareAPI.exception.ModelIdMismatchException;
+import com.healthcareAPI.exception.PreconditionFailedException;
 import com.healthcareAPI.exception.ResourceNotFoundException;
+import com.healthcareAPI.helper.EntityTagHelper;
 import com.healthcareAPI.helper.ValidationHelper;
 import com.healthcareAPI.model.Appointment;
 import java.util.List;
@@ -23,11 +29,17 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import com.healthcareAPI.model.Doctor;
 import com.healthcareAPI.model.Person;
 import com.healthcareAPI.model.Prescription;
+import com.healthcareAPI.serialization.MediaTypes;
+import com.healthcareAPI.storage.Tables;
+import com.healthcareAPI.storage.TransactionManager;
+import com.healthcareAPI.storage.Versioned;
 import java.util.Collection;
 import javax.ws.rs.PATCH;
 import org.slf4j.Logger;
@@ -48,6 +60,7 @@ public class DoctorResource {
 
     private final DoctorDAO doctorDAO = new DoctorDAO();
     private final PersonDAO personDAO = new PersonDAO();
+    private final PatientDAO patientDAO = new PatientDAO();
     private final AppointmentDAO appointmentDAO = new AppointmentDAO();
     private final PrescriptionDAO prescriptionDAO = new PrescriptionDAO();
 
@@ -57,7 +70,8 @@ public class DoctorResource {
      * @return A collection of all doctors.
      */
     @GET
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    @CachedResponse(table = ResponseCache.DOCTORS)
     public Collection<Doctor> getAllDoctors() {
         if (!doctorDAO.getAllDoctors().isEmpty()) {
             LOGGER.info("Returning all doctor records");
@@ -72,16 +86,19 @@ public class DoctorResource {
      * Retrieves a doctor by ID.
      *
      * @param doctorId The ID of the doctor to retrieve.
-     * @return The doctor with the specified ID.
+     * @return The doctor with the specified ID and its entity tag, or 304 (Not
+     * Modified) if the client already has the current version.
      */
     @GET
     @Path("/{doctorId}")
-    @Produces(MediaType.APPLICATION_JSON)
-    public Person getDoctorById(@PathParam("doctorId") int doctorId) {
-        Doctor doctor = doctorDAO.getDoctorById(doctorId);
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    @CachedResponse(table = ResponseCache.DOCTORS, idParam = "doctorId")
+    public Response getDoctorById(@PathParam("doctorId") int doctorId) {
+        Versioned<Doctor> doctor = doctorDAO.getVersionedDoctorById(doctorId);
         if (doctor != null) {
             LOGGER.info("Getting the doctor by ID: " + doctorId);
-            return doctor;
+            // the EntityTagFilter adds the representation to the tag and answers If-None-Match
+            return Response.ok(doctor.getValue()).tag(EntityTagHelper.entityTag(doctor.getVersion())).build();
         } else {
             throw new ResourceNotFoundException("Doctor with ID " + doctorId + " was not found");
         }
@@ -94,7 +111,7 @@ public class DoctorResource {
      * @return A response indicating the success of the operation.
      */
     @POST
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Response addDoctor(Doctor doctor) {
         if (doctor == null) {
             LOGGER.error("Doctor object cannot be null");
@@ -107,16 +124,16 @@ public class DoctorResource {
             return Response.status(Response.Status.BAD_REQUEST).entity(validationError).build();
         }
 
-        Person person = createPerson(doctor); // create a person object
-        int newDoctorId = personDAO.addPerson(person); // add the doctor to the person list
+        // add the person and the doctor records in one transaction
+        int newDoctorId = TransactionManager.execute(transaction -> {
+            Person person = createPerson(doctor); // create a person object
+            int personId = personDAO.addPerson(transaction, person); // add the doctor to the person list
+            doctor.setPersonId(personId); // set the new person ID of the doctor
+            doctorDAO.addDoctor(transaction, doctor); // add the new doctor to doctor list
+            return personId;
+        });
 
-        if (newDoctorId != -1) {
-            doctor.setPersonId(newDoctorId); // set the new person ID of the doctor
-            doctorDAO.addDoctor(doctor); // add the new doctor to doctor list
-
-            return Response.status(Response.Status.CREATED).entity("New doctor with ID: " + newDoctorId + " was added successfully").build();
-        }
-        return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("An unexpected error occured when adding the doctor").build();
+        return Response.status(Response.Status.CREATED).entity("New doctor with ID: " + newDoctorId + " was added successfully").build();
     }
 
     /**
@@ -124,12 +141,15 @@ public class DoctorResource {
      *
      * @param doctorId The ID of the doctor to update.
      * @param updatedDoctor The updated doctor information.
+     * @param request The request, for the If-Match header.
      * @return A response indicating the success of the operation.
+     * @throws PreconditionFailedException if the doctor was modified since the
+     * version named in the If-Match header.
      */
     @PUT
     @Path("/{doctorId}")
-    @Consumes(MediaType.APPLICATION_JSON)
-    public Response updateDoctor(@PathParam("doctorId") int doctorId, Doctor updatedDoctor) {
+    @Consumes({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    public Response updateDoctor(@PathParam("doctorId") int doctorId, Doctor updatedDoctor, @Context Request request) {
         if (updatedDoctor == null) {
             LOGGER.error("Doctor object cannot be null");
             return Response.status(Response.Status.BAD_REQUEST).entity("Doctor record cannot be null").build();
@@ -145,15 +165,21 @@ public class DoctorResource {
             return Response.status(Response.Status.BAD_REQUEST).entity(validationError).build();
         }
 
-        // get the existing doctor record
-        Doctor existingDoctor = doctorDAO.getDoctorById(doctorId);
-
-        if (existingDoctor != null) {
+        boolean updated = TransactionManager.execute(transaction -> {
+            // get the existing doctor record
+            Doctor existingDoctor = doctorDAO.getDoctorById(transaction, doctorId);
+            if (existingDoctor == null) {
+                return false;
+            }
+            EntityTagHelper.checkPreconditions(request, doctorDAO.getDoctorVersion(doctorId)); // If-Match
             Person updatedPerson = createPerson(updatedDoctor); // create a person object
             updatedPerson.setPersonId(doctorId); // set the person id of the person object
-            doctorDAO.updateDoctor(updatedDoctor); // update the patient record
-            personDAO.updatePerson(updatedPerson); // update the person record
+            doctorDAO.updateDoctor(transaction, updatedDoctor); // update the doctor record
+            personDAO.updatePerson(transaction, updatedPerson); // update the person record
+            return true;
+        });
 
+        if (updated) {
             LOGGER.info("Doctor record was updated. Updated Doctor ID: " + doctorId);
             return Response.status(Response.Status.OK).entity("Doctor with ID " + doctorId + " was updated successfully").build();
         } else {
@@ -168,12 +194,15 @@ public class DoctorResource {
      * @param doctorId The ID of the doctor to update.
      * @param partialUpdatedDoctor The partial updated doctor object containing
      * the new values.
+     * @param request The request, for the If-Match header.
      * @return A response indicating the status of the update operation.
+     * @throws PreconditionFailedException if the doctor was modified since the
+     * version named in the If-Match header.
      */
     @PATCH
     @Path("/{doctorId}")
-    @Consumes(MediaType.APPLICATION_JSON)
-    public Response partialUpdateDoctor(@PathParam("doctorId") int doctorId, Doctor partialUpdatedDoctor) {
+    @Consumes({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    public Response partialUpdateDoctor(@PathParam("doctorId") int doctorId, Doctor partialUpdatedDoctor, @Context Request request) {
         if (partialUpdatedDoctor == null) {
             LOGGER.error("Doctor object cannot be null");
             return Response.status(Response.Status.BAD_REQUEST).entity("Doctor record cannot be null").build();
@@ -183,17 +212,25 @@ public class DoctorResource {
             throw new ModelIdMismatchException("The passed doctor IDs do not match");
         }
 
-        // get existing doctor record
-        Doctor existingDoctor = doctorDAO.getDoctorById(doctorId);
-
-        if (existingDoctor != null) {
-            Person existingPerson = personDAO.getPersonById(doctorId); // get existing person record
+        boolean updated = TransactionManager.execute(transaction -> {
+            // get existing doctor record
+            Doctor existingDoctor = doctorDAO.getDoctorById(transaction, doctorId);
+            if (existingDoctor == null) {
+                return false;
+            }
+            EntityTagHelper.checkPreconditions(request, doctorDAO.getDoctorVersion(doctorId)); // If-Match
+            Person existingPerson = personDAO.getPersonById(transaction, doctorId); // get existing person record
             Person partialUpdatedPerson = createPerson(partialUpdatedDoctor); // create a person object
             partialUpdatedPerson.setPersonId(doctorId); // set the ID of the person
 
-            doctorDAO.partialUpdateDoctor(existingDoctor, partialUpdatedDoctor); // update the doctor record
-            personDAO.partialUpdatePerson(existingPerson, partialUpdatedPerson); // update the person record
+            doctorDAO.partialUpdateDoctor(transaction, existingDoctor, partialUpdatedDoctor); // update the doctor record
+            if (existingPerson != null) {
+                personDAO.partialUpdatePerson(transaction, existingPerson, partialUpdatedPerson); // update the person record
+            }
+            return true;
+        });
 
+        if (updated) {
             return Response.status(Response.Status.OK).entity("Doctor with ID " + doctorId + " was updated successfully").build();
         } else {
             throw new ResourceNotFoundException("Doctor with ID " + doctorId + " was not found");
@@ -204,12 +241,25 @@ public class DoctorResource {
      * Deletes a doctor by ID.
      *
      * @param doctorId The ID of the doctor to delete.
+     * @param request The request, for the If-Match header.
      * @return A response indicating the success of the operation.
+     * @throws PreconditionFailedException if the doctor was modified since the
+     * version named in the If-Match header.
      */
     @DELETE
     @Path("/{doctorId}")
-    public Response deleteDoctor(@PathParam("doctorId") int doctorId) {
-        boolean removed = doctorDAO.deleteDoctor(doctorId); // delete doctor record
+    public Response deleteDoctor(@PathParam("doctorId") int doctorId, @Context Request request) {
+        boolean removed = TransactionManager.execute(transaction -> {
+            if (doctorDAO.getDoctorById(transaction, doctorId) == null) {
+                return false;
+            }
+            EntityTagHelper.checkPreconditions(request, doctorDAO.getDoctorVersion(doctorId)); // If-Match
+            doctorDAO.deleteDoctor(transaction, doctorId); // delete doctor record
+            if (patientDAO.getPatientById(transaction, doctorId) == null) {
+                personDAO.deletePerson(transaction, doctorId); // the person record is only kept while it is still a patient
+            }
+            return true;
+        });
         if (removed) {
             return Response.status(Response.Status.OK).entity("Doctor with ID " + doctorId + " was deleted successfully").build();
         } else {
@@ -230,7 +280,7 @@ public class DoctorResource {
      */
     @GET
     @Path("/search")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Response searchDoctors(
             @QueryParam("firstName") String firstName,
             @QueryParam("lastName") String lastName,
@@ -275,7 +325,8 @@ public class DoctorResource {
      */
     @GET
     @Path("/{doctorId}/appointments")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    @Coalesced(tables = {Tables.DOCTORS, Tables.APPOINTMENTS})
     public Response getDoctorAppointments(@PathParam("doctorId") int doctorId) {
         LOGGER.info("Searching for appointments of doctor with ID: " + doctorId);
 
@@ -304,7 +355,8 @@ public class DoctorResource {
      */
     @GET
     @Path("/{doctorId}/prescriptions")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    @Coalesced(tables = {Tables.DOCTORS, Tables.PRESCRIPTIONS})
     public Response getDoctorPrescriptions(@PathParam("doctorId") int doctorId) {
         LOGGER.info("Searching for prescriptions of doctor with ID: " + doctorId);
 
@@ -0,0 +1,124 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.resource;
+
+import com.healthcareAPI.exception.ResourceNotFoundException;
+import com.healthcareAPI.imports.ImportFormat;
+import com.healthcareAPI.imports.ImportJob;
+import com.healthcareAPI.imports.ImportManager;
+import com.healthcareAPI.imports.ImportType;
+import com.healthcareAPI.serialization.MediaTypes;
+import java.util.Collection;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resource class for importing large CSV and NDJSON files of patients,
+ * appointments and bills from the import directory of the server. An import
+ * runs in the background, and its progress, rejected rows and throughput are
+ * read from its status.
+ *
+ * @author Amandha
+ */
+@Path("imports")
+public class ImportResource {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportResource.class);
+
+    /**
+     * Starts an import.
+     *
+     * @param type The type of the records: patients, appointments or bills.
+     * @param file The name of the file in the import directory.
+     * @param format The format of the file, csv or ndjson. Told from the
+     * extension of the file when missing.
+     * @param uriInfo The request URI, for the location of the import status.
+     * @return A 202 response with the status of the queued import.
+     * @throws BadRequestException if a parameter is missing or not valid.
+     */
+    @POST
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    public Response startImport(@QueryParam("type") String type, @QueryParam("file") String file,
+            @QueryParam("format") String format, @Context UriInfo uriInfo) {
+        ImportType importType = ImportType.forName(type);
+        if (importType == null) {
+            throw new BadRequestException("The type parameter must be patients, appointments or bills");
+        }
+        if (file == null || file.trim().isEmpty()) {
+            throw new BadRequestException("The file parameter is required");
+        }
+        ImportFormat importFormat = null;
+        if (format != null) {
+            importFormat = ImportFormat.forName(format);
+            if (importFormat == null) {
+                throw new BadRequestException("The format parameter must be csv or ndjson");
+            }
+        }
+
+        ImportJob job = ImportManager.start(importType, importFormat, file.trim());
+        LOGGER.info("Import with ID: " + job.getId() + " was started");
+        return Response.accepted(job).location(uriInfo.getAbsolutePathBuilder().path(String.valueOf(job.getId())).build()).build();
+    }
+
+    /**
+     * Retrieves the status of the recent imports.
+     *
+     * @return The status of the imports, oldest first.
+     */
+    @GET
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    public Collection<ImportJob> getImports() {
+        return ImportManager.list();
+    }
+
+    /**
+     * Retrieves the status of an import.
+     *
+     * @param importId The ID of the import.
+     * @return The status of the import.
+     * @throws ResourceNotFoundException if there is no import with the ID.
+     */
+    @GET
+    @Path("/{importId}")
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    public ImportJob getImport(@PathParam("importId") int importId) {
+        ImportJob job = ImportManager.get(importId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import with ID " + importId + " was not found");
+        }
+        return job;
+    }
+
+    /**
+     * Cancels an import. The records it added so far are kept.
+     *
+     * @param importId The ID of the import.
+     * @return The status of the import.
+     * @throws ResourceNotFoundException if there is no import with the ID.
+     */
+    @DELETE
+    @Path("/{importId}")
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    public ImportJob cancelImport(@PathParam("importId") int importId) {
+        ImportJob job = ImportManager.cancel(importId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import with ID " + importId + " was not found");
+        }
+        LOGGER.info("Import with ID: " + importId + " was cancelled");
+        return job;
+    }
+}
@@ -21,6 +21,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import com.healthcareAPI.model.MedicalRecord;
 import com.healthcareAPI.model.Patient;
+import com.healthcareAPI.serialization.MediaTypes;
 import java.util.Collection;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
@@ -48,7 +49,7 @@ public class MedicalRecordResource {
      * @throws ResourceNotFoundException if no records are found
      */
     @GET
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Collection<MedicalRecord> getAllMedicalRecords() {
         if (!medicalRecordDAO.getAllMedicalRecords().isEmpty()) {
             LOGGER.info("Fetching all medical records");
@@ -68,7 +69,7 @@ public class MedicalRecordResource {
      */
     @GET
     @Path("/{medicalRecordId}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public MedicalRecord getMedicalRecordById(@PathParam("medicalRecordId") int medicalRecordId) {
         MedicalRecord medicalRecord = medicalRecordDAO.getMedicalRecordById(medicalRecordId);
         if (medicalRecord != null) {
@@ -91,7 +92,7 @@ public class MedicalRecordResource {
      */
     @GET
     @Path("/search")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Response searchMedicalRecord(
             @QueryParam("patientFirstName") String patientFirstName,
             @QueryParam("patientLastName") String patientLastName,
@@ -130,7 +131,7 @@ public class MedicalRecordResource {
      * operation.
      */
     @POST
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Response addMedicalRecord(MedicalRecord medicalRecord) {
         if (medicalRecord == null) {
             LOGGER.error("Medical Record object cannot be null");
@@ -174,7 +175,7 @@ public class MedicalRecordResource {
      */
     @PUT
     @Path("/{medicalRecordId}")
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Response updateMedicalRecord(@PathParam("medicalRecordId") int medicalRecordId, MedicalRecord updatedMedicalRecord) {
         if (updatedMedicalRecord == null) {
             LOGGER.error("Medical Record object cannot be null");
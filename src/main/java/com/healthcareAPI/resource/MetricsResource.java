@@ -0,0 +1,32 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.resource;
+
+import com.healthcareAPI.metrics.PrometheusFormatter;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * Resource class exposing the metrics of the application in the Prometheus
+ * text format, to be scraped by a Prometheus server.
+ *
+ * @author Amandha
+ */
+@Path("metrics")
+public class MetricsResource {
+
+    /**
+     * Retrieves the current metrics.
+     *
+     * @return The metrics in the Prometheus text format.
+     */
+    @GET
+    @Produces({PrometheusFormatter.CONTENT_TYPE, MediaType.TEXT_PLAIN})
+    public String getMetrics() {
+        return PrometheusFormatter.format();
+    }
+}
@@ -13,7 +13,9 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.util.Collection;
 import javax.ws.rs.BadRequestException;
@@ -22,18 +24,30 @@ import org.slf4j.LoggerFactory;
 import com.healthcareAPI.model.MedicalRecord;
 import com.healthcareAPI.model.Patient;
 import com.healthcareAPI.model.Prescription;
+import com.healthcareAPI.cache.CachedResponse;
+import com.healthcareAPI.cache.Coalesced;
+import com.healthcareAPI.cache.ResponseCache;
 import com.healthcareAPI.dao.AppointmentDAO;
 import com.healthcareAPI.dao.BillingDAO;
+import com.healthcareAPI.dao.DoctorDAO;
 import com.healthcareAPI.dao.MedicalRecordDAO;
 import com.healthcareAPI.dao.PatientDAO;
 import com.healthcareAPI.dao.PersonDAO;
 import com.healthcareAPI.dao.PrescriptionDAO;
 import com.healthcareAPI.exception.ModelIdMismatchException;
+import com.healthcareAPI.exception.PreconditionFailedException;
 import com.healthcareAPI.exception.ResourceNotFoundException;
+import com.healthcareAPI.helper.BulkHelper;
+import com.healthcareAPI.helper.BulkOperations;
+import com.healthcareAPI.helper.EntityTagHelper;
 import com.healthcareAPI.helper.ValidationHelper;
 import com.healthcareAPI.model.Appointment;
 import com.healthcareAPI.model.Billing;
 import com.healthcareAPI.model.Person;
+import com.healthcareAPI.serialization.MediaTypes;
+import com.healthcareAPI.storage.Tables;
+import com.healthcareAPI.storage.TransactionManager;
+import com.healthcareAPI.storage.Versioned;
 import javax.ws.rs.PATCH;
 import javax.ws.rs.QueryParam;
 
@@ -50,6 +64,7 @@ public class PatientResource {
 
     private final PatientDAO patientDAO = new PatientDAO();
     private final PersonDAO personDAO = new PersonDAO();
+    private final DoctorDAO doctorDAO = new DoctorDAO();
     private final MedicalRecordDAO medicalRecordDAO = new MedicalRecordDAO();
     private final AppointmentDAO appointmentDAO = new AppointmentDAO();
     private final PrescriptionDAO prescriptionDAO = new PrescriptionDAO();
@@ -62,7 +77,8 @@ public class PatientResource {
      * @throws ResourceNotFoundException if no patient records were found.
      */
     @GET
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    @CachedResponse(table = ResponseCache.PATIENTS)
     public Collection<Patient> getAllPatients() {
         if (!patientDAO.getAllPatients().isEmpty()) {
             LOGGER.info("Fetching all patient records");
@@ -77,18 +93,21 @@ public class PatientResource {
      * Retrieves a patient by ID.
      *
      * @param patientId The ID of the patient to retrieve.
-     * @return The patient with the specified ID.
+     * @return The patient with the specified ID and its entity tag, or 304 (Not
+     * Modified) if the client already has the current version.
      * @throws ResourceNotFoundException if the patient with the specified ID
      * was not found.
      */
     @GET
     @Path("/{patientId}")
-    @Produces(MediaType.APPLICATION_JSON)
-    public Patient getPatientById(@PathParam("patientId") int patientId) {
-        Patient patient = patientDAO.getPatientById(patientId);
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    @CachedResponse(table = ResponseCache.PATIENTS, idParam = "patientId")
+    public Response getPatientById(@PathParam("patientId") int patientId) {
+        Versioned<Patient> patient = patientDAO.getVersionedPatientById(patientId);
         if (patient != null) {
             LOGGER.info("Getting the patient by ID: " + patientId);
-            return patient;
+            // the EntityTagFilter adds the representation to the tag and answers If-None-Match
+            return Response.ok(patient.getValue()).tag(EntityTagHelper.entityTag(patient.getVersion())).build();
         } else {
             LOGGER.info("Patient with ID " + patientId + " was not found");
             throw new ResourceNotFoundException("Patient with ID " + patientId + " was not found");
@@ -103,7 +122,7 @@ public class PatientResource {
      * @throws BadRequestException if the patient record is null.
      */
     @POST
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Response addPatient(Patient patient) {
         if (patient == null) {
             LOGGER.error("Empty request was passsed. Patient object cannot be null");
@@ -116,19 +135,38 @@ public class PatientResource {
             return Response.status(Response.Status.BAD_REQUEST).entity(validationError).build();
         }
 
-        Person person = createPerson(patient); // create a person object 
-        int newPatientId = personDAO.addPerson(person); // add the new person to person record
-
-        if (newPatientId != -1) {
-            patient.setPersonId(newPatientId); // set the new person ID of the patient
-            patientDAO.addPatient(patient); // add the new patient to the patients list 
+        // add the person and the patient records in one transaction
+        int newPatientId = TransactionManager.execute(transaction -> {
+            Person person = createPerson(patient); // create a person object
+            int personId = personDAO.addPerson(transaction, person); // add the new person to person record
+            patient.setPersonId(personId); // set the new person ID of the patient
+            patientDAO.addPatient(transaction, patient); // add the new patient to the patients list
+            return personId;
+        });
+
+        LOGGER.info("New patient with ID: " + newPatientId + " was added successfully");
+        return Response.status(Response.Status.CREATED).entity("New patient with ID: " + newPatientId + " was added successfully").build();
+    }
 
-            LOGGER.info("New patient with ID: " + newPatientId + " was added successfully");
-            return Response.status(Response.Status.CREATED).entity("New patient with ID: " + newPatientId + " was added successfully").build();
-        }
-        
-        LOGGER.error("An unexpected error occured.");
-        return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("An unexpected error occured when adding the patient").build();
+    /**
+     * Adds many new patient records. The records are validated in parallel
+     * and added in batches, each batch in one transaction, and an invalid
+     * record does not stop the others. The records of a batch that conflicts
+     * with concurrent writes are reported with status 409.
+     *
+     * @param patients The patients to add, as a JSON array or NDJSON.
+     * @return The outcome of every record, with the throughput of the request.
+     * @throws BadRequestException if no patient was sent.
+     */
+    @POST
+    @Path("/batch")
+    @Consumes({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_NDJSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    public Response addPatients(List<Patient> patients) {
+        BulkHelper<Patient> bulk = new BulkHelper<>("patients", patients);
+        bulk.validate();
+        bulk.insert(BulkOperations::addPatients);
+        return bulk.toResponse();
     }
 
     /**
@@ -136,15 +174,18 @@ public class PatientResource {
      *
      * @param patientId The ID of the patient to update.
      * @param updatedPatient The updated patient record.
+     * @param request The request, for the If-Match header.
      * @return A response indicating the success of the operation.
      * @throws BadRequestException if the updated patient record is null.
      * @throws ResourceNotFoundException if the patient with the specified ID
      * was not found.
+     * @throws PreconditionFailedException if the patient was modified since the
+     * version named in the If-Match header.
      */
     @PUT
     @Path("/{patientId}")
-    @Consumes(MediaType.APPLICATION_JSON)
-    public Response updatePatient(@PathParam("patientId") int patientId, Patient updatedPatient) {
+    @Consumes({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    public Response updatePatient(@PathParam("patientId") int patientId, Patient updatedPatient, @Context Request request) {
         if (updatedPatient == null) {
             LOGGER.error("Empty request was passed. Patient object cannot be null");
             return Response.status(Response.Status.BAD_REQUEST).entity("Patient cannot be null").build();
@@ -161,15 +202,21 @@ public class PatientResource {
             return Response.status(Response.Status.BAD_REQUEST).entity(validationError).build();
         }
 
-        // get the existing patient record
-        Patient existingPatient = patientDAO.getPatientById(patientId);
-
-        if (existingPatient != null) {
+        boolean updated = TransactionManager.execute(transaction -> {
+            // get the existing patient record
+            Patient existingPatient = patientDAO.getPatientById(transaction, patientId);
+            if (existingPatient == null) {
+                return false;
+            }
+            EntityTagHelper.checkPreconditions(request, patientDAO.getPatientVersion(patientId)); // If-Match
             Person updatedPerson = createPerson(updatedPatient); // create a person object
             updatedPerson.setPersonId(patientId); // set the person id of the person object
-            patientDAO.updatePatient(updatedPatient); // update the patient record
-            personDAO.updatePerson(updatedPerson); // update the person record
+            patientDAO.updatePatient(transaction, updatedPatient); // update the patient record
+            personDAO.updatePerson(transaction, updatedPerson); // update the person record
+            return true;
+        });
 
+        if (updated) {
             LOGGER.info("Patient record was updated. Updated Patient ID: " + patientId);
             return Response.status(Response.Status.OK).entity("Patient with ID " + patientId + " was updated successfully").build();
         } else {
@@ -184,12 +231,13 @@ public class PatientResource {
      * @param patientId The ID of the patient to update.
      * @param partialUpdatedPatient The partially updated Patient object
      * containing the new values.
+     * @param request The request, for the If-Match header.
      * @return A Response indicating the outcome of the update operation.
      */
     @PATCH
     @Path("/{patientId}")
-    @Consumes(MediaType.APPLICATION_JSON)
-    public Response partialUpdatePatient(@PathParam("patientId") int patientId, Patient partialUpdatedPatient) {
+    @Consumes({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    public Response partialUpdatePatient(@PathParam("patientId") int patientId, Patient partialUpdatedPatient, @Context Request request) {
         if (partialUpdatedPatient == null) {
             LOGGER.error("Patient object cannot be null");
             return Response.status(Response.Status.BAD_REQUEST).entity("Patient cannot be null").build();
@@ -200,17 +248,25 @@ public class PatientResource {
             throw new ModelIdMismatchException("The passed patient IDs do not match");
         }
 
-        // Get the existing patient record
-        Patient existingPatient = patientDAO.getPatientById(patientId);
-
-        if (existingPatient != null) {
-            Person existingPerson = personDAO.getPersonById(patientId); // get existing person record
+        boolean updated = TransactionManager.execute(transaction -> {
+            // Get the existing patient record
+            Patient existingPatient = patientDAO.getPatientById(transaction, patientId);
+            if (existingPatient == null) {
+                return false;
+            }
+            EntityTagHelper.checkPreconditions(request, patientDAO.getPatientVersion(patientId)); // If-Match
+            Person existingPerson = personDAO.getPersonById(transaction, patientId); // get existing person record
             Person partialUpdatedPerson = createPerson(partialUpdatedPatient); // create a person object
             partialUpdatedPerson.setPersonId(patientId); // set the ID of the person
-            
-            patientDAO.partialUpdatePatient(existingPatient, partialUpdatedPatient); // update the patient record
-            personDAO.partialUpdatePerson(existingPerson, partialUpdatedPerson); // update the person record
-            
+
+            patientDAO.partialUpdatePatient(transaction, existingPatient, partialUpdatedPatient); // update the patient record
+            if (existingPerson != null) {
+                personDAO.partialUpdatePerson(transaction, existingPerson, partialUpdatedPerson); // update the person record
+            }
+            return true;
+        });
+
+        if (updated) {
             LOGGER.info("Patient with ID " + patientId + " was updated successfully");
             return Response.status(Response.Status.OK).entity("Patient with ID " + patientId + " was updated successfully").build();
         } else {
@@ -223,14 +279,27 @@ public class PatientResource {
      * Deletes a patient record.
      *
      * @param patientId The ID of the patient to delete.
+     * @param request The request, for the If-Match header.
      * @return A response indicating the success of the operation.
      * @throws ResourceNotFoundException if the patient with the specified ID
      * was not found.
+     * @throws PreconditionFailedException if the patient was modified since the
+     * version named in the If-Match header.
      */
     @DELETE
     @Path("/{patientId}")
-    public Response deletePatient(@PathParam("patientId") int patientId) {
-        boolean removed = patientDAO.deletePatient(patientId); // delete the patient record
+    public Response deletePatient(@PathParam("patientId") int patientId, @Context Request request) {
+        boolean removed = TransactionManager.execute(transaction -> {
+            if (patientDAO.getPatientById(transaction, patientId) == null) {
+                return false;
+            }
+            EntityTagHelper.checkPreconditions(request, patientDAO.getPatientVersion(patientId)); // If-Match
+            patientDAO.deletePatient(transaction, patientId); // delete the patient record
+            if (doctorDAO.getDoctorById(transaction, patientId) == null) {
+                personDAO.deletePerson(transaction, patientId); // the person record is only kept while it is still a doctor
+            }
+            return true;
+        });
         if (removed) {
             LOGGER.info("Patient with ID " + patientId + " was deleted successfully");
             return Response.status(Response.Status.OK).entity("Patient with ID " + patientId + " was deleted successfully").build();
@@ -253,7 +322,7 @@ public class PatientResource {
      */
     @GET
     @Path("/search")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Response searchPatients(
             @QueryParam("firstName") String firstName,
             @QueryParam("lastName") String lastName,
@@ -297,7 +366,8 @@ public class PatientResource {
      */
     @GET
     @Path("/{patientId}/medical-records")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    @Coalesced(tables = {Tables.PATIENTS, Tables.MEDICAL_RECORDS})
     public Response getPatientMedicalRecord(@PathParam("patientId") int patientId) {
         LOGGER.info("Searching for medical record of patient with ID: " + patientId);
 
@@ -326,7 +396,8 @@ public class PatientResource {
      */
     @GET
     @Path("/{patientId}/appointments")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    @Coalesced(tables = {Tables.PATIENTS, Tables.APPOINTMENTS})
     public Response getPatientAppointments(@PathParam("patientId") int patientId) {
         LOGGER.info("Searching for appointments of patient with ID: " + patientId);
 
@@ -355,7 +426,8 @@ public class PatientResource {
      */
     @GET
     @Path("/{patientId}/prescriptions")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    @Coalesced(tables = {Tables.PATIENTS, Tables.PRESCRIPTIONS})
     public Response getPatientPrescriptions(@PathParam("patientId") int patientId) {
         LOGGER.info("Searching for prescriptions of patient with ID: " + patientId);
 
@@ -383,7 +455,8 @@ public class PatientResource {
      */
     @GET
     @Path("/{patientId}/bills")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
+    @Coalesced(tables = {Tables.PATIENTS, Tables.BILLS})
     public Response getPatientBills(@PathParam("patientId") int patientId) {
         LOGGER.info("Searching for bills of patient with ID: " + patientId);
 
@@ -29,6 +29,8 @@ import com.healthcareAPI.exception.ResourceNotFoundException;
 import com.healthcareAPI.helper.ValidationHelper;
 import com.healthcareAPI.model.Doctor;
 import com.healthcareAPI.model.Patient;
+import com.healthcareAPI.serialization.MediaTypes;
+import com.healthcareAPI.storage.TransactionManager;
 import javax.ws.rs.PATCH;
 import org.modelmapper.ModelMapper;
 
@@ -53,7 +55,7 @@ public class PersonResource {
      * @throws ResourceNotFoundException If no records are found.
      */
     @GET
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Collection<Person> getAllPeople() {
         if (!personDAO.getAllPeople().isEmpty()) {
             LOGGER.info("Fetching all person records");
@@ -74,7 +76,7 @@ public class PersonResource {
      */
     @GET
     @Path("/{personId}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Person getPersonById(@PathParam("personId") int personId) {
         Person person = personDAO.getPersonById(personId);
         if (person != null) {
@@ -96,7 +98,7 @@ public class PersonResource {
      * valid.
      */
     @POST
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Response addPerson(Person person) {
         if (person == null) {
             LOGGER.error("Empty request was passed. Person object expected.");
@@ -132,7 +134,7 @@ public class PersonResource {
      */
     @PUT
     @Path("/{personId}")
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Response updatePerson(@PathParam("personId") int personId, Person updatedPerson) {
         if (updatedPerson == null) {
             LOGGER.error("Empty request was passed. Person object expected.");
@@ -150,26 +152,31 @@ public class PersonResource {
             return Response.status(Response.Status.BAD_REQUEST).entity(validationError).build();
         }
 
-        Person existingPerson = personDAO.getPersonById(personId); // get existing person record
+        boolean updated = TransactionManager.execute(transaction -> {
+            Person existingPerson = personDAO.getPersonById(transaction, personId); // get existing person record
+            if (existingPerson == null) {
+                return false;
+            }
+            Doctor doctor = doctorDAO.getDoctorById(transaction, personId);
+            Patient patient = patientDAO.getPatientById(transaction, personId);
 
-        if (existingPerson != null) {
-            Doctor doctor = doctorDAO.getDoctorById(personId); 
-            Patient patient = patientDAO.getPatientById(personId);
-            
             ModelMapper modelMapper = new ModelMapper(); // create a mapper
             if (patient != null) {
                 LOGGER.info("Updating the patient record");
                 Patient partialUpdatedPatient = modelMapper.map(updatedPerson, Patient.class);
-                patientDAO.partialUpdatePatient(patient,partialUpdatedPatient); // update the patient record
+                patientDAO.partialUpdatePatient(transaction, patient, partialUpdatedPatient); // update the patient record
             }
             if (doctor != null) {
                 LOGGER.info("Updating the doctor record");
                 Doctor partialUpdatedDoctor = modelMapper.map(updatedPerson, Doctor.class);
-                doctorDAO.partialUpdateDoctor(doctor, partialUpdatedDoctor); // update the doctor record
+                doctorDAO.partialUpdateDoctor(transaction, doctor, partialUpdatedDoctor); // update the doctor record
             }
-            
-            personDAO.updatePerson(updatedPerson); // update the person record
 
+            personDAO.updatePerson(transaction, updatedPerson); // update the person record
+            return true;
+        });
+
+        if (updated) {
             LOGGER.info("Person record was updated. Updated Person ID: " + personId);
             return Response.status(Response.Status.OK).entity("Person with ID " + personId + " was updated successfully").build();
         } else {
@@ -187,7 +194,7 @@ public class PersonResource {
      */
     @PATCH
     @Path("/{personId}")
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Response partialUpdatePerson(@PathParam("personId") int personId, Person partialUpdatedPerson) {
         if (partialUpdatedPerson == null) {
             LOGGER.error("Empty request was passed. Person object cannot be null");
@@ -199,26 +206,31 @@ public class PersonResource {
             throw new ModelIdMismatchException("The passed person IDs do not match");
         }
 
-        // Get the existing patient record
-        Person existingPerson = personDAO.getPersonById(personId);
-
-        if (existingPerson != null) {
-            Doctor doctor = doctorDAO.getDoctorById(personId);
-            Patient patient = patientDAO.getPatientById(personId);
+        boolean updated = TransactionManager.execute(transaction -> {
+            // Get the existing person record
+            Person existingPerson = personDAO.getPersonById(transaction, personId);
+            if (existingPerson == null) {
+                return false;
+            }
+            Doctor doctor = doctorDAO.getDoctorById(transaction, personId);
+            Patient patient = patientDAO.getPatientById(transaction, personId);
 
             ModelMapper modelMapper = new ModelMapper(); // create a mapper
-            personDAO.partialUpdatePerson(existingPerson, partialUpdatedPerson); // update the person record
+            personDAO.partialUpdatePerson(transaction, existingPerson, partialUpdatedPerson); // update the person record
             if (patient != null) {
                 LOGGER.info("Updating the patient record");
                 Patient partialUpdatedPatient = modelMapper.map(partialUpdatedPerson, Patient.class);
-                patientDAO.partialUpdatePatient(patient,partialUpdatedPatient); // update the patient record
+                patientDAO.partialUpdatePatient(transaction, patient, partialUpdatedPatient); // update the patient record
             }
             if (doctor != null) {
                 LOGGER.info("Updating the doctor record");
                 Doctor partialUpdatedDoctor = modelMapper.map(partialUpdatedPerson, Doctor.class);
-                doctorDAO.partialUpdateDoctor(doctor,partialUpdatedDoctor); // update the doctor record
+                doctorDAO.partialUpdateDoctor(transaction, doctor, partialUpdatedDoctor); // update the doctor record
             }
-            
+            return true;
+        });
+
+        if (updated) {
             LOGGER.info("Person with ID " + personId + " was updated successfully");
             return Response.status(Response.Status.OK).entity("Person with ID " + personId + " was updated successfully").build();
         } else {
@@ -238,10 +250,11 @@ public class PersonResource {
     @DELETE
     @Path("/{personId}")
     public Response deletePerson(@PathParam("personId") int personId) {
-        patientDAO.deletePatient(personId); // delete the patient record from patients if it exists
-        doctorDAO.deleteDoctor(personId); // delete the doctor record from doctors if it exists
-        
-        boolean removed = personDAO.deletePerson(personId);
+        boolean removed = TransactionManager.execute(transaction -> {
+            patientDAO.deletePatient(transaction, personId); // delete the patient record from patients if it exists
+            doctorDAO.deleteDoctor(transaction, personId); // delete the doctor record from doctors if it exists
+            return personDAO.deletePerson(transaction, personId);
+        });
 
         if (removed) {
             LOGGER.info("Person with ID " + personId + " was deleted successfully");
@@ -267,7 +280,7 @@ public class PersonResource {
      */
     @GET
     @Path("/search")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Response searchPeople(
             @QueryParam("firstName") String firstName,
             @QueryParam("lastName") String lastName,
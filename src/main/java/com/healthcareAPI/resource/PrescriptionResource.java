@@ -23,6 +23,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import com.healthcareAPI.model.Prescription;
+import com.healthcareAPI.serialization.MediaTypes;
 import java.util.Collection;
 import java.util.List;
 import javax.ws.rs.BadRequestException;
@@ -51,7 +52,7 @@ public class PrescriptionResource {
      * @throws ResourceNotFoundException if no prescriptions are found.
      */
     @GET
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Collection<Prescription> getAllPrescriptions() {
         if (!prescriptionDAO.getAllPrescriptions().isEmpty()) {
             LOGGER.info("Fetching all prescriptions");
@@ -71,7 +72,7 @@ public class PrescriptionResource {
      */
     @GET
     @Path("/{prescriptionId}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Prescription getPrescriptionById(@PathParam("prescriptionId") int prescriptionId) {
         Prescription prescription = prescriptionDAO.getPrescriptionById(prescriptionId); // get the prescription
         if (prescription != null) {
@@ -89,7 +90,7 @@ public class PrescriptionResource {
      * @return Response indicating the success of the operation.
      */
     @POST
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Response addPrescription(Prescription prescription) {
         if (prescription == null) {
             LOGGER.error("Prescription object cannot be null");
@@ -131,7 +132,7 @@ public class PrescriptionResource {
      */
     @PUT
     @Path("/{prescriptionId}")
-    @Consumes(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Response updatePrescription(@PathParam("prescriptionId") int prescriptionId, Prescription updatedPrescription) {
         if (updatedPrescription == null) {
             LOGGER.error("Prescription object cannot be null");
@@ -211,7 +212,7 @@ public class PrescriptionResource {
      */
     @GET
     @Path("/search")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaTypes.APPLICATION_CBOR, MediaTypes.APPLICATION_SMILE})
     public Response searchPrescriptionss(
             @QueryParam("patientFirstName") String patientFirstName,
             @QueryParam("patientLastName") String patientLastName,
@@ -1,38 +1,36 @@
 package com.healthcareAPI.security;
 
+import com.healthcareAPI.logging.AccessLog;
+import com.healthcareAPI.logging.CountingResponseWrapper;
+import com.healthcareAPI.logging.ResourceTemplateFilter;
+import com.healthcareAPI.profiling.Profiling;
 import javax.servlet.*;
-import javax.servlet.annotation.WebFilter;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.logging.LogRecord;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
- * RequestLoggingFilter logs incoming requests to the application, including the timestamp, IP address, HTTP method, and URI.
+ * RequestLoggingFilter logs the completed requests of the application, including the timestamp, IP address, HTTP method, URI,
+ * matched resource template, status code, response size and duration.
+ * The requests are handed to the asynchronous {@link AccessLog}, which formats and writes them on its own thread.
  * 
  * @author Amandha
  */
-@WebFilter("/*")
 public class RequestLoggingFilter implements Filter {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(RequestLoggingFilter.class);
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    
     /**
-     * Initializes the filter.
+     * Initializes the filter and starts the access log writer.
      * @param filterConfig
      * @throws javax.servlet.ServletException
      */
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
-       
+        AccessLog.start();
     }
 
     /**
-     * Logs the incoming request.
+     * Handles the request and logs it once the response is complete.
      * @param request
      * @param response
      * @param chain
@@ -43,23 +41,33 @@ public class RequestLoggingFilter implements Filter {
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
         HttpServletRequest httpRequest = (HttpServletRequest) request;
+        CountingResponseWrapper countingResponse = new CountingResponseWrapper((HttpServletResponse) response);
 
-        String timestamp = LocalDateTime.now().format(FORMATTER);
-        String ip = httpRequest.getRemoteAddr();
-        String method = httpRequest.getMethod();
-        String uri = httpRequest.getRequestURI();
-
-        LOGGER.info("[{}] Request from IP : {} - HTTP method {} - URI: {}", timestamp, ip, method, uri);
-
-        chain.doFilter(request, response);
+        long timestamp = System.currentTimeMillis();
+        long start = System.nanoTime();
+        Profiling.Span span = Profiling.startRequest();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, countingResponse);
+            failed = false;
+        } finally {
+            long duration = System.nanoTime() - start;
+            // an exception escaping the chain is turned into a 500 by the container
+            int status = failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : countingResponse.getStatus();
+            String template = (String) httpRequest.getAttribute(ResourceTemplateFilter.RESOURCE_TEMPLATE);
+            long bytes = countingResponse.getBytesWritten();
+            AccessLog.request(timestamp, httpRequest.getRemoteAddr(), httpRequest.getMethod(), httpRequest.getRequestURI(),
+                    template, status, bytes, duration);
+            Profiling.request(span, httpRequest.getMethod(), httpRequest.getRequestURI(), template, status, bytes);
+        }
     }
     
     /**
-     * Destroys the filter.
+     * Destroys the filter and flushes the access log.
      */
     @Override
     public void destroy() {
-      
+        AccessLog.stop();
     }
     
     /**
@@ -15,8 +15,8 @@ import javax.ws.rs.ext.Provider;
 
 /**
  * This class implements a JAX-RS ContainerRequestFilter to perform basic
- * authentication for certain endpoints related to medical records, bills, and
- * prescriptions. It checks the Authorization header for a Basic authentication
+ * authentication for certain endpoints related to medical records, bills,
+ * prescriptions, and imports. It checks the Authorization header for a Basic authentication
  * token, decodes it, and validates the username and password. If the
  * credentials are valid, the request is allowed to proceed; otherwise, an
  * unauthorized response is returned.
@@ -34,8 +34,9 @@ public class SecurityFilter implements ContainerRequestFilter {
         boolean medicalRecords = requestContext.getUriInfo().getPath().contains("medical-records");
         boolean bills = requestContext.getUriInfo().getPath().contains("bills");
         boolean prescriptions = requestContext.getUriInfo().getPath().contains("prescriptions");
+        boolean imports = requestContext.getUriInfo().getPath().contains("imports");
 
-        if (medicalRecords || bills || prescriptions) { // authentication will apply for these endpoints
+        if (medicalRecords || bills || prescriptions || imports) { // authentication will apply for these endpoints
             List<String> authHeader = requestContext.getHeaders().get(AUTHORIZATION_HEADER_KEY);
             if (authHeader != null && !authHeader.isEmpty()) {
                 String authToken = authHeader.get(0);
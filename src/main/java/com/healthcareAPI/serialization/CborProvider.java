@@ -0,0 +1,28 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.serialization;
+
+import com.fasterxml.jackson.jaxrs.cbor.JacksonCBORProvider;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Reads and writes the models as CBOR. Jersey does not pick up the Jackson
+ * providers listed in META-INF/services, so the provider is registered
+ * through the scanned packages, with a mapper configured by
+ * {@link ObjectMappers}.
+ *
+ * @author Amandha
+ */
+@Provider
+@Consumes(MediaTypes.APPLICATION_CBOR)
+@Produces(MediaTypes.APPLICATION_CBOR)
+public class CborProvider extends JacksonCBORProvider {
+
+    public CborProvider() {
+        super(ObjectMappers.newCborMapper());
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.healthcareAPI.model.Doctor;
+import com.healthcareAPI.model.Patient;
+import com.healthcareAPI.model.Person;
+import java.io.IOException;
+
+/**
+ * Writes a doctor or patient from its {@link JsonFragments} fragment when it
+ * has one, and with the regular bean serializer otherwise.
+ *
+ * @author Amandha
+ */
+final class FragmentSerializer extends StdSerializer<Object> implements ResolvableSerializer, ContextualSerializer {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Wraps the bean serializers of Doctor and Patient. Only added to the JSON
+     * mapper, as the fragments are JSON text.
+     */
+    static final BeanSerializerModifier MODIFIER = new BeanSerializerModifier() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc, JsonSerializer<?> serializer) {
+            Class<?> type = beanDesc.getBeanClass();
+            return type == Doctor.class || type == Patient.class ? new FragmentSerializer((JsonSerializer<Object>) serializer) : serializer;
+        }
+    };
+
+    private final JsonSerializer<Object> delegate;
+
+    private FragmentSerializer(JsonSerializer<Object> delegate) {
+        super(delegate.handledType());
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void serialize(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        SerializableString fragment = JsonFragments.lookup((Person) value);
+        if (fragment != null) {
+            gen.writeRawValue(fragment); // copies the encoded bytes into the output buffer
+        } else {
+            delegate.serialize(value, gen, provider);
+        }
+    }
+
+    @Override
+    public void serializeWithType(Object value, JsonGenerator gen, SerializerProvider provider, TypeSerializer typeSer) throws IOException {
+        delegate.serializeWithType(value, gen, provider, typeSer);
+    }
+
+    @Override
+    public boolean isEmpty(SerializerProvider provider, Object value) {
+        return delegate.isEmpty(provider, value);
+    }
+
+    @Override
+    public boolean usesObjectId() {
+        return delegate.usesObjectId();
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        if (delegate instanceof ResolvableSerializer) {
+            ((ResolvableSerializer) delegate).resolve(provider);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) throws JsonMappingException {
+        if (!(delegate instanceof ContextualSerializer)) {
+            return this;
+        }
+        JsonSerializer<?> contextual = ((ContextualSerializer) delegate).createContextual(provider, property);
+        return contextual == delegate ? this : new FragmentSerializer((JsonSerializer<Object>) contextual);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.serialization;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.healthcareAPI.model.Doctor;
+import com.healthcareAPI.model.Patient;
+import com.healthcareAPI.model.Person;
+import com.healthcareAPI.storage.ConcurrentIntObjectMap;
+import com.healthcareAPI.storage.IntMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the UTF-8 JSON of the current version of every doctor and patient,
+ * encoded when the DAOs store that version. Doctors and patients are
+ * embedded in every appointment, prescription, bill and medical record, so
+ * the JSON listings splice these bytes into the output instead of encoding
+ * the same nested objects again on every response.
+ * <p>
+ * A fragment is only used for the exact instance it was encoded from. The
+ * stored records are replaced rather than changed in place, so an older
+ * version still embedded in an appointment, or a version that lost a race
+ * with a concurrent update, is encoded the normal way. Run with
+ * {@code -Dhealthcare.jsonFragments=false} to turn the fragments off.
+ *
+ * @author Amandha
+ */
+public final class JsonFragments {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JsonFragments.class);
+
+    public static final boolean ENABLED = !"false".equals(System.getProperty("healthcare.jsonFragments"));
+
+    // the fragments are encoded with the configuration of the JSON responses they are spliced into
+    private static final ObjectWriter WRITER = ObjectMappers.newJsonMapper().writer();
+
+    private static final IntMap<Fragment> DOCTORS = new ConcurrentIntObjectMap<>();
+    private static final IntMap<Fragment> PATIENTS = new ConcurrentIntObjectMap<>();
+
+    private JsonFragments() {
+    }
+
+    /**
+     * Encodes the stored version of a doctor.
+     *
+     * @param doctor The doctor, as it was put in the doctors table.
+     */
+    public static void storeDoctor(Doctor doctor) {
+        store(DOCTORS, doctor);
+    }
+
+    public static void removeDoctor(int doctorId) {
+        DOCTORS.remove(doctorId);
+    }
+
+    /**
+     * Encodes the stored version of a patient.
+     *
+     * @param patient The patient, as it was put in the patients table.
+     */
+    public static void storePatient(Patient patient) {
+        store(PATIENTS, patient);
+    }
+
+    public static void removePatient(int patientId) {
+        PATIENTS.remove(patientId);
+    }
+
+    /**
+     * @param person A doctor or patient being serialized.
+     * @return The encoded JSON of that instance, or null if it has none.
+     */
+    static SerializableString lookup(Person person) {
+        IntMap<Fragment> table = person instanceof Doctor ? DOCTORS : person instanceof Patient ? PATIENTS : null;
+        if (table == null) {
+            return null;
+        }
+        Fragment fragment = table.get(person.getPersonId());
+        return fragment != null && fragment.source == person ? fragment.json : null;
+    }
+
+    private static void store(IntMap<Fragment> table, Person person) {
+        if (!ENABLED) {
+            return;
+        }
+        try {
+            SerializedString json = new SerializedString(WRITER.writeValueAsString(person));
+            json.asUnquotedUTF8(); // encode the bytes now, not on the first response
+            table.put(person.getPersonId(), new Fragment(person, json));
+        } catch (JsonProcessingException e) {
+            // the record is still served, encoded on every response
+            table.remove(person.getPersonId());
+            LOGGER.error("Could not encode the JSON of person {}: {}", person.getPersonId(), e.getMessage());
+        }
+    }
+
+    private static final class Fragment {
+
+        final Person source;
+        final SerializedString json;
+
+        Fragment(Person source, SerializedString json) {
+            this.source = source;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.serialization;
+
+import com.fasterxml.jackson.jaxrs.cbor.CBORMediaTypes;
+import com.fasterxml.jackson.jaxrs.smile.SmileMediaTypes;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * The binary media types the resources produce and consume next to JSON, for
+ * the internal services that call the API at high volume. Both carry the same
+ * data model as the JSON bodies, in a smaller encoding that is faster to write
+ * and parse.
+ *
+ * @author Amandha
+ */
+public final class MediaTypes {
+
+    /**
+     * Concise Binary Object Representation, RFC 8949.
+     */
+    public static final String APPLICATION_CBOR = CBORMediaTypes.APPLICATION_JACKSON_CBOR;
+    public static final MediaType APPLICATION_CBOR_TYPE = CBORMediaTypes.APPLICATION_JACKSON_CBOR_TYPE;
+
+    /**
+     * Jackson's binary JSON format.
+     */
+    public static final String APPLICATION_SMILE = SmileMediaTypes.APPLICATION_JACKSON_SMILE;
+    public static final MediaType APPLICATION_SMILE_TYPE = SmileMediaTypes.APPLICATION_JACKSON_SMILE_TYPE;
+
+    /**
+     * Newline delimited JSON, one record per line, accepted by the bulk
+     * endpoints.
+     */
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    public static final MediaType APPLICATION_NDJSON_TYPE = new MediaType("application", "x-ndjson");
+
+    private MediaTypes() {
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.serialization;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.healthcareAPI.helper.BulkHelper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.Providers;
+
+/**
+ * Reads a newline delimited JSON body into a list of records, for the bulk
+ * endpoints. The records are parsed one after the other from the stream with
+ * the shared JSON mapper, so the body is never held as text, and the reading
+ * stops with 413 (Request Entity Too Large) as soon as the body holds more
+ * than {@link BulkHelper#MAX_RECORDS} records.
+ *
+ * @author Amandha
+ */
+@Provider
+@Consumes(MediaTypes.APPLICATION_NDJSON)
+public class NdjsonReader implements MessageBodyReader<List<?>> {
+
+    @Context
+    private Providers providers;
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return List.class.isAssignableFrom(type) && genericType instanceof ParameterizedType;
+    }
+
+    @Override
+    public List<?> readFrom(Class<List<?>> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+            MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException, WebApplicationException {
+        ObjectMapper mapper = mapper();
+        JavaType recordType = mapper.getTypeFactory().constructType(((ParameterizedType) genericType).getActualTypeArguments()[0]);
+        ObjectReader reader = mapper.readerFor(recordType);
+        List<Object> records = new ArrayList<>();
+        try (MappingIterator<Object> iterator = reader.readValues(entityStream)) {
+            while (iterator.hasNextValue()) {
+                if (records.size() == BulkHelper.MAX_RECORDS) {
+                    throw new WebApplicationException("A bulk request can contain at most " + BulkHelper.MAX_RECORDS + " records",
+                            Response.Status.REQUEST_ENTITY_TOO_LARGE);
+                }
+                records.add(iterator.nextValue());
+            }
+        } catch (WebApplicationException e) {
+            throw e; // such as a compressed body over the size limit
+        } catch (IOException | RuntimeException e) {
+            throw new BadRequestException("Record " + (records.size() + 1) + " of the NDJSON body is not valid: " + e.getMessage(), e);
+        }
+        return records;
+    }
+
+    private ObjectMapper mapper() {
+        ContextResolver<ObjectMapper> resolver = providers.getContextResolver(ObjectMapper.class, MediaType.APPLICATION_JSON_TYPE);
+        return resolver != null ? resolver.getContext(ObjectMapper.class) : new ObjectMapper();
+    }
+}
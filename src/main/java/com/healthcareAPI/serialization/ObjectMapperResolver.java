@@ -0,0 +1,30 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Supplies the shared JSON ObjectMapper to Jersey's Jackson provider, in place
+ * of the default one it would create. The binary providers build their own
+ * mappers with the same configuration, as they need a different factory.
+ *
+ * @author Amandha
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class ObjectMapperResolver implements ContextResolver<ObjectMapper> {
+
+    private static final ObjectMapper MAPPER = ObjectMappers.newJsonMapper();
+
+    @Override
+    public ObjectMapper getContext(Class<?> type) {
+        return MAPPER;
+    }
+}
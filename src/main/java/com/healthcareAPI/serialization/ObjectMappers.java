@@ -0,0 +1,84 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.serialization;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.healthcareAPI.model.Appointment;
+import com.healthcareAPI.model.Billing;
+import com.healthcareAPI.model.Doctor;
+import com.healthcareAPI.model.MedicalRecord;
+import com.healthcareAPI.model.Patient;
+import com.healthcareAPI.model.Person;
+import com.healthcareAPI.model.Prescription;
+import java.util.Collection;
+
+/**
+ * Builds the ObjectMappers of the JSON, CBOR and Smile providers. All three
+ * share the same configuration:
+ * <ul>
+ * <li>Afterburner replaces the reflective getter and setter calls with
+ * generated accessors.</li>
+ * <li>The models are plain beans without annotations, so the JAXB annotation
+ * support of Jersey's default provider and the detection of fields,
+ * is-getters and getters used as setters are turned off.</li>
+ * <li>The serializers and deserializers of the models, and of the collections
+ * of them the listings return, are built when the mapper is created instead
+ * of on the first request that needs them.</li>
+ * </ul>
+ *
+ * @author Amandha
+ */
+public final class ObjectMappers {
+
+    private static final Class<?>[] MODELS = {Person.class, Patient.class, Doctor.class, Appointment.class, Prescription.class,
+        Billing.class, MedicalRecord.class};
+
+    private ObjectMappers() {
+    }
+
+    /**
+     * @return A JSON mapper that also splices in the {@link JsonFragments} of
+     * the doctors and patients.
+     */
+    public static ObjectMapper newJsonMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new SimpleModule("JsonFragments").setSerializerModifier(FragmentSerializer.MODIFIER));
+        return configure(mapper);
+    }
+
+    public static ObjectMapper newCborMapper() {
+        return configure(new ObjectMapper(new CBORFactory()));
+    }
+
+    public static ObjectMapper newSmileMapper() {
+        return configure(new ObjectMapper(new SmileFactory()));
+    }
+
+    private static ObjectMapper configure(ObjectMapper mapper) {
+        mapper.registerModule(new AfterburnerModule());
+        mapper.disable(MapperFeature.AUTO_DETECT_FIELDS, MapperFeature.AUTO_DETECT_IS_GETTERS, MapperFeature.USE_GETTERS_AS_SETTERS,
+                MapperFeature.INFER_PROPERTY_MUTATORS);
+        mapper.disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+        warmUp(mapper);
+        return mapper;
+    }
+
+    private static void warmUp(ObjectMapper mapper) {
+        // writerFor and readerFor look up the root serializer and deserializer, which the mapper then caches
+        for (Class<?> model : MODELS) {
+            JavaType collection = mapper.getTypeFactory().constructCollectionType(Collection.class, model);
+            mapper.writerFor(model);
+            mapper.writerFor(collection);
+            mapper.readerFor(model);
+        }
+    }
+}
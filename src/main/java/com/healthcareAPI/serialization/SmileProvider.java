@@ -0,0 +1,26 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.serialization;
+
+import com.fasterxml.jackson.jaxrs.smile.JacksonSmileProvider;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Reads and writes the models as Smile, registered the same way as the
+ * {@link CborProvider}.
+ *
+ * @author Amandha
+ */
+@Provider
+@Consumes(MediaTypes.APPLICATION_SMILE)
+@Produces(MediaTypes.APPLICATION_SMILE)
+public class SmileProvider extends JacksonSmileProvider {
+
+    public SmileProvider() {
+        super(ObjectMappers.newSmileMapper());
+    }
+}
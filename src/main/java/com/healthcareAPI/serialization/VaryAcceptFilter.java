@@ -0,0 +1,42 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.serialization;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import javax.ws.rs.Produces;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Adds "Vary: Accept" to the responses of the resource methods that produce
+ * more than one media type, so shared caches do not serve a CBOR body to a
+ * JSON client or the other way round.
+ *
+ * @author Amandha
+ */
+@Provider
+public class VaryAcceptFilter implements ContainerResponseFilter {
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) throws IOException {
+        Method method = resourceInfo.getResourceMethod();
+        if (method == null || !responseContext.hasEntity()) {
+            return;
+        }
+        Produces produces = method.getAnnotation(Produces.class);
+        if (produces != null && produces.value().length > 1) {
+            responseContext.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.storage;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread safe int keyed map made of independently locked
+ * {@link IntObjectMap} segments. Point lookups are optimistic reads that do
+ * not take a lock unless they race with a writer of the same segment. The
+ * versions of the records come from one counter shared by all segments.
+ *
+ * Iteration is weakly consistent: each segment is copied under its read lock
+ * when the iterator reaches it, so iterating never throws a
+ * {@link java.util.ConcurrentModificationException} and never blocks writers
+ * of the other segments.
+ *
+ * @author Amandha
+ * @param <V> The type of the stored values.
+ */
+public class ConcurrentIntObjectMap<V> extends AbstractMap<Integer, V> implements IntMap<V> {
+
+    private static final int DEFAULT_SEGMENTS = 16;
+
+    private final Segment<V>[] segments;
+    private final int segmentShift;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong mutations = new AtomicLong();
+
+    public ConcurrentIntObjectMap() {
+        this(DEFAULT_SEGMENTS);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentIntObjectMap(int concurrencyLevel) {
+        int segmentCount = 1;
+        int bits = 0;
+        while (segmentCount < concurrencyLevel) {
+            segmentCount <<= 1;
+            bits++;
+        }
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>();
+        }
+        segmentShift = 32 - bits;
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer ? get((int) (Integer) key) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            Object value = segment.map.getOptimistic(key);
+            if (value != IntObjectMap.RETRY && segment.lock.validate(stamp)) {
+                return (V) value;
+            }
+        }
+        stamp = segment.lock.readLock();
+        try {
+            return segment.map.get(key);
+        } finally {
+            segment.lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey((int) (Integer) key);
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return put((int) key, value);
+    }
+
+    @Override
+    public V put(int key, V value) {
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            V previous = segment.map.put(key, value, mutations.incrementAndGet());
+            if (previous == null) {
+                size.incrementAndGet();
+                segment.raiseMaxKey(key);
+            }
+            return previous;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean putIfVersion(int key, V value, long expectedVersion) {
+        if (value == null) {
+            throw new NullPointerException("Null values are not supported");
+        }
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            if (segment.map.version(key) != expectedVersion) {
+                return false;
+            }
+            if (segment.map.put(key, value, mutations.incrementAndGet()) == null) {
+                size.incrementAndGet();
+                segment.raiseMaxKey(key);
+            }
+            return true;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Integer ? remove((int) (Integer) key) : null;
+    }
+
+    @Override
+    public V remove(int key) {
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            V removed = segment.map.remove(key);
+            if (removed != null) {
+                size.decrementAndGet();
+                mutations.incrementAndGet();
+                segment.removedKey(key);
+            }
+            return removed;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean removeIfVersion(int key, long expectedVersion) {
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            if (!segment.map.removeIfVersion(key, expectedVersion)) {
+                return false;
+            }
+            size.decrementAndGet();
+            mutations.incrementAndGet();
+            segment.removedKey(key);
+            return true;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public long version(int key) {
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.readLock();
+        try {
+            return segment.map.version(key);
+        } finally {
+            segment.lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Versioned<V> getVersioned(int key) {
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.readLock();
+        try {
+            return segment.map.getVersioned(key);
+        } finally {
+            segment.lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public long mutationVersion() {
+        return mutations.get();
+    }
+
+    /**
+     * Returns the largest key without locking, from the maximum every segment
+     * keeps as its keys are added. Only a segment whose maximum was removed is
+     * scanned again, under its write lock.
+     */
+    @Override
+    public int maxKey() {
+        int max = Integer.MIN_VALUE;
+        for (Segment<V> segment : segments) {
+            if (segment.maxKeyStale) {
+                long stamp = segment.lock.writeLock();
+                try {
+                    if (segment.maxKeyStale) {
+                        segment.maxKey = segment.map.maxKey();
+                        segment.maxKeyStale = false;
+                    }
+                } finally {
+                    segment.lock.unlockWrite(stamp);
+                }
+            }
+            max = Math.max(max, segment.maxKey);
+        }
+        return max;
+    }
+
+    @Override
+    public void clear() {
+        for (Segment<V> segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                size.addAndGet(-segment.map.size());
+                segment.map.clear();
+                segment.maxKey = Integer.MIN_VALUE;
+                segment.maxKeyStale = false;
+                mutations.incrementAndGet();
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<Integer, V>> entrySet() {
+        return new AbstractSet<Map.Entry<Integer, V>>() {
+            @Override
+            public Iterator<Map.Entry<Integer, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size.get();
+            }
+
+            @Override
+            public void clear() {
+                ConcurrentIntObjectMap.this.clear();
+            }
+        };
+    }
+
+    private Segment<V> segmentFor(int key) {
+        // the segment is chosen by the high bits, the segment map probes with the low bits
+        return segments.length == 1 ? segments[0] : segments[IntObjectMap.hash(key) >>> segmentShift];
+    }
+
+    private static final class Segment<V> {
+
+        final StampedLock lock = new StampedLock();
+        final IntObjectMap<V> map = new IntObjectMap<>();
+        // written under the write lock, read without it by maxKey()
+        volatile int maxKey = Integer.MIN_VALUE;
+        volatile boolean maxKeyStale;
+
+        void raiseMaxKey(int key) {
+            if (key > maxKey) {
+                maxKey = key;
+            }
+        }
+
+        void removedKey(int key) {
+            if (key == maxKey) {
+                maxKeyStale = true; // scanned again on the next call to maxKey()
+            }
+        }
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<Integer, V>> {
+
+        private int segmentIndex;
+        private int[] keys = new int[0];
+        private Object[] values = new Object[0];
+        private int count;
+        private int index;
+        private int lastKey;
+        private boolean canRemove;
+
+        @Override
+        public boolean hasNext() {
+            while (index == count && segmentIndex < segments.length) {
+                Segment<V> segment = segments[segmentIndex++];
+                long stamp = segment.lock.readLock();
+                try {
+                    int segmentSize = segment.map.size();
+                    if (keys.length < segmentSize) {
+                        keys = new int[segmentSize];
+                        values = new Object[segmentSize];
+                    }
+                    count = segment.map.copyTo(keys, values, 0);
+                    index = 0;
+                } finally {
+                    segment.lock.unlockRead(stamp);
+                }
+            }
+            return index < count;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<Integer, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastKey = keys[index];
+            V value = (V) values[index];
+            values[index++] = null; // do not retain the copied value longer than needed
+            canRemove = true;
+            return new AbstractMap.SimpleImmutableEntry<>(lastKey, value);
+        }
+
+        @Override
+        public void remove() {
+            if (!canRemove) {
+                throw new IllegalStateException();
+            }
+            ConcurrentIntObjectMap.this.remove(lastKey);
+            canRemove = false;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.storage;
+
+import com.healthcareAPI.model.Billing;
+import com.healthcareAPI.model.Doctor;
+import com.healthcareAPI.model.MedicalRecord;
+import com.healthcareAPI.model.Person;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The shared dictionaries of the repeating model attributes. The DAOs pass the
+ * records through these methods on their write paths, so the stored records
+ * share one String instance per distinct value instead of keeping the copies
+ * created by the JSON reader.
+ *
+ * @author Amandha
+ */
+public final class Dictionaries {
+
+    public static final SharedDictionary GENDERS = new SharedDictionary(64);
+    public static final SharedDictionary SPECIALIZATIONS = new SharedDictionary(1024);
+    public static final SharedDictionary BLOOD_GROUPS = new SharedDictionary(64);
+    public static final SharedDictionary SERVICES = new SharedDictionary(4096);
+
+    private Dictionaries() {
+    }
+
+    /**
+     * Canonicalizes the repeating attributes of a person, including patients.
+     *
+     * @param person The person to canonicalize.
+     */
+    public static void canonicalize(Person person) {
+        person.setGender(GENDERS.canonicalize(person.getGender()));
+    }
+
+    /**
+     * Canonicalizes the repeating attributes of a doctor.
+     *
+     * @param doctor The doctor to canonicalize.
+     */
+    public static void canonicalize(Doctor doctor) {
+        canonicalize((Person) doctor);
+        doctor.setSpecialization(SPECIALIZATIONS.canonicalize(doctor.getSpecialization()));
+    }
+
+    /**
+     * Canonicalizes the repeating attributes of a medical record.
+     *
+     * @param medicalRecord The medical record to canonicalize.
+     */
+    public static void canonicalize(MedicalRecord medicalRecord) {
+        medicalRecord.setBloodGroup(BLOOD_GROUPS.canonicalize(medicalRecord.getBloodGroup()));
+    }
+
+    /**
+     * Canonicalizes the services of a bill.
+     *
+     * @param bill The bill to canonicalize.
+     */
+    public static void canonicalize(Billing bill) {
+        List<String> services = bill.getServices();
+        if (services != null) {
+            List<String> canonicalServices = new ArrayList<>(services.size());
+            for (String service : services) {
+                canonicalServices.add(SERVICES.canonicalize(service));
+            }
+            bill.setServices(canonicalServices);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.storage;
+
+import java.util.Map;
+
+/**
+ * A map keyed by primitive int IDs. The primitive methods avoid boxing the key
+ * on the hot paths of the DAOs, while the {@link Map} view keeps the tables
+ * usable wherever a regular map is expected.
+ *
+ * @author Amandha
+ * @param <V> The type of the stored values.
+ */
+public interface IntMap<V> extends Map<Integer, V> {
+
+    /**
+     * Returns the value stored for the given key.
+     *
+     * @param key The key to look up.
+     * @return The value, or null if the key is not present.
+     */
+    V get(int key);
+
+    /**
+     * Stores a value for the given key.
+     *
+     * @param key The key.
+     * @param value The value, must not be null.
+     * @return The previous value, or null if the key was not present.
+     */
+    V put(int key, V value);
+
+    /**
+     * Removes the value stored for the given key.
+     *
+     * @param key The key to remove.
+     * @return The removed value, or null if the key was not present.
+     */
+    V remove(int key);
+
+    /**
+     * Checks whether a value is stored for the given key.
+     *
+     * @param key The key to check.
+     * @return True if the key is present, false otherwise.
+     */
+    boolean containsKey(int key);
+
+    /**
+     * Returns the largest key in the map.
+     *
+     * @return The largest key, or {@link Integer#MIN_VALUE} if the map is
+     * empty.
+     */
+    int maxKey();
+
+    /**
+     * Returns the version of the value stored for the given key. Every write
+     * gives the stored value a new version, larger than any version the map
+     * handed out before, so a version identifies one state of one record.
+     *
+     * @param key The key to look up.
+     * @return The version, or 0 if the key is not present.
+     */
+    long version(int key);
+
+    /**
+     * Returns the value stored for the given key together with its version,
+     * read atomically.
+     *
+     * @param key The key to look up.
+     * @return The value and its version, or null if the key is not present.
+     */
+    Versioned<V> getVersioned(int key);
+
+    /**
+     * Returns the mutation version of the map, which grows with every write,
+     * removal and clear.
+     *
+     * @return The mutation version.
+     */
+    long mutationVersion();
+
+    /**
+     * Stores a value for the given key if the stored value is still at the
+     * expected version.
+     *
+     * @param key The key.
+     * @param value The value, must not be null.
+     * @param expectedVersion The expected version, 0 if the key is expected to
+     * be absent.
+     * @return True if the value was stored, false if the version did not
+     * match.
+     */
+    boolean putIfVersion(int key, V value, long expectedVersion);
+
+    /**
+     * Removes the value stored for the given key if it is still at the
+     * expected version.
+     *
+     * @param key The key to remove.
+     * @param expectedVersion The expected version.
+     * @return True if the value was removed, false if the key was not present
+     * or the version did not match.
+     */
+    boolean removeIfVersion(int key, long expectedVersion);
+}
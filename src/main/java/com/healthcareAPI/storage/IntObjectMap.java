@@ -0,0 +1,398 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.storage;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Open addressing hash map with primitive int keys. Keys and values are kept
+ * in two parallel arrays and collisions are resolved with linear probing, so an
+ * entry costs a slot in each array instead of a boxed key and a node object.
+ * Removed entries are back-shifted, which keeps the probe sequences short
+ * without tombstones. A third parallel array holds the version of every entry.
+ * <p>
+ * A slot costs 16 bytes with compressed references: 4 for the key, 4 for the
+ * value reference and 8 for the version. The table is a power of two at most
+ * three quarters full, so an entry takes between 21 and 43 bytes, measured at
+ * 33 bytes per entry for 1 million records against 56 for a
+ * {@code HashMap<Integer, V>} (see FootprintBenchmark in the benchmarks
+ * module).
+ *
+ * This class is not thread safe, see {@link ConcurrentIntObjectMap} for the
+ * variant used by the DAOs.
+ *
+ * @author Amandha
+ * @param <V> The type of the stored values.
+ */
+public class IntObjectMap<V> extends AbstractMap<Integer, V> implements IntMap<V> {
+
+    static final Object RETRY = new Object();
+
+    private static final int MIN_CAPACITY = 8;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private int[] keys;
+    private Object[] values; // a null value marks a free slot
+    private long[] versions;
+    private long mutations;
+    private int size;
+    private int threshold;
+    private int modCount;
+
+    private int maxKey = Integer.MIN_VALUE;
+    private boolean maxKeyStale;
+
+    public IntObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        allocate(tableSizeFor((int) (expectedSize / LOAD_FACTOR) + 1));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer ? get((int) (Integer) key) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = indexOf(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey((int) (Integer) key);
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return put((int) key, value);
+    }
+
+    @Override
+    public V put(int key, V value) {
+        return put(key, value, ++mutations);
+    }
+
+    /**
+     * Stores a value with a version chosen by the caller, which must be larger
+     * than any version stored for the key before.
+     *
+     * @param key The key.
+     * @param value The value, must not be null.
+     * @param version The version of the value.
+     * @return The previous value, or null if the key was not present.
+     */
+    @SuppressWarnings("unchecked")
+    V put(int key, V value, long version) {
+        if (value == null) {
+            throw new NullPointerException("Null values are not supported");
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                versions[slot] = version;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        versions[slot] = version;
+        modCount++;
+        if (key > maxKey) {
+            maxKey = key;
+        }
+        if (++size > threshold) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Integer ? remove((int) (Integer) key) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = indexOf(key);
+        if (slot < 0) {
+            return null;
+        }
+        V removed = (V) values[slot];
+        removeSlot(slot);
+        mutations++;
+        if (key == maxKey) {
+            maxKeyStale = true; // recomputed on the next call to maxKey()
+        }
+        return removed;
+    }
+
+    @Override
+    public long version(int key) {
+        int slot = indexOf(key);
+        return slot < 0 ? 0L : versions[slot];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Versioned<V> getVersioned(int key) {
+        int slot = indexOf(key);
+        return slot < 0 ? null : new Versioned<>((V) values[slot], versions[slot]);
+    }
+
+    @Override
+    public long mutationVersion() {
+        return mutations;
+    }
+
+    @Override
+    public boolean putIfVersion(int key, V value, long expectedVersion) {
+        if (version(key) != expectedVersion) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    @Override
+    public boolean removeIfVersion(int key, long expectedVersion) {
+        int slot = indexOf(key);
+        if (slot < 0 || versions[slot] != expectedVersion) {
+            return false;
+        }
+        remove(key);
+        return true;
+    }
+
+    @Override
+    public int maxKey() {
+        if (maxKeyStale) {
+            int max = Integer.MIN_VALUE;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (values[slot] != null && keys[slot] > max) {
+                    max = keys[slot];
+                }
+            }
+            maxKey = max;
+            maxKeyStale = false;
+        }
+        return maxKey;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+        modCount++;
+        mutations++;
+        maxKey = Integer.MIN_VALUE;
+        maxKeyStale = false;
+    }
+
+    /**
+     * Copies the keys and values into the given arrays, which must be at least
+     * {@link #size()} long.
+     *
+     * @param keysOut The array receiving the keys.
+     * @param valuesOut The array receiving the values.
+     * @param offset The index of the first element to write.
+     * @return The index after the last written element.
+     */
+    int copyTo(int[] keysOut, Object[] valuesOut, int offset) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (values[slot] != null) {
+                keysOut[offset] = keys[slot];
+                valuesOut[offset] = values[slot];
+                offset++;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Looks up a key without any guarantee that the map is not modified at the
+     * same time. Used for optimistic reads, the caller has to validate the
+     * result and must treat {@link #RETRY} as a failed read.
+     *
+     * @param key The key to look up.
+     * @return The value, null if the key was not found or {@link #RETRY}.
+     */
+    Object getOptimistic(int key) {
+        int[] currentKeys = keys;
+        Object[] currentValues = values;
+        if (currentKeys.length != currentValues.length) {
+            return RETRY; // caught in the middle of a resize
+        }
+        int mask = currentKeys.length - 1;
+        int slot = hash(key) & mask;
+        for (int probes = 0; probes < currentKeys.length; probes++) {
+            Object value = currentValues[slot];
+            if (value == null) {
+                return null;
+            }
+            if (currentKeys[slot] == key) {
+                return value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return RETRY;
+    }
+
+    @Override
+    public Set<Map.Entry<Integer, V>> entrySet() {
+        return new AbstractSet<Map.Entry<Integer, V>>() {
+            @Override
+            public Iterator<Map.Entry<Integer, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void clear() {
+                IntObjectMap.this.clear();
+            }
+        };
+    }
+
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void removeSlot(int slot) {
+        int mask = keys.length - 1;
+        // shift back the following entries of the probe sequence into the gap
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (values[next] != null) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                versions[gap] = versions[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = null;
+        size--;
+        modCount++;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        long[] oldVersions = versions;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                versions[slot] = oldVersions[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        // optimistic readers notice a resize in progress by the mismatching array lengths
+        keys = new int[capacity];
+        values = new Object[capacity];
+        versions = new long[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int minimum) {
+        int tableSize = MIN_CAPACITY;
+        while (tableSize < minimum) {
+            tableSize <<= 1;
+        }
+        return tableSize;
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<Integer, V>> {
+
+        private final int expectedModCount = modCount;
+        private int slot = -1;
+        private int nextSlot = advance(0);
+
+        private int advance(int from) {
+            while (from < values.length && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextSlot < values.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<Integer, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            slot = nextSlot;
+            nextSlot = advance(slot + 1);
+            return new AbstractMap.SimpleImmutableEntry<>(keys[slot], (V) values[slot]);
+        }
+    }
+}
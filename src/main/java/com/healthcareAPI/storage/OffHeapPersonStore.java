@@ -0,0 +1,455 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.storage;
+
+import com.healthcareAPI.model.Person;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Column oriented person store that keeps the records outside of the Java heap
+ * in a direct {@link ByteBuffer}. Each person takes one fixed width row holding
+ * the id, age, contact number, record version and dictionary codes for the
+ * string attributes.
+ * Person objects are only created when a record is read, which happens at
+ * serialization time when the store is iterated by the JSON writer.
+ *
+ * The rows form an open addressing hash table keyed by the person ID, so no
+ * on-heap index is needed either. All access is guarded by the store monitor.
+ * A direct buffer holds at most 2 GB, which limits the table to
+ * {@link #MAX_CAPACITY} rows and the store to {@link #MAX_SIZE} people.
+ *
+ * @author Amandha
+ */
+public class OffHeapPersonStore extends AbstractMap<Integer, Person> implements IntMap<Person> {
+
+    // row states
+    private static final byte EMPTY = 0;
+    private static final byte USED = 1;
+    private static final byte DELETED = 2;
+
+    // null markers for the nullable numeric columns
+    private static final byte AGE_PRESENT = 1;
+    private static final byte CONTACT_NO_PRESENT = 2;
+
+    // row layout
+    private static final int STATE = 0;
+    private static final int FLAGS = 1;
+    private static final int PERSON_ID = 4;
+    private static final int CONTACT_NO = 8;
+    private static final int AGE = 16;
+    private static final int GENDER = 20;
+    private static final int FIRST_NAME = 24;
+    private static final int LAST_NAME = 28;
+    private static final int ADDRESS = 32;
+    private static final int VERSION = 40;
+    private static final int ROW_SIZE = 48;
+
+    private static final int MAX_LOAD_PERCENT = 60;
+    // the largest power of two number of rows that fits in one direct buffer
+    static final int MAX_CAPACITY = Integer.highestOneBit(Integer.MAX_VALUE / ROW_SIZE);
+    static final int MAX_SIZE = (int) ((long) MAX_CAPACITY * MAX_LOAD_PERCENT / 100);
+
+    private final StringDictionary genders = new StringDictionary();
+    private final StringDictionary names = new StringDictionary();
+    private final StringDictionary addresses = new StringDictionary();
+
+    private ByteBuffer rows;
+    private int capacity;
+    private int size;
+    private int usedSlots; // live and deleted rows
+    private long mutations;
+
+    public OffHeapPersonStore() {
+        this(1024);
+    }
+
+    public OffHeapPersonStore(int expectedSize) {
+        if (expectedSize > MAX_SIZE) {
+            throw new IllegalArgumentException("The off-heap person store holds at most " + MAX_SIZE + " people, not " + expectedSize);
+        }
+        capacity = tableSizeFor(expectedSize * 100L / MAX_LOAD_PERCENT + 1);
+        rows = ByteBuffer.allocateDirect(capacity * ROW_SIZE);
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey((int) (Integer) key);
+    }
+
+    @Override
+    public synchronized boolean containsKey(int personId) {
+        return findRow(personId) >= 0;
+    }
+
+    @Override
+    public Person get(Object key) {
+        return key instanceof Integer ? get((int) (Integer) key) : null;
+    }
+
+    /**
+     * Materializes the person with the given ID.
+     *
+     * @param personId The ID of the person.
+     * @return A new Person object holding the stored values, or null if the
+     * person is not stored.
+     */
+    @Override
+    public synchronized Person get(int personId) {
+        int row = findRow(personId);
+        return row < 0 ? null : materialize(row);
+    }
+
+    @Override
+    public Person put(Integer personId, Person person) {
+        return put((int) personId, person);
+    }
+
+    @Override
+    public synchronized Person put(int personId, Person person) {
+        if (person == null) {
+            throw new NullPointerException("Person cannot be null");
+        }
+        int row = findRow(personId);
+        Person previous = null;
+        if (row >= 0) {
+            previous = materialize(row);
+            releaseStrings(row);
+        } else {
+            if ((usedSlots + 1) * 100L > (long) capacity * MAX_LOAD_PERCENT) {
+                // grow when live rows fill most of the table, otherwise only purge deleted rows
+                boolean grow = (size + 1) * 200L > (long) capacity * MAX_LOAD_PERCENT;
+                if (grow && capacity == MAX_CAPACITY) {
+                    if (size >= MAX_SIZE) {
+                        throw new IllegalStateException("The off-heap person store is full, it holds at most " + MAX_SIZE + " people");
+                    }
+                    grow = false; // the buffer can not grow any more, fill it up to the load limit
+                }
+                rehash(grow ? capacity * 2 : capacity);
+            }
+            row = insertionRow(personId);
+            if (rows.get(row + STATE) == EMPTY) {
+                usedSlots++;
+            }
+            size++;
+        }
+        writeRow(row, personId, person, ++mutations);
+        return previous;
+    }
+
+    @Override
+    public synchronized boolean putIfVersion(int personId, Person person, long expectedVersion) {
+        if (version(personId) != expectedVersion) {
+            return false;
+        }
+        put(personId, person);
+        return true;
+    }
+
+    @Override
+    public Person remove(Object key) {
+        return key instanceof Integer ? remove((int) (Integer) key) : null;
+    }
+
+    /**
+     * Removes the person with the given ID.
+     *
+     * @param personId The ID of the person to remove.
+     * @return The removed person, or null if the person was not stored.
+     */
+    @Override
+    public synchronized Person remove(int personId) {
+        int row = findRow(personId);
+        if (row < 0) {
+            return null;
+        }
+        Person removed = materialize(row);
+        releaseStrings(row);
+        rows.put(row + STATE, DELETED);
+        size--;
+        mutations++;
+        return removed;
+    }
+
+    @Override
+    public synchronized boolean removeIfVersion(int personId, long expectedVersion) {
+        int row = findRow(personId);
+        if (row < 0 || rows.getLong(row + VERSION) != expectedVersion) {
+            return false;
+        }
+        remove(personId);
+        return true;
+    }
+
+    @Override
+    public synchronized long version(int personId) {
+        int row = findRow(personId);
+        return row < 0 ? 0L : rows.getLong(row + VERSION);
+    }
+
+    @Override
+    public synchronized Versioned<Person> getVersioned(int personId) {
+        int row = findRow(personId);
+        return row < 0 ? null : new Versioned<>(materialize(row), rows.getLong(row + VERSION));
+    }
+
+    @Override
+    public synchronized long mutationVersion() {
+        return mutations;
+    }
+
+    @Override
+    public synchronized int maxKey() {
+        int max = Integer.MIN_VALUE;
+        for (int row = 0; row < capacity * ROW_SIZE; row += ROW_SIZE) {
+            if (rows.get(row + STATE) == USED) {
+                max = Math.max(max, rows.getInt(row + PERSON_ID));
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (int row = 0; row < capacity * ROW_SIZE; row += ROW_SIZE) {
+            if (rows.get(row + STATE) == USED) {
+                releaseStrings(row);
+            }
+            rows.put(row + STATE, EMPTY);
+        }
+        size = 0;
+        usedSlots = 0;
+        mutations++;
+    }
+
+    /**
+     * Searches the store by scanning the columns directly. The numeric columns
+     * are checked first and the strings are only decoded for rows that are
+     * still candidates, so Person objects are created for matches only.
+     *
+     * @param firstName The first name to match (case-insensitive), or null.
+     * @param lastName The last name to match (case-insensitive), or null.
+     * @param minAge The minimum age to match, or null.
+     * @param maxAge The maximum age to match, or null.
+     * @param gender The gender to match (case-insensitive), or null.
+     * @return The matching people.
+     */
+    public synchronized List<Person> search(String firstName, String lastName, Integer minAge, Integer maxAge, String gender) {
+        List<Person> matchingPeople = new ArrayList<>();
+        for (int row = 0; row < capacity * ROW_SIZE; row += ROW_SIZE) {
+            if (rows.get(row + STATE) != USED) {
+                continue;
+            }
+            if (minAge != null || maxAge != null) {
+                if ((rows.get(row + FLAGS) & AGE_PRESENT) == 0) {
+                    continue; // a missing age never matches an age range
+                }
+                int age = rows.getInt(row + AGE);
+                if ((minAge != null && age < minAge) || (maxAge != null && age > maxAge)) {
+                    continue;
+                }
+            }
+            if (matches(gender, genders, row + GENDER)
+                    && matches(firstName, names, row + FIRST_NAME)
+                    && matches(lastName, names, row + LAST_NAME)) {
+                matchingPeople.add(materialize(row));
+            }
+        }
+        return matchingPeople;
+    }
+
+    @Override
+    public Set<Map.Entry<Integer, Person>> entrySet() {
+        return new AbstractSet<Map.Entry<Integer, Person>>() {
+            @Override
+            public Iterator<Map.Entry<Integer, Person>> iterator() {
+                return new EntryIterator(personIds());
+            }
+
+            @Override
+            public int size() {
+                return OffHeapPersonStore.this.size();
+            }
+        };
+    }
+
+    /**
+     * Returns the IDs of all stored people at the time of the call.
+     */
+    private synchronized int[] personIds() {
+        int[] ids = new int[size];
+        int count = 0;
+        for (int row = 0; row < capacity * ROW_SIZE; row += ROW_SIZE) {
+            if (rows.get(row + STATE) == USED) {
+                ids[count++] = rows.getInt(row + PERSON_ID);
+            }
+        }
+        return ids;
+    }
+
+    private boolean matches(String criteria, StringDictionary dictionary, int offset) {
+        return criteria == null || criteria.equalsIgnoreCase(dictionary.decode(rows.getInt(offset)));
+    }
+
+    private int findRow(int personId) {
+        int mask = capacity - 1;
+        for (int slot = hash(personId) & mask;; slot = (slot + 1) & mask) {
+            int row = slot * ROW_SIZE;
+            byte state = rows.get(row + STATE);
+            if (state == EMPTY) {
+                return -1;
+            }
+            if (state == USED && rows.getInt(row + PERSON_ID) == personId) {
+                return row;
+            }
+        }
+    }
+
+    private int insertionRow(int personId) {
+        int mask = capacity - 1;
+        for (int slot = hash(personId) & mask;; slot = (slot + 1) & mask) {
+            int row = slot * ROW_SIZE;
+            if (rows.get(row + STATE) != USED) {
+                return row;
+            }
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        ByteBuffer oldRows = rows;
+        int oldCapacity = capacity;
+
+        rows = ByteBuffer.allocateDirect(newCapacity * ROW_SIZE);
+        capacity = newCapacity;
+        usedSlots = size;
+
+        // copy the live rows as they are, the dictionary references move with them
+        for (int oldRow = 0; oldRow < oldCapacity * ROW_SIZE; oldRow += ROW_SIZE) {
+            if (oldRows.get(oldRow + STATE) == USED) {
+                int row = insertionRow(oldRows.getInt(oldRow + PERSON_ID));
+                for (int i = 0; i < ROW_SIZE; i += 4) {
+                    rows.putInt(row + i, oldRows.getInt(oldRow + i));
+                }
+            }
+        }
+    }
+
+    private void writeRow(int row, int personId, Person person, long version) {
+        byte flags = 0;
+        if (person.getAge() != null) {
+            flags |= AGE_PRESENT;
+        }
+        if (person.getContactNo() != null) {
+            flags |= CONTACT_NO_PRESENT;
+        }
+        rows.put(row + STATE, USED);
+        rows.put(row + FLAGS, flags);
+        rows.putInt(row + PERSON_ID, personId);
+        rows.putLong(row + CONTACT_NO, person.getContactNo() != null ? person.getContactNo() : 0L);
+        rows.putInt(row + AGE, person.getAge() != null ? person.getAge() : 0);
+        rows.putInt(row + GENDER, genders.encode(person.getGender()));
+        rows.putInt(row + FIRST_NAME, names.encode(person.getFirstName()));
+        rows.putInt(row + LAST_NAME, names.encode(person.getLastName()));
+        rows.putInt(row + ADDRESS, addresses.encode(person.getAddress()));
+        rows.putLong(row + VERSION, version);
+    }
+
+    private void releaseStrings(int row) {
+        genders.release(rows.getInt(row + GENDER));
+        names.release(rows.getInt(row + FIRST_NAME));
+        names.release(rows.getInt(row + LAST_NAME));
+        addresses.release(rows.getInt(row + ADDRESS));
+    }
+
+    private Person materialize(int row) {
+        byte flags = rows.get(row + FLAGS);
+        Person person = new Person();
+        person.setPersonId(rows.getInt(row + PERSON_ID));
+        person.setFirstName(names.decode(rows.getInt(row + FIRST_NAME)));
+        person.setLastName(names.decode(rows.getInt(row + LAST_NAME)));
+        person.setAddress(addresses.decode(rows.getInt(row + ADDRESS)));
+        person.setGender(genders.decode(rows.getInt(row + GENDER)));
+        if ((flags & AGE_PRESENT) != 0) {
+            person.setAge(rows.getInt(row + AGE));
+        }
+        if ((flags & CONTACT_NO_PRESENT) != 0) {
+            person.setContactNo(rows.getLong(row + CONTACT_NO));
+        }
+        return person;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(long minimum) {
+        int tableSize = 16;
+        while (tableSize < minimum) {
+            tableSize <<= 1;
+        }
+        return tableSize;
+    }
+
+    /**
+     * Iterates over a snapshot of the person IDs and materializes each person
+     * lazily, skipping people that were removed in the meantime.
+     */
+    private class EntryIterator implements Iterator<Map.Entry<Integer, Person>> {
+
+        private final int[] ids;
+        private int index;
+        private Map.Entry<Integer, Person> next;
+        private Integer lastReturned;
+
+        EntryIterator(int[] ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && index < ids.length) {
+                int personId = ids[index++];
+                Person person = get(personId);
+                if (person != null) {
+                    next = new AbstractMap.SimpleImmutableEntry<>(personId, person);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<Integer, Person> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<Integer, Person> entry = next;
+            next = null;
+            lastReturned = entry.getKey();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            OffHeapPersonStore.this.remove((int) lastReturned);
+            lastReturned = null;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.storage;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers the IDs matched by recent searches of one table, keyed by the
+ * normalized search criteria. Every entry carries the
+ * {@link IntMap#mutationVersion() mutation version} of the table it was
+ * computed at and is only used while the table is still at that version, so
+ * any write to the table makes the cached results of the table stale and a
+ * cached result is always the one a fresh scan would return.
+ * <p>
+ * The cache keeps the most recently used entries, up to the number set with
+ * the healthcare.searchCache.maxEntries system property (1024 by default). It
+ * is turned off with healthcare.searchCache=false or a maximum of 0, then every
+ * search scans its table.
+ *
+ * @author Amandha
+ * @param <V> The type of the stored records.
+ */
+public final class SearchCache<V> {
+
+    private static final int MAX_ENTRIES = Integer.getInteger("healthcare.searchCache.maxEntries", 1024);
+    public static final boolean ENABLED = MAX_ENTRIES > 0 && !"false".equals(System.getProperty("healthcare.searchCache"));
+
+    private final IntMap<V> table;
+    private final Map<String, CachedIds> entries = new LinkedHashMap<String, CachedIds>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedIds> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private static final class CachedIds {
+
+        final long version;
+        final int[] ids;
+
+        CachedIds(long version, int[] ids) {
+            this.version = version;
+            this.ids = ids;
+        }
+    }
+
+    /**
+     * Creates a cache of the searches of a table.
+     *
+     * @param table The searched table.
+     */
+    public SearchCache(IntMap<V> table) {
+        this.table = table;
+    }
+
+    /**
+     * Returns the cached result of a search if the table has not been written
+     * since it was computed. The version is checked again after the records
+     * are read, so a write that lands in between makes the result stale
+     * instead of mixing two versions of the table.
+     *
+     * @param key The normalized criteria, from {@link #key(Object...)}.
+     * @return The matching records in the order of the original scan, or null
+     * if the result is not cached or stale.
+     */
+    public List<V> get(String key) {
+        if (!ENABLED) {
+            return null;
+        }
+        long version = table.mutationVersion();
+        CachedIds cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached == null || cached.version != version) {
+            return null;
+        }
+        List<V> records = new ArrayList<>(cached.ids.length);
+        for (int id : cached.ids) {
+            V record = table.get(id);
+            if (record == null) {
+                return null; // removed since the version check
+            }
+            records.add(record);
+        }
+        if (table.mutationVersion() != version) {
+            return null; // written while the records were read, the caller scans again
+        }
+        return records;
+    }
+
+    /**
+     * Returns the mutation version to pass to {@link #put}. It must be taken
+     * before the scan, so a write during the scan leaves the result stale.
+     *
+     * @return The current mutation version of the table.
+     */
+    public long version() {
+        return table.mutationVersion();
+    }
+
+    /**
+     * Caches the result of a search.
+     *
+     * @param key The normalized criteria, from {@link #key(Object...)}.
+     * @param version The mutation version taken before the scan.
+     * @param ids The IDs of the matching records, in scan order.
+     */
+    public void put(String key, long version, int[] ids) {
+        if (!ENABLED) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new CachedIds(version, ids));
+        }
+    }
+
+    /**
+     * Builds the cache key of a search. Strings are folded the same way as
+     * {@link String#equalsIgnoreCase(String)} compares them, so criteria that
+     * match the same records share a key, and a missing criterion stays
+     * distinct from an empty one.
+     *
+     * @param criteria The criteria, in a fixed order per search.
+     * @return The key.
+     */
+    public static String key(Object... criteria) {
+        StringBuilder key = new StringBuilder(64);
+        for (Object criterion : criteria) {
+            if (criterion == null) {
+                key.append('\u0001');
+            } else if (criterion instanceof String) {
+                String value = (String) criterion;
+                for (int i = 0; i < value.length(); i++) {
+                    key.append(Character.toLowerCase(Character.toUpperCase(value.charAt(i))));
+                }
+            } else {
+                key.append(criterion);
+            }
+            key.append('\u0000');
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.storage;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread safe dictionary for attribute values that repeat across many records,
+ * such as genders or blood groups. Every distinct value is kept as one shared
+ * String instance, so stored records reference the same instance. The searches
+ * look their criteria up here as well, so a criterion with the stored case is
+ * the stored instance and {@link String#equalsIgnoreCase(String)} returns on
+ * its reference check.
+ *
+ * The dictionary only grows up to its capacity. Values seen after that are
+ * returned unchanged, which keeps free text from flooding it.
+ *
+ * @author Amandha
+ */
+public class SharedDictionary {
+
+    private final int capacity;
+    private final ConcurrentMap<String, String> entries = new ConcurrentHashMap<>();
+
+    public SharedDictionary(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the shared instance of the given value, adding the value to the
+     * dictionary when it is not known yet and there is room left.
+     *
+     * @param value The value to canonicalize, may be null.
+     * @return The shared instance, or the value itself if it could not be
+     * added.
+     */
+    public String canonicalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String shared = entries.get(value);
+        if (shared == null) {
+            if (entries.size() >= capacity) {
+                return value;
+            }
+            shared = entries.computeIfAbsent(value, key -> key);
+        }
+        return shared;
+    }
+
+    /**
+     * Returns the shared instance of the given value without adding it to the
+     * dictionary. Used for search criteria, which should not grow the
+     * dictionary.
+     *
+     * @param value The value to look up, may be null.
+     * @return The shared instance, or the value itself if it is not known.
+     */
+    public String lookup(String value) {
+        if (value == null) {
+            return null;
+        }
+        String shared = entries.get(value);
+        return shared != null ? shared : value;
+    }
+
+    /**
+     * Returns the number of distinct values in the dictionary.
+     *
+     * @return The number of distinct values.
+     */
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.storage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dictionary that maps strings to small integer codes so that columnar stores
+ * only have to keep a fixed width code per value. Codes are reference counted
+ * and recycled once no row uses them anymore.
+ *
+ * This class is not thread safe, callers are expected to guard it with the
+ * lock of the store that owns it.
+ *
+ * @author Amandha
+ */
+public class StringDictionary {
+
+    public static final int NULL_CODE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] values = new String[16];
+    private int[] references = new int[16];
+    private int[] freeCodes = new int[16];
+    private int freeCount;
+    private int nextCode;
+
+    /**
+     * Returns the code of the given value, adding it to the dictionary when it
+     * is not present yet. Every call takes a reference on the code which has to
+     * be given back with {@link #release(int)}.
+     *
+     * @param value The value to encode, may be null.
+     * @return The code of the value, or {@link #NULL_CODE} for null.
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = freeCount > 0 ? freeCodes[--freeCount] : nextCode++;
+            ensureCapacity(code + 1);
+            values[code] = value;
+            codes.put(value, code);
+        }
+        references[code]++;
+        return code;
+    }
+
+    /**
+     * Returns the value stored for the given code.
+     *
+     * @param code The code to decode.
+     * @return The value of the code, or null for {@link #NULL_CODE}.
+     */
+    public String decode(int code) {
+        return code == NULL_CODE ? null : values[code];
+    }
+
+    /**
+     * Releases one reference on the given code. The value is removed from the
+     * dictionary once the last reference is released.
+     *
+     * @param code The code to release.
+     */
+    public void release(int code) {
+        if (code == NULL_CODE) {
+            return;
+        }
+        if (--references[code] == 0) {
+            codes.remove(values[code]);
+            values[code] = null;
+            if (freeCount == freeCodes.length) {
+                freeCodes = Arrays.copyOf(freeCodes, freeCount * 2);
+            }
+            freeCodes[freeCount++] = code;
+        }
+    }
+
+    /**
+     * Returns the number of distinct values currently in the dictionary.
+     *
+     * @return The number of distinct values.
+     */
+    public int size() {
+        return codes.size();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > values.length) {
+            int newLength = Math.max(capacity, values.length * 2);
+            values = Arrays.copyOf(values, newLength);
+            references = Arrays.copyOf(references, newLength);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.storage;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Creates the tables of the DAOs according to the configured storage mode,
+ * which is read from the {@code healthcare.storage.mode} system property.
+ * <ul>
+ * <li>{@code striped} (default): {@link ConcurrentIntObjectMap}, lock striped
+ * tables that are updated in place and iterated weakly consistently.</li>
+ * <li>{@code mvcc}: {@link VersionedIntMap}, readers work on immutable
+ * snapshots and writers install new versions atomically. Every write copies
+ * the path to the changed entry, so it suits read heavy deployments that
+ * need scans to see one version of a table.</li>
+ * </ul>
+ * A table created with a name can be looked up by it, so code outside its DAO
+ * can tell whether it was written, see {@link #mutationVersion(String...)}.
+ *
+ * @author Amandha
+ */
+public final class Tables {
+
+    public static final String MODE_MVCC = "mvcc";
+    public static final String MODE_STRIPED = "striped";
+
+    public static final String PATIENTS = "patients";
+    public static final String DOCTORS = "doctors";
+    public static final String APPOINTMENTS = "appointments";
+    public static final String PRESCRIPTIONS = "prescriptions";
+    public static final String BILLS = "bills";
+    public static final String MEDICAL_RECORDS = "medicalRecords";
+
+    private static final String MODE = System.getProperty("healthcare.storage.mode", MODE_STRIPED);
+    private static final ConcurrentMap<String, IntMap<?>> NAMED = new ConcurrentHashMap<>();
+
+    private Tables() {
+    }
+
+    /**
+     * Creates a new, empty table.
+     *
+     * @param <V> The type of the stored records.
+     * @return The table.
+     */
+    public static <V> IntMap<V> newTable() {
+        if (MODE_MVCC.equalsIgnoreCase(MODE)) {
+            return new VersionedIntMap<>();
+        }
+        return new ConcurrentIntObjectMap<>();
+    }
+
+    /**
+     * Creates a new, empty table that can be looked up by its name.
+     *
+     * @param <V> The type of the stored records.
+     * @param name The name of the table.
+     * @return The table.
+     */
+    public static <V> IntMap<V> newTable(String name) {
+        IntMap<V> table = newTable();
+        NAMED.put(name, table);
+        return table;
+    }
+
+    /**
+     * Returns the sum of the mutation versions of named tables. It grows with
+     * every write to any of them, so two equal sums mean none of the tables
+     * was written in between. A table that was not created yet counts as 0.
+     *
+     * @param names The names of the tables.
+     * @return The sum of their mutation versions.
+     */
+    public static long mutationVersion(String... names) {
+        long version = 0;
+        for (String name : names) {
+            IntMap<?> table = NAMED.get(name);
+            if (table != null) {
+                version += table.mutationVersion();
+            }
+        }
+        return version;
+    }
+
+    /**
+     * Returns the configured storage mode.
+     *
+     * @return The storage mode.
+     */
+    public static String getMode() {
+        return MODE_MVCC.equalsIgnoreCase(MODE) ? MODE_MVCC : MODE_STRIPED;
+    }
+}
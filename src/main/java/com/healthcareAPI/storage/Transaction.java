@@ -0,0 +1,219 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.storage;
+
+import com.healthcareAPI.exception.TransactionConflictException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A unit of work across one or more transactional tables. Reads see the
+ * writes made earlier in the same transaction, all writes stay buffered until
+ * {@link #commit()}. A transaction is used by a single thread and committed at
+ * most once.
+ *
+ * @author Amandha
+ * @see TransactionManager
+ */
+public final class Transaction {
+
+    // the writes are scanned up to this many, and looked up by table and key beyond it
+    private static final int INDEX_THRESHOLD = 8;
+
+    private int[] readStripes = new int[8];
+    private long[] readVersions = new long[8];
+    private int readCount;
+    private final List<Write> writes = new ArrayList<>();
+    private Map<Long, Write> writeIndex;
+    private List<Runnable> afterCommit;
+    private boolean finished;
+
+    Transaction() {
+    }
+
+    /**
+     * Reads a record and remembers its version, the commit fails if the record
+     * is changed by someone else before that.
+     *
+     * @param <V> The type of the stored records.
+     * @param table The table to read from.
+     * @param key The key of the record.
+     * @return The record, or null if it does not exist.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V read(TransactionalIntMap<V> table, int key) {
+        checkActive();
+        Write write = findWrite(table, key);
+        if (write != null) {
+            return (V) write.value;
+        }
+        int stripe = table.stripe(key);
+        if (readCount == readStripes.length) {
+            readStripes = Arrays.copyOf(readStripes, readCount * 2);
+            readVersions = Arrays.copyOf(readVersions, readCount * 2);
+        }
+        // the version is taken before the value, so a concurrent write always fails the validation
+        readStripes[readCount] = stripe;
+        readVersions[readCount] = TransactionManager.version(stripe);
+        readCount++;
+        return table.getDelegate().get(key);
+    }
+
+    /**
+     * Buffers a write of a record.
+     *
+     * @param <V> The type of the stored records.
+     * @param table The table to write to.
+     * @param key The key of the record.
+     * @param value The new record, must not be null.
+     */
+    public <V> void write(TransactionalIntMap<V> table, int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Null values are not supported, use delete()");
+        }
+        buffer(table, key, value);
+    }
+
+    /**
+     * Buffers the deletion of a record.
+     *
+     * @param table The table to delete from.
+     * @param key The key of the record.
+     */
+    public void delete(TransactionalIntMap<?> table, int key) {
+        buffer(table, key, null);
+    }
+
+    /**
+     * Registers an action to run once the transaction has committed and its
+     * writes are visible, such as dropping cached copies of the written
+     * records. The action does not run if the commit fails.
+     *
+     * @param action The action.
+     */
+    public void afterCommit(Runnable action) {
+        checkActive();
+        if (afterCommit == null) {
+            afterCommit = new ArrayList<>(2);
+        }
+        afterCommit.add(action);
+    }
+
+    /**
+     * Validates the reads and applies the buffered writes atomically.
+     *
+     * @throws TransactionConflictException If a record read by this
+     * transaction was changed by another writer. Nothing is written in that
+     * case.
+     */
+    @SuppressWarnings("unchecked")
+    public void commit() {
+        checkActive();
+        finished = true;
+        if (writes.isEmpty()) {
+            return; // nothing to apply, the reads were consistent when they were made
+        }
+
+        int[] stripes = new int[readCount + writes.size()];
+        System.arraycopy(readStripes, 0, stripes, 0, readCount);
+        for (int i = 0; i < writes.size(); i++) {
+            stripes[readCount + i] = writes.get(i).stripe;
+        }
+        Arrays.sort(stripes);
+
+        int locked = 0;
+        try {
+            // lock in ascending order, so concurrent commits can not deadlock
+            for (int i = 0; i < stripes.length; i++) {
+                if (i == 0 || stripes[i] != stripes[i - 1]) {
+                    TransactionManager.lock(stripes[i]);
+                    stripes[locked++] = stripes[i];
+                }
+            }
+            for (int i = 0; i < readCount; i++) {
+                if (TransactionManager.version(readStripes[i]) != readVersions[i]) {
+                    throw new TransactionConflictException("The records were changed by a concurrent request, please retry");
+                }
+            }
+            for (Write write : writes) {
+                IntMap<Object> table = (IntMap<Object>) write.table.getDelegate();
+                if (write.value != null) {
+                    table.put(write.key, write.value);
+                } else {
+                    table.remove(write.key);
+                }
+                TransactionManager.bump(write.stripe);
+            }
+        } finally {
+            while (locked > 0) {
+                TransactionManager.unlock(stripes[--locked]);
+            }
+        }
+        if (afterCommit != null) {
+            afterCommit.forEach(Runnable::run);
+        }
+    }
+
+    private void buffer(TransactionalIntMap<?> table, int key, Object value) {
+        checkActive();
+        Write write = findWrite(table, key);
+        if (write != null) {
+            write.value = value;
+            return;
+        }
+        write = new Write(table, key, value);
+        writes.add(write);
+        if (writeIndex != null) {
+            writeIndex.put(indexKey(table, key), write);
+        } else if (writes.size() > INDEX_THRESHOLD) {
+            // a bulk write, index the writes so each lookup does not scan all of them
+            writeIndex = new HashMap<>(writes.size() * 4);
+            for (Write buffered : writes) {
+                writeIndex.put(indexKey(buffered.table, buffered.key), buffered);
+            }
+        }
+    }
+
+    private Write findWrite(TransactionalIntMap<?> table, int key) {
+        if (writeIndex != null) {
+            return writeIndex.get(indexKey(table, key));
+        }
+        // most transactions touch a handful of records, a linear scan beats a map there
+        for (Write write : writes) {
+            if (write.key == key && write.table == table) {
+                return write;
+            }
+        }
+        return null;
+    }
+
+    private static long indexKey(TransactionalIntMap<?> table, int key) {
+        return (long) table.tableId() << 32 | (key & 0xFFFFFFFFL);
+    }
+
+    private void checkActive() {
+        if (finished) {
+            throw new IllegalStateException("The transaction has already been committed");
+        }
+    }
+
+    private static final class Write {
+
+        final TransactionalIntMap<?> table;
+        final int key;
+        final int stripe;
+        Object value; // null for a delete
+
+        Write(TransactionalIntMap<?> table, int key, Object value) {
+            this.table = table;
+            this.key = key;
+            this.stripe = table.stripe(key);
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.storage;
+
+import com.healthcareAPI.exception.TransactionConflictException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Optimistic transactions across the DAO tables. A {@link Transaction} buffers
+ * its writes and remembers the version of every record it reads. On commit
+ * it locks the touched records, checks that none of the read records changed
+ * in the meantime and applies all writes before releasing the locks, so a
+ * compound write either happens completely or not at all.
+ *
+ * Records are mapped onto a fixed set of lock stripes, each with its own
+ * version counter. Transactions on unrelated records therefore commit in
+ * parallel, and the stripes are always locked in ascending order so two
+ * commits can never deadlock. Only tables created with {@link #manage} take
+ * part in transactions, their plain writes go through the same stripes.
+ *
+ * @author Amandha
+ */
+public final class TransactionManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransactionManager.class);
+
+    public static final int MAX_ATTEMPTS = 16;
+
+    static final int STRIPES = 1024;
+    private static final int PADDING = 8; // keep the version counters of neighbouring stripes on separate cache lines
+
+    private static final ReentrantLock[] LOCKS = new ReentrantLock[STRIPES];
+    private static final AtomicLongArray VERSIONS = new AtomicLongArray(STRIPES * PADDING);
+    private static final AtomicInteger TABLE_IDS = new AtomicInteger();
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            LOCKS[i] = new ReentrantLock();
+        }
+    }
+
+    private TransactionManager() {
+    }
+
+    /**
+     * Wraps a table so that it can take part in transactions.
+     *
+     * @param <V> The type of the stored records.
+     * @param table The table to wrap.
+     * @return The transactional table.
+     */
+    public static <V> TransactionalIntMap<V> manage(IntMap<V> table) {
+        return new TransactionalIntMap<>(TABLE_IDS.incrementAndGet(), table);
+    }
+
+    /**
+     * Starts a new transaction. The caller is responsible for committing it.
+     *
+     * @return The transaction.
+     */
+    public static Transaction begin() {
+        return new Transaction();
+    }
+
+    /**
+     * Runs the given work in a transaction and commits it. The work is run
+     * again in a new transaction when the commit conflicts with another
+     * writer, so it must not have side effects outside the transaction.
+     *
+     * @param <T> The result type of the work.
+     * @param work The work to run.
+     * @return The result of the committed attempt.
+     * @throws TransactionConflictException If the transaction still conflicts
+     * after {@link #MAX_ATTEMPTS} attempts.
+     */
+    public static <T> T execute(Function<Transaction, T> work) {
+        for (int attempt = 1;; attempt++) {
+            Transaction transaction = begin();
+            T result = work.apply(transaction);
+            try {
+                transaction.commit();
+                return result;
+            } catch (TransactionConflictException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    LOGGER.error("Transaction gave up after {} attempts", attempt);
+                    throw e;
+                }
+                LOGGER.debug("Transaction conflict on attempt {}, retrying", attempt);
+                // randomized exponential backoff so the conflicting writers do not meet again
+                long maxPause = 1000L << Math.min(attempt, 10);
+                LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(maxPause));
+            }
+        }
+    }
+
+    static int stripe(int tableId, int key) {
+        return IntObjectMap.hash(key * 31 + tableId) & (STRIPES - 1);
+    }
+
+    static long version(int stripe) {
+        return VERSIONS.get(stripe * PADDING);
+    }
+
+    static void bump(int stripe) {
+        VERSIONS.incrementAndGet(stripe * PADDING);
+    }
+
+    static void lock(int stripe) {
+        LOCKS[stripe].lock();
+    }
+
+    static void unlock(int stripe) {
+        LOCKS[stripe].unlock();
+    }
+
+    static void lockAll() {
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            LOCKS[stripe].lock();
+        }
+    }
+
+    static void unlockAll() {
+        for (int stripe = STRIPES - 1; stripe >= 0; stripe--) {
+            LOCKS[stripe].unlock();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.storage;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A table taking part in transactions. Reads go straight to the wrapped
+ * table, while every write locks the stripe of its record and advances the
+ * stripe version, so plain writes and transaction commits never interleave on
+ * the same record.
+ *
+ * @author Amandha
+ * @param <V> The type of the stored records.
+ * @see TransactionManager#manage(IntMap)
+ */
+public final class TransactionalIntMap<V> extends AbstractMap<Integer, V> implements IntMap<V> {
+
+    private final int tableId;
+    private final IntMap<V> delegate;
+
+    TransactionalIntMap(int tableId, IntMap<V> delegate) {
+        this.tableId = tableId;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Returns the wrapped table. Writes to it bypass the transaction locks.
+     *
+     * @return The wrapped table.
+     */
+    public IntMap<V> getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return delegate.isEmpty();
+    }
+
+    @Override
+    public V get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public V get(int key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return delegate.containsKey(key);
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return delegate.containsKey(key);
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return put((int) key, value);
+    }
+
+    @Override
+    public V put(int key, V value) {
+        int stripe = stripe(key);
+        TransactionManager.lock(stripe);
+        try {
+            V previous = delegate.put(key, value);
+            TransactionManager.bump(stripe);
+            return previous;
+        } finally {
+            TransactionManager.unlock(stripe);
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Integer ? remove((int) (Integer) key) : null;
+    }
+
+    @Override
+    public V remove(int key) {
+        int stripe = stripe(key);
+        TransactionManager.lock(stripe);
+        try {
+            V removed = delegate.remove(key);
+            if (removed != null) {
+                TransactionManager.bump(stripe);
+            }
+            return removed;
+        } finally {
+            TransactionManager.unlock(stripe);
+        }
+    }
+
+    @Override
+    public boolean putIfVersion(int key, V value, long expectedVersion) {
+        int stripe = stripe(key);
+        TransactionManager.lock(stripe);
+        try {
+            boolean stored = delegate.putIfVersion(key, value, expectedVersion);
+            if (stored) {
+                TransactionManager.bump(stripe);
+            }
+            return stored;
+        } finally {
+            TransactionManager.unlock(stripe);
+        }
+    }
+
+    @Override
+    public boolean removeIfVersion(int key, long expectedVersion) {
+        int stripe = stripe(key);
+        TransactionManager.lock(stripe);
+        try {
+            boolean removed = delegate.removeIfVersion(key, expectedVersion);
+            if (removed) {
+                TransactionManager.bump(stripe);
+            }
+            return removed;
+        } finally {
+            TransactionManager.unlock(stripe);
+        }
+    }
+
+    @Override
+    public int maxKey() {
+        return delegate.maxKey();
+    }
+
+    @Override
+    public long version(int key) {
+        return delegate.version(key);
+    }
+
+    @Override
+    public Versioned<V> getVersioned(int key) {
+        return delegate.getVersioned(key);
+    }
+
+    @Override
+    public long mutationVersion() {
+        return delegate.mutationVersion();
+    }
+
+    @Override
+    public void clear() {
+        TransactionManager.lockAll();
+        try {
+            delegate.clear();
+            for (int stripe = 0; stripe < TransactionManager.STRIPES; stripe++) {
+                TransactionManager.bump(stripe);
+            }
+        } finally {
+            TransactionManager.unlockAll();
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<Integer, V>> entrySet() {
+        return new AbstractSet<Map.Entry<Integer, V>>() {
+            @Override
+            public Iterator<Map.Entry<Integer, V>> iterator() {
+                Iterator<Map.Entry<Integer, V>> entries = delegate.entrySet().iterator();
+                return new Iterator<Map.Entry<Integer, V>>() {
+                    private Map.Entry<Integer, V> last;
+
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<Integer, V> next() {
+                        last = entries.next();
+                        return last;
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last == null) {
+                            throw new IllegalStateException();
+                        }
+                        TransactionalIntMap.this.remove((int) last.getKey());
+                        last = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return delegate.size();
+            }
+
+            @Override
+            public void clear() {
+                TransactionalIntMap.this.clear();
+            }
+        };
+    }
+
+    int stripe(int key) {
+        return TransactionManager.stripe(tableId, key);
+    }
+
+    int tableId() {
+        return tableId;
+    }
+}
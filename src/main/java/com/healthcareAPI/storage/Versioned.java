@@ -0,0 +1,31 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.storage;
+
+/**
+ * A stored value together with the version it was read at.
+ *
+ * @author Amandha
+ * @param <V> The type of the value.
+ * @see IntMap#getVersioned(int)
+ */
+public final class Versioned<V> {
+
+    private final V value;
+    private final long version;
+
+    public Versioned(V value, long version) {
+        this.value = value;
+        this.version = version;
+    }
+
+    public V getValue() {
+        return value;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,531 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package com.healthcareAPI.storage;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Multi-version int keyed map. The contents are held in an immutable hash trie
+ * and every write installs a new {@link Snapshot} with a single compare and
+ * set, copying only the path from the root to the changed entry. Readers take
+ * the current snapshot and keep reading that version, no matter how many
+ * writes happen in the meantime.
+ *
+ * Iterating the map always walks one snapshot, so long scans never block
+ * writers, never throw a {@link java.util.ConcurrentModificationException} and
+ * never observe a partially applied write. Each entry keeps the version of
+ * the snapshot that wrote it, which serves as the version of the record.
+ *
+ * @author Amandha
+ * @param <V> The type of the stored values.
+ */
+public class VersionedIntMap<V> extends AbstractMap<Integer, V> implements IntMap<V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int MAX_DEPTH = 8;
+
+    private static final Node EMPTY = new Node(0, new Object[0]);
+
+    private final AtomicReference<Snapshot<V>> current = new AtomicReference<>(new Snapshot<>(EMPTY, 0, 0L, Integer.MIN_VALUE));
+
+    /**
+     * Returns the current version of the map. The snapshot is immutable and
+     * stays valid for as long as the caller holds on to it.
+     *
+     * @return The current snapshot.
+     */
+    public Snapshot<V> snapshot() {
+        return current.get();
+    }
+
+    @Override
+    public int size() {
+        return current.get().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return current.get().isEmpty();
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer ? get((int) (Integer) key) : null;
+    }
+
+    @Override
+    public V get(int key) {
+        return current.get().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey((int) (Integer) key);
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return current.get().get(key) != null;
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return put((int) key, value);
+    }
+
+    @Override
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Null values are not supported");
+        }
+        int hash = IntObjectMap.hash(key);
+        while (true) {
+            Snapshot<V> snapshot = current.get();
+            V previous = snapshot.get(key);
+            if (install(snapshot, key, hash, value, previous == null)) {
+                return previous;
+            }
+        }
+    }
+
+    @Override
+    public boolean putIfVersion(int key, V value, long expectedVersion) {
+        if (value == null) {
+            throw new NullPointerException("Null values are not supported");
+        }
+        int hash = IntObjectMap.hash(key);
+        while (true) {
+            Snapshot<V> snapshot = current.get();
+            Leaf existing = snapshot.leaf(key);
+            if ((existing == null ? 0L : existing.version) != expectedVersion) {
+                return false;
+            }
+            if (install(snapshot, key, hash, value, existing == null)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Integer ? remove((int) (Integer) key) : null;
+    }
+
+    @Override
+    public V remove(int key) {
+        int hash = IntObjectMap.hash(key);
+        while (true) {
+            Snapshot<V> snapshot = current.get();
+            V previous = snapshot.get(key);
+            if (previous == null) {
+                return null;
+            }
+            if (uninstall(snapshot, key, hash)) {
+                return previous;
+            }
+        }
+    }
+
+    @Override
+    public boolean removeIfVersion(int key, long expectedVersion) {
+        int hash = IntObjectMap.hash(key);
+        while (true) {
+            Snapshot<V> snapshot = current.get();
+            Leaf existing = snapshot.leaf(key);
+            if (existing == null || existing.version != expectedVersion) {
+                return false;
+            }
+            if (uninstall(snapshot, key, hash)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public int maxKey() {
+        return current.get().maxKey();
+    }
+
+    @Override
+    public long version(int key) {
+        Leaf leaf = current.get().leaf(key);
+        return leaf == null ? 0L : leaf.version;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Versioned<V> getVersioned(int key) {
+        Leaf leaf = current.get().leaf(key);
+        return leaf == null ? null : new Versioned<>((V) leaf.value, leaf.version);
+    }
+
+    @Override
+    public long mutationVersion() {
+        return current.get().version;
+    }
+
+    @Override
+    public void clear() {
+        while (true) {
+            Snapshot<V> snapshot = current.get();
+            if (current.compareAndSet(snapshot, new Snapshot<>(EMPTY, 0, snapshot.version + 1, Integer.MIN_VALUE))) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<Integer, V>> entrySet() {
+        return new AbstractSet<Map.Entry<Integer, V>>() {
+            @Override
+            public Iterator<Map.Entry<Integer, V>> iterator() {
+                Iterator<Map.Entry<Integer, V>> entries = current.get().entrySet().iterator();
+                return new Iterator<Map.Entry<Integer, V>>() {
+                    private Map.Entry<Integer, V> last;
+
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<Integer, V> next() {
+                        last = entries.next();
+                        return last;
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last == null) {
+                            throw new IllegalStateException();
+                        }
+                        VersionedIntMap.this.remove((int) last.getKey());
+                        last = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return VersionedIntMap.this.size();
+            }
+
+            @Override
+            public void clear() {
+                VersionedIntMap.this.clear();
+            }
+        };
+    }
+
+    // installs a snapshot with the value written at the next version, false if another writer came first
+    private boolean install(Snapshot<V> snapshot, int key, int hash, V value, boolean added) {
+        long version = snapshot.version + 1;
+        Node root = put(snapshot.root, 0, hash, new Leaf(key, value, version));
+        return current.compareAndSet(snapshot, new Snapshot<>(root, added ? snapshot.size + 1 : snapshot.size, version,
+                Math.max(snapshot.maxKey, key)));
+    }
+
+    private boolean uninstall(Snapshot<V> snapshot, int key, int hash) {
+        Object removed = remove(snapshot.root, 0, hash, key);
+        Node root = removed == null ? EMPTY : (Node) removed;
+        // the largest key is carried forward, and only walked again when it is the one removed
+        int maxKey = key == snapshot.maxKey ? maxKey(root) : snapshot.maxKey;
+        return current.compareAndSet(snapshot, new Snapshot<>(root, snapshot.size - 1, snapshot.version + 1, maxKey));
+    }
+
+    private static int maxKey(Node root) {
+        int max = Integer.MIN_VALUE;
+        for (LeafIterator leaves = new LeafIterator(root); leaves.hasNext();) {
+            max = Math.max(max, leaves.next().key);
+        }
+        return max;
+    }
+
+    private static Node put(Node node, int shift, int hash, Leaf leaf) {
+        int bit = 1 << ((hash >>> shift) & MASK);
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        if ((node.bitmap & bit) == 0) {
+            return node.insert(index, bit, leaf);
+        }
+        Object child = node.children[index];
+        if (child instanceof Leaf) {
+            Leaf existing = (Leaf) child;
+            if (existing.key == leaf.key) {
+                return node.replace(index, leaf);
+            }
+            return node.replace(index, split(existing, IntObjectMap.hash(existing.key), leaf, hash, shift + BITS));
+        }
+        return node.replace(index, put((Node) child, shift + BITS, hash, leaf));
+    }
+
+    private static Node split(Leaf first, int firstHash, Leaf second, int secondHash, int shift) {
+        int firstIndex = (firstHash >>> shift) & MASK;
+        int secondIndex = (secondHash >>> shift) & MASK;
+        if (firstIndex == secondIndex) {
+            return new Node(1 << firstIndex, new Object[]{split(first, firstHash, second, secondHash, shift + BITS)});
+        }
+        int bitmap = (1 << firstIndex) | (1 << secondIndex);
+        return firstIndex < secondIndex
+                ? new Node(bitmap, new Object[]{first, second})
+                : new Node(bitmap, new Object[]{second, first});
+    }
+
+    /**
+     * Removes the key below the given node.
+     *
+     * @return The unchanged node if the key was not found, null if the node
+     * became empty, a leaf if only a leaf is left below a non-root node,
+     * otherwise the new node.
+     */
+    private static Object remove(Node node, int shift, int hash, int key) {
+        int bit = 1 << ((hash >>> shift) & MASK);
+        if ((node.bitmap & bit) == 0) {
+            return node;
+        }
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        Object child = node.children[index];
+        Object newChild;
+        if (child instanceof Leaf) {
+            if (((Leaf) child).key != key) {
+                return node;
+            }
+            newChild = null;
+        } else {
+            newChild = remove((Node) child, shift + BITS, hash, key);
+            if (newChild == child) {
+                return node;
+            }
+        }
+
+        if (newChild == null) {
+            if (node.children.length == 1) {
+                return null;
+            }
+            Node remaining = node.delete(index, bit);
+            if (shift > 0 && remaining.children.length == 1 && remaining.children[0] instanceof Leaf) {
+                return remaining.children[0]; // pull a lone leaf up to the parent
+            }
+            return remaining;
+        }
+        if (shift > 0 && node.children.length == 1 && newChild instanceof Leaf) {
+            return newChild;
+        }
+        return node.replace(index, newChild);
+    }
+
+    /**
+     * An immutable version of the map.
+     *
+     * @param <V> The type of the stored values.
+     */
+    public static final class Snapshot<V> extends AbstractMap<Integer, V> {
+
+        private final Node root;
+        private final int size;
+        private final long version;
+        private final int maxKey;
+
+        private Snapshot(Node root, int size, long version, int maxKey) {
+            this.root = root;
+            this.size = size;
+            this.version = version;
+            this.maxKey = maxKey;
+        }
+
+        /**
+         * Returns the version number of this snapshot, which grows with every
+         * write to the map.
+         *
+         * @return The version number.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public V get(Object key) {
+            return key instanceof Integer ? get((int) (Integer) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        /**
+         * Returns the value stored for the given key in this version.
+         *
+         * @param key The key to look up.
+         * @return The value, or null if the key is not present.
+         */
+        @SuppressWarnings("unchecked")
+        public V get(int key) {
+            Leaf leaf = leaf(key);
+            return leaf == null ? null : (V) leaf.value;
+        }
+
+        private Leaf leaf(int key) {
+            int hash = IntObjectMap.hash(key);
+            Node node = root;
+            for (int shift = 0;; shift += BITS) {
+                int bit = 1 << ((hash >>> shift) & MASK);
+                if ((node.bitmap & bit) == 0) {
+                    return null;
+                }
+                Object child = node.children[Integer.bitCount(node.bitmap & (bit - 1))];
+                if (child instanceof Leaf) {
+                    Leaf leaf = (Leaf) child;
+                    return leaf.key == key ? leaf : null;
+                }
+                node = (Node) child;
+            }
+        }
+
+        /**
+         * Returns the largest key of this version.
+         *
+         * @return The largest key, or {@link Integer#MIN_VALUE} if the
+         * snapshot is empty.
+         */
+        public int maxKey() {
+            return maxKey;
+        }
+
+        @Override
+        public Set<Map.Entry<Integer, V>> entrySet() {
+            return new AbstractSet<Map.Entry<Integer, V>>() {
+                @Override
+                public Iterator<Map.Entry<Integer, V>> iterator() {
+                    LeafIterator leaves = new LeafIterator(root);
+                    return new Iterator<Map.Entry<Integer, V>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return leaves.hasNext();
+                        }
+
+                        @Override
+                        @SuppressWarnings("unchecked")
+                        public Map.Entry<Integer, V> next() {
+                            Leaf leaf = leaves.next();
+                            return new AbstractMap.SimpleImmutableEntry<>(leaf.key, (V) leaf.value);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+
+    private static final class Node {
+
+        final int bitmap;
+        final Object[] children; // Node or Leaf
+
+        Node(int bitmap, Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+
+        Node insert(int index, int bit, Object child) {
+            Object[] copy = new Object[children.length + 1];
+            System.arraycopy(children, 0, copy, 0, index);
+            copy[index] = child;
+            System.arraycopy(children, index, copy, index + 1, children.length - index);
+            return new Node(bitmap | bit, copy);
+        }
+
+        Node replace(int index, Object child) {
+            Object[] copy = children.clone();
+            copy[index] = child;
+            return new Node(bitmap, copy);
+        }
+
+        Node delete(int index, int bit) {
+            Object[] copy = new Object[children.length - 1];
+            System.arraycopy(children, 0, copy, 0, index);
+            System.arraycopy(children, index + 1, copy, index, children.length - index - 1);
+            return new Node(bitmap & ~bit, copy);
+        }
+    }
+
+    private static final class Leaf {
+
+        final int key;
+        final Object value;
+        final long version;
+
+        Leaf(int key, Object value, long version) {
+            this.key = key;
+            this.value = value;
+            this.version = version;
+        }
+    }
+
+    /**
+     * Depth first iterator over the leaves of a trie.
+     */
+    private static final class LeafIterator implements Iterator<Leaf> {
+
+        private final Node[] nodes = new Node[MAX_DEPTH];
+        private final int[] positions = new int[MAX_DEPTH];
+        private int depth;
+        private Leaf next;
+
+        LeafIterator(Node root) {
+            nodes[0] = root;
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Node node = nodes[depth];
+                if (positions[depth] == node.children.length) {
+                    depth--;
+                    continue;
+                }
+                Object child = node.children[positions[depth]++];
+                if (child instanceof Leaf) {
+                    next = (Leaf) child;
+                    return;
+                }
+                depth++;
+                nodes[depth] = (Node) child;
+                positions[depth] = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Leaf next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Leaf leaf = next;
+            advance();
+            return leaf;
+        }
+    }
+}